@@ -0,0 +1,51 @@
+package com.raul.flight_search_backend.benchmark;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.service.FlightOfferStreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an Amadeus response: full data binding into the DTO, against the streaming reader the
+ * search uses, which compacts each offer into a {@link SearchResult} as it is parsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeserializationBenchmark {
+
+	@Param({ "10", "50", "250" })
+	public int offers;
+
+	private byte[] payload;
+	private FlightOfferStreamReader streamReader;
+
+	@Setup
+	public void setUp() {
+		payload = Fixtures.payload(offers);
+		streamReader = new FlightOfferStreamReader(Fixtures.OBJECT_MAPPER);
+	}
+
+	@Benchmark
+	public FlightOfferSearchResponse dataBinding() throws IOException {
+		return Fixtures.OBJECT_MAPPER.readValue(payload, FlightOfferSearchResponse.class);
+	}
+
+	@Benchmark
+	public SearchResult streamingReader() throws IOException {
+		SearchResult.Builder builder = SearchResult.builder("benchmark", Fixtures.REGISTRY);
+		streamReader.read(new ByteArrayInputStream(payload), builder, offer -> true, 250, false);
+		return builder.build();
+	}
+}
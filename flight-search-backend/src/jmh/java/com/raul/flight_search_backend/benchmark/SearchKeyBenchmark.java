@@ -0,0 +1,79 @@
+package com.raul.flight_search_backend.benchmark;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache key cost per search: normalizing the request into a {@link FlightSearchKey} and looking
+ * it up in a map of 10,000 keys, against hashing the raw request DTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchKeyBenchmark {
+
+	private static final String[] AIRPORTS = { "JFK", "LAX", "ORD", "DFW", "ATL", "DEN", "SFO", "MIA", "SEA", "BOS" };
+
+	private FlightOfferSearchRequest request;
+	private FlightSearchKey key;
+	private Map<FlightSearchKey, Boolean> keys;
+
+	@Setup
+	public void setUp() {
+		request = new FlightOfferSearchRequest();
+		request.setOriginLocationCode("jfk");
+		request.setDestinationLocationCode("lax");
+		request.setDepartureDate("2026-11-20");
+		request.setReturnDate("2026-11-27");
+		request.setCurrency("usd");
+		request.setAdults(1);
+		key = FlightSearchKey.of(request);
+
+		keys = new HashMap<>();
+		FlightOfferSearchRequest other = new FlightOfferSearchRequest();
+		other.setCurrency("USD");
+		other.setAdults(1);
+		LocalDate start = LocalDate.of(2026, 11, 1);
+		for (int i = 0; keys.size() < 10_000; i++) {
+			other.setOriginLocationCode(AIRPORTS[i % AIRPORTS.length]);
+			other.setDestinationLocationCode(AIRPORTS[(i / AIRPORTS.length) % AIRPORTS.length]);
+			other.setDepartureDate(start.plusDays(i / 100 % 200).toString());
+			if (!other.getOriginLocationCode().equals(other.getDestinationLocationCode())) {
+				keys.put(FlightSearchKey.of(other), Boolean.TRUE);
+			}
+		}
+		keys.put(key, Boolean.TRUE);
+	}
+
+	@Benchmark
+	public FlightSearchKey normalizeRequest() {
+		return FlightSearchKey.of(request);
+	}
+
+	@Benchmark
+	public Boolean normalizeAndLookUp() {
+		return keys.get(FlightSearchKey.of(request));
+	}
+
+	@Benchmark
+	public Boolean lookUpKey() {
+		return keys.get(key);
+	}
+
+	@Benchmark
+	public int hashRequest() {
+		return request.hashCode();
+	}
+}
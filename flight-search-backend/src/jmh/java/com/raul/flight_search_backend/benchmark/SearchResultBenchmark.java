@@ -0,0 +1,70 @@
+package com.raul.flight_search_backend.benchmark;
+
+import com.raul.flight_search_backend.dto.FlightOfferQuery;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.service.FlightOfferQueryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request work on a stored search: the offer and its dictionaries for the details page,
+ * and building and serializing the search response, whole or as one sorted page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchResultBenchmark {
+
+	@Param({ "10", "50", "250" })
+	public int offers;
+
+	private SearchResult searchResult;
+	private String offerId;
+	private FlightOfferQueryService queryService;
+	private FlightOfferQuery allOffers;
+	private FlightOfferQuery cheapestPage;
+
+	@Setup
+	public void setUp() {
+		searchResult = Fixtures.searchResult(offers);
+		offerId = String.valueOf(offers / 2 + 1);
+		queryService = new FlightOfferQueryService();
+
+		allOffers = new FlightOfferQuery();
+
+		cheapestPage = new FlightOfferQuery();
+		cheapestPage.setSort("price");
+		cheapestPage.setPage(1);
+		cheapestPage.setSize(10);
+	}
+
+	@Benchmark
+	public FlightOfferSearchResponse.FlightOffer offerById() {
+		return searchResult.getOffer(offerId);
+	}
+
+	@Benchmark
+	public FlightOfferSearchResponse.Dictionaries dictionariesForOffer() {
+		return searchResult.getDictionariesForOffer(offerId);
+	}
+
+	@Benchmark
+	public byte[] serializeFullResponse() throws IOException {
+		return Fixtures.OBJECT_MAPPER.writeValueAsBytes(queryService.query(searchResult, allOffers));
+	}
+
+	@Benchmark
+	public byte[] serializeSortedPage() throws IOException {
+		return Fixtures.OBJECT_MAPPER.writeValueAsBytes(queryService.query(searchResult, cheapestPage));
+	}
+}
@@ -0,0 +1,320 @@
+package com.raul.flight_search_backend;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the three Amadeus endpoints the backend calls: the OAuth token, flight-offer
+ * search and location reference data. Latency, error rates and the number of offers per search
+ * are configurable, so searches can be driven end to end without using quota.
+ * <p>
+ * Run on its own and point the app at it:
+ *
+ * <pre>
+ * ./gradlew amadeusStandIn -PstandInArgs="port=9090 latencyMs=250 jitterMs=100 errorRate=0.01 offers=100"
+ * ./gradlew bootRun --args="--amadeus.api.base_url=http://localhost:9090/v1/"
+ * </pre>
+ *
+ * Offers are generated from the request, seeded by its query, so repeating a search returns the
+ * same payload. {@code errorRate} answers a share of searches and location calls with 500,
+ * {@code throttleRate} with 429 and a one second Retry-After; the token endpoint never fails.
+ */
+public class AmadeusStandIn {
+
+	private static final String[][] AIRPORTS = {
+			{"JFK", "NYC", "NEW YORK", "JOHN F KENNEDY INTL"},
+			{"LAX", "LAX", "LOS ANGELES", "LOS ANGELES INTL"},
+			{"ORD", "CHI", "CHICAGO", "OHARE INTERNATIONAL"},
+			{"ATL", "ATL", "ATLANTA", "HARTSFIELD-JACKSON INTL"},
+			{"DFW", "DFW", "DALLAS", "DALLAS FT WORTH INTL"},
+			{"DEN", "DEN", "DENVER", "DENVER INTERNATIONAL"},
+			{"MIA", "MIA", "MIAMI", "MIAMI INTERNATIONAL"},
+			{"SFO", "SFO", "SAN FRANCISCO", "SAN FRANCISCO INTL"},
+			{"SEA", "SEA", "SEATTLE", "SEATTLE TACOMA INTL"},
+			{"BOS", "BOS", "BOSTON", "EDWARD L LOGAN INTL"},
+	};
+
+	private static final Map<String, String> CARRIERS = Map.of(
+			"AA", "AMERICAN AIRLINES",
+			"DL", "DELTA AIR LINES",
+			"UA", "UNITED AIRLINES",
+			"B6", "JETBLUE AIRWAYS",
+			"AS", "ALASKA AIRLINES");
+
+	private static final List<String> CARRIER_CODES = List.copyOf(CARRIERS.keySet());
+
+	private final Settings settings;
+	private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+	private HttpServer server;
+
+	public AmadeusStandIn(Settings settings) {
+		this.settings = settings;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int port = (int) LoadTestSupport.longArg(args, "port", 9090);
+		AmadeusStandIn standIn = new AmadeusStandIn(Settings.from(args));
+		standIn.start(port);
+		System.out.printf("Amadeus stand-in listening on %s (%s)%n", standIn.baseUrl(), standIn.settings);
+	}
+
+	public AmadeusStandIn start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 4096);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/v1/security/oauth2/token", exchange -> handle(exchange, "oauth", false, this::token));
+		server.createContext("/v2/shopping/flight-offers", exchange -> handle(exchange, "flight-offers", true, this::flightOffers));
+		server.createContext("/v1/reference-data/locations", exchange -> handle(exchange, "locations", true, this::locations));
+		server.start();
+		return this;
+	}
+
+	public void stop() {
+		if (server != null) {
+			server.stop(0);
+		}
+	}
+
+	/**
+	 * The v1 API root, as expected by {@code amadeus.api.base_url}.
+	 */
+	public String baseUrl() {
+		return "http://localhost:" + server.getAddress().getPort() + "/v1/";
+	}
+
+	/**
+	 * Requests received per endpoint ({@code oauth}, {@code flight-offers}, {@code locations}).
+	 */
+	public Map<String, Long> getRequestCounts() {
+		Map<String, Long> counts = new HashMap<>();
+		requests.forEach((operation, count) -> counts.put(operation, count.sum()));
+		return counts;
+	}
+
+	private void handle(HttpExchange exchange, String operation, boolean canFail, Handler handler) throws IOException {
+		requests.computeIfAbsent(operation, ignored -> new LongAdder()).increment();
+		try (exchange) {
+			exchange.getRequestBody().readAllBytes();
+			sleep(settings.latencyMillis() + (settings.jitterMillis() > 0
+					? ThreadLocalRandom.current().nextLong(settings.jitterMillis() + 1)
+					: 0));
+
+			double roll = ThreadLocalRandom.current().nextDouble();
+			if (canFail && roll < settings.errorRate()) {
+				send(exchange, 500, "{\"errors\":[{\"status\":500,\"code\":141,\"title\":\"SYSTEM ERROR HAS OCCURRED\"}]}");
+				return;
+			}
+			if (canFail && roll < settings.errorRate() + settings.throttleRate()) {
+				exchange.getResponseHeaders().set("Retry-After", "1");
+				send(exchange, 429, "{\"errors\":[{\"status\":429,\"code\":38194,\"title\":\"Too many requests\"}]}");
+				return;
+			}
+
+			Response response = handler.handle(exchange.getRequestURI().getPath(), query(exchange.getRequestURI().getRawQuery()));
+			send(exchange, response.status(), response.body());
+		}
+	}
+
+	private Response token(String path, Map<String, String> query) {
+		return new Response(200, "{\"type\":\"amadeusOAuth2Token\",\"token_type\":\"Bearer\",\"access_token\":\"stand-in-"
+				+ Long.toHexString(ThreadLocalRandom.current().nextLong()) + "\",\"expires_in\":1799,\"state\":\"approved\"}");
+	}
+
+	private Response flightOffers(String path, Map<String, String> query) {
+		String origin = query.getOrDefault("originLocationCode", "JFK");
+		String destination = query.getOrDefault("destinationLocationCode", "LAX");
+		LocalDate departure = parseDate(query.get("departureDate"));
+		int count = Math.min(settings.offers(), Integer.parseInt(query.getOrDefault("max", "250")));
+		boolean nonStop = Boolean.parseBoolean(query.getOrDefault("nonStop", "false"));
+		String currency = query.getOrDefault("currencyCode", "USD");
+		Random random = new Random(query.toString().hashCode());
+
+		StringBuilder json = new StringBuilder(2048 * (count + 1));
+		json.append("{\"meta\":{\"count\":").append(count).append("},\"data\":[");
+		for (int i = 1; i <= count; i++) {
+			if (i > 1) {
+				json.append(',');
+			}
+			appendOffer(json, random, i, origin, destination, departure, nonStop, currency);
+		}
+		json.append("],\"dictionaries\":{\"locations\":{");
+		for (int i = 0; i < AIRPORTS.length; i++) {
+			json.append(i > 0 ? "," : "").append('"').append(AIRPORTS[i][0]).append("\":{\"cityCode\":\"")
+					.append(AIRPORTS[i][1]).append("\",\"countryCode\":\"US\"}");
+		}
+		json.append("},\"aircraft\":{\"320\":\"AIRBUS A320\",\"738\":\"BOEING 737-800\"},\"currencies\":{\"")
+				.append(currency).append("\":\"").append(currency).append("\"},\"carriers\":{");
+		int i = 0;
+		for (Map.Entry<String, String> carrier : CARRIERS.entrySet()) {
+			json.append(i++ > 0 ? "," : "").append('"').append(carrier.getKey()).append("\":\"").append(carrier.getValue()).append('"');
+		}
+		json.append("}}}");
+		return new Response(200, json.toString());
+	}
+
+	private void appendOffer(StringBuilder json, Random random, int id, String origin, String destination,
+							 LocalDate departure, boolean nonStop, String currency) {
+		String carrier = CARRIER_CODES.get(random.nextInt(CARRIER_CODES.size()));
+		String via = AIRPORTS[random.nextInt(AIRPORTS.length)][0];
+		boolean direct = nonStop || random.nextInt(3) == 0 || via.equals(origin) || via.equals(destination);
+		int departureMinutes = 6 * 60 + random.nextInt(16 * 60);
+		double base = 80 + random.nextInt(90_000) / 100.0;
+		String total = String.format(Locale.ROOT, "%.2f", base * 1.18);
+
+		json.append("{\"type\":\"flight-offer\",\"id\":\"").append(id)
+				.append("\",\"source\":\"GDS\",\"instantTicketingRequired\":false,\"nonHomogeneous\":false,\"oneWay\":false,")
+				.append("\"lastTicketingDate\":\"").append(departure.minusDays(1)).append("\",\"numberOfBookableSeats\":")
+				.append(1 + random.nextInt(9)).append(",\"itineraries\":[{\"duration\":\"PT")
+				.append(direct ? 5 : 8).append("H").append(random.nextInt(60)).append("M\",\"segments\":[");
+		if (direct) {
+			appendSegment(json, 1, origin, destination, departure, departureMinutes, 300, carrier, random);
+		} else {
+			appendSegment(json, 1, origin, via, departure, departureMinutes, 180, carrier, random);
+			json.append(',');
+			appendSegment(json, 2, via, destination, departure, departureMinutes + 240, 200, carrier, random);
+		}
+		json.append("]}],\"price\":{\"currency\":\"").append(currency).append("\",\"total\":\"").append(total)
+				.append("\",\"base\":\"").append(String.format(Locale.ROOT, "%.2f", base))
+				.append("\",\"fees\":[{\"amount\":\"0.00\",\"type\":\"SUPPLIER\"},{\"amount\":\"0.00\",\"type\":\"TICKETING\"}],")
+				.append("\"grandTotal\":\"").append(total).append("\"},")
+				.append("\"pricingOptions\":{\"fareType\":[\"PUBLISHED\"],\"includedCheckedBagsOnly\":false},")
+				.append("\"validatingAirlineCodes\":[\"").append(carrier).append("\"],")
+				.append("\"travelerPricings\":[{\"travelerId\":\"1\",\"fareOption\":\"STANDARD\",\"travelerType\":\"ADULT\",")
+				.append("\"price\":{\"currency\":\"").append(currency).append("\",\"total\":\"").append(total).append("\"},")
+				.append("\"fareDetailsBySegment\":[{\"segmentId\":\"1\",\"cabin\":\"ECONOMY\",\"fareBasis\":\"K6AUSX\",")
+				.append("\"class\":\"K\",\"includedCheckedBags\":{\"quantity\":").append(random.nextInt(2)).append("},")
+				.append("\"amenities\":[{\"description\":\"CHECKED BAG\",\"isChargeable\":true,\"amenityType\":\"BAGGAGE\",")
+				.append("\"amenityProvider\":{\"name\":\"BrandedFare\"}}]}]}]}");
+	}
+
+	private void appendSegment(StringBuilder json, int id, String from, String to, LocalDate date, int departureMinutes,
+							   int durationMinutes, String carrier, Random random) {
+		json.append("{\"departure\":{\"iataCode\":\"").append(from).append("\",\"at\":\"").append(at(date, departureMinutes))
+				.append("\"},\"arrival\":{\"iataCode\":\"").append(to).append("\",\"at\":\"").append(at(date, departureMinutes + durationMinutes))
+				.append("\"},\"carrierCode\":\"").append(carrier).append("\",\"number\":\"").append(100 + random.nextInt(2900))
+				.append("\",\"aircraft\":{\"code\":\"").append(random.nextBoolean() ? "320" : "738")
+				.append("\"},\"duration\":\"PT").append(durationMinutes / 60).append('H').append(durationMinutes % 60)
+				.append("M\",\"id\":\"").append(id).append("\",\"numberOfStops\":0,\"blacklistedInEU\":false}");
+	}
+
+	private Response locations(String path, Map<String, String> query) {
+		String prefix = "/v1/reference-data/locations/";
+		if (path.startsWith(prefix) && path.length() > prefix.length()) {
+			String id = path.substring(prefix.length());
+			String[] airport = airport(id.substring(1));
+			if (airport == null) {
+				return new Response(404, "{\"errors\":[{\"status\":404,\"code\":1797,\"title\":\"NOT FOUND\"}]}");
+			}
+			return new Response(200, "{\"meta\":{\"count\":1},\"data\":" + location(airport) + "}");
+		}
+
+		String keyword = query.getOrDefault("keyword", "").toUpperCase(Locale.ROOT);
+		StringBuilder json = new StringBuilder("{\"data\":[");
+		int count = 0;
+		for (String[] airport : AIRPORTS) {
+			if (airport[0].startsWith(keyword) || airport[2].startsWith(keyword) || airport[3].contains(keyword)) {
+				json.append(count++ > 0 ? "," : "").append(location(airport));
+			}
+		}
+		return new Response(200, json.append("],\"meta\":{\"count\":").append(count).append("}}").toString());
+	}
+
+	private static String location(String[] airport) {
+		return "{\"type\":\"location\",\"subType\":\"AIRPORT\",\"name\":\"" + airport[3] + "\",\"detailedName\":\""
+				+ airport[2] + "/US:" + airport[3] + "\",\"id\":\"A" + airport[0] + "\",\"iataCode\":\"" + airport[0]
+				+ "\",\"address\":{\"cityName\":\"" + airport[2] + "\",\"cityCode\":\"" + airport[1]
+				+ "\",\"countryName\":\"UNITED STATES OF AMERICA\",\"countryCode\":\"US\"},"
+				+ "\"analytics\":{\"travelers\":{\"score\":" + (airport[0].charAt(0) * 2 % 100) + "}}}";
+	}
+
+	private static String[] airport(String iataCode) {
+		for (String[] airport : AIRPORTS) {
+			if (airport[0].equals(iataCode)) {
+				return airport;
+			}
+		}
+		return null;
+	}
+
+	private static String at(LocalDate date, int minutes) {
+		return date.plusDays(minutes / (24 * 60)) + String.format(Locale.ROOT, "T%02d:%02d:00", minutes / 60 % 24, minutes % 60);
+	}
+
+	private static LocalDate parseDate(String value) {
+		try {
+			return LocalDate.parse(value);
+		} catch (RuntimeException e) {
+			return LocalDate.now().plusDays(30);
+		}
+	}
+
+	private static Map<String, String> query(String rawQuery) {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery == null) {
+			return query;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int equals = pair.indexOf('=');
+			if (equals > 0) {
+				query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+						URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return query;
+	}
+
+	private static void send(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static void sleep(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public record Settings(long latencyMillis, long jitterMillis, double errorRate, double throttleRate, int offers) {
+
+		public static Settings from(String[] args) {
+			return new Settings(
+					LoadTestSupport.longArg(args, "latencyMs", 250),
+					LoadTestSupport.longArg(args, "jitterMs", 100),
+					LoadTestSupport.doubleArg(args, "errorRate", 0),
+					LoadTestSupport.doubleArg(args, "throttleRate", 0),
+					(int) LoadTestSupport.longArg(args, "offers", 50));
+		}
+	}
+
+	private record Response(int status, String body) {
+	}
+
+	@FunctionalInterface
+	private interface Handler {
+		Response handle(String path, Map<String, String> query);
+	}
+}
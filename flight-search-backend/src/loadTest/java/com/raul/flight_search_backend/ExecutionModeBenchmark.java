@@ -0,0 +1,131 @@
+package com.raul.flight_search_backend;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how many concurrent searches each execution mode sustains when every search blocks on
+ * a slow upstream call. "platform" runs handlers on a fixed pool the size of Tomcat's default
+ * (200 threads), "virtual" runs each handler on its own virtual thread. A local stub stands in for
+ * Amadeus so no quota is used.
+ *
+ * <pre>
+ * ./gradlew executionModeBenchmark -PbenchmarkArgs="latencyMs=300 seconds=10 levels=100,200,400,800"
+ * </pre>
+ *
+ * A level counts as sustained while its p99 stays under twice the upstream latency.
+ */
+public class ExecutionModeBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		long latencyMillis = LoadTestSupport.longArg(args, "latencyMs", 300);
+		long seconds = LoadTestSupport.longArg(args, "seconds", 10);
+		int platformThreads = (int) LoadTestSupport.longArg(args, "platformThreads", 200);
+		int[] levels = Arrays.stream(LoadTestSupport.stringArg(args, "levels", "50,100,200,400,800,1600").split(","))
+				.mapToInt(Integer::parseInt)
+				.toArray();
+
+		HttpServer upstream = startUpstream(latencyMillis);
+		String url = "http://localhost:" + upstream.getAddress().getPort() + "/v2/shopping/flight-offers";
+		RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+				.setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+						.setMaxConnTotal(10_000)
+						.setMaxConnPerRoute(10_000)
+						.build())
+				.build()));
+
+		System.out.printf("upstream latency %d ms, %d s per level%n", latencyMillis, seconds);
+		System.out.printf("%-9s %11s %12s %9s %9s %10s%n", "mode", "concurrency", "throughput/s", "p50 ms", "p99 ms", "sustained");
+
+		try {
+			for (String mode : List.of("platform", "virtual")) {
+				for (int level : levels) {
+					ExecutorService handlers = mode.equals("virtual")
+							? Executors.newVirtualThreadPerTaskExecutor()
+							: Executors.newFixedThreadPool(platformThreads);
+					try {
+						Result result = run(handlers, restTemplate, url, level, seconds);
+						System.out.printf("%-9s %11d %12.1f %9.1f %9.1f %10s%n", mode, level, result.throughput(),
+								result.p50Millis(), result.p99Millis(), result.p99Millis() <= 2.0 * latencyMillis ? "yes" : "no");
+					} finally {
+						handlers.shutdownNow();
+					}
+				}
+			}
+		} finally {
+			upstream.stop(0);
+		}
+	}
+
+	/**
+	 * Closed loop: each simulated client submits a search to the handler executor, waits for it
+	 * and immediately submits the next one. Latency includes the time spent queued for a handler.
+	 */
+	private static Result run(ExecutorService handlers, RestTemplate restTemplate, String url, int clients, long seconds)
+			throws InterruptedException {
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+		List<Thread> threads = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			threads.add(Thread.ofVirtual().start(() -> {
+				while (System.nanoTime() < deadline) {
+					long start = System.nanoTime();
+					try {
+						handlers.submit(() -> restTemplate.getForObject(url, String.class)).get();
+						latencies.add(System.nanoTime() - start);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					} catch (Exception e) {
+						System.err.println("Request failed: " + e.getMessage());
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		return new Result(sorted.length / (double) seconds, LoadTestSupport.percentileMillis(sorted, 0.50), LoadTestSupport.percentileMillis(sorted, 0.99));
+	}
+
+	private static HttpServer startUpstream(long latencyMillis) throws Exception {
+		byte[] body = "{\"meta\":{\"count\":0},\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/", exchange -> {
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		return server;
+	}
+
+	private record Result(double throughput, double p50Millis, double p99Millis) {
+	}
+}
@@ -0,0 +1,36 @@
+package com.raul.flight_search_backend;
+
+/**
+ * Argument parsing and latency percentiles shared by the load tests. Arguments are passed as
+ * {@code name=value} pairs.
+ */
+final class LoadTestSupport {
+
+	private LoadTestSupport() {
+	}
+
+	static double percentileMillis(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / 1_000_000.0;
+	}
+
+	static long longArg(String[] args, String name, long defaultValue) {
+		return Long.parseLong(stringArg(args, name, String.valueOf(defaultValue)));
+	}
+
+	static double doubleArg(String[] args, String name, double defaultValue) {
+		return Double.parseDouble(stringArg(args, name, String.valueOf(defaultValue)));
+	}
+
+	static String stringArg(String[] args, String name, String defaultValue) {
+		for (String arg : args) {
+			if (arg.startsWith(name + "=")) {
+				return arg.substring(name.length() + 1);
+			}
+		}
+		return defaultValue;
+	}
+}
@@ -0,0 +1,173 @@
+package com.raul.flight_search_backend;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the real controllers end to end: starts the {@link AmadeusStandIn}, boots the
+ * application against it on a random port, and runs closed-loop clients that each send a search
+ * (or, for {@code autocompleteShare} of requests, an airport lookup), wait for the answer and
+ * send the next. Reports throughput and p50/p99 latency per operation, plus how many calls
+ * reached the stand-in, which shows what the caches and coalescing absorbed.
+ *
+ * <pre>
+ * ./gradlew searchLoadTest -PloadTestArgs="clients=200 seconds=60 routes=30 dates=60 latencyMs=400 errorRate=0.02"
+ * </pre>
+ *
+ * Searches are spread over {@code routes} origin/destination pairs and {@code dates} departure
+ * dates, so the key space (and the cache hit ratio) is set by their product. The upstream rate
+ * limits default far above the real quota so the stand-in, not the limiter, sets the pace; pass
+ * {@code upstreamRate=5} to see the production limits instead. The first {@code warmupSeconds}
+ * are run but not reported.
+ */
+public class SearchLoadTest {
+
+	private static final String[] AIRPORTS = {"JFK", "LAX", "ORD", "ATL", "DFW", "DEN", "MIA", "SFO", "SEA", "BOS"};
+
+	private static final String[] KEYWORDS = {"NEW", "LOS", "CHI", "ATL", "DAL", "DEN", "MIA", "SAN", "SEA", "BOS", "JFK", "LAX"};
+
+	public static void main(String[] args) throws Exception {
+		int clients = (int) LoadTestSupport.longArg(args, "clients", 100);
+		long seconds = LoadTestSupport.longArg(args, "seconds", 30);
+		long warmupSeconds = LoadTestSupport.longArg(args, "warmupSeconds", 10);
+		int routes = (int) Math.min(AIRPORTS.length * (AIRPORTS.length - 1), LoadTestSupport.longArg(args, "routes", 20));
+		int dates = (int) LoadTestSupport.longArg(args, "dates", 30);
+		double autocompleteShare = LoadTestSupport.doubleArg(args, "autocompleteShare", 0.2);
+		String upstreamRate = LoadTestSupport.stringArg(args, "upstreamRate", "10000");
+
+		AmadeusStandIn standIn = new AmadeusStandIn(AmadeusStandIn.Settings.from(args)).start(0);
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(FlightSearchBackendApplication.class)
+				.properties(Map.ofEntries(
+						Map.entry("server.port", "0"),
+						Map.entry("amadeus.api.base_url", standIn.baseUrl()),
+						Map.entry("amadeus.api.key", "load-test"),
+						Map.entry("amadeus.api.secret", "load-test"),
+						Map.entry("cache.disk.enabled", "false"),
+						Map.entry("fares.file", Files.createTempDirectory("fares").resolve("observations.dat").toString()),
+						Map.entry("upstream.rate.flight-offers", upstreamRate),
+						Map.entry("upstream.rate.locations", upstreamRate),
+						Map.entry("spring.main.banner-mode", "off"),
+						Map.entry("logging.level.root", "WARN")))
+				.run();
+
+		try {
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			List<String> searches = searchUrls(baseUrl, routes, dates);
+			HttpClient client = HttpClient.newBuilder()
+					.executor(Executors.newVirtualThreadPerTaskExecutor())
+					.connectTimeout(Duration.ofSeconds(5))
+					.build();
+
+			System.out.printf("%d clients, %d distinct searches, stand-in %s%n", clients, searches.size(), AmadeusStandIn.Settings.from(args));
+			run(client, baseUrl, searches, autocompleteShare, clients, warmupSeconds);
+			Map<String, Long> upstreamBefore = standIn.getRequestCounts();
+			Map<String, Stats> results = run(client, baseUrl, searches, autocompleteShare, clients, seconds);
+			Map<String, Long> upstreamAfter = standIn.getRequestCounts();
+
+			System.out.printf("%-13s %9s %8s %12s %9s %9s %9s%n", "operation", "requests", "errors", "throughput/s", "p50 ms", "p99 ms", "max ms");
+			results.forEach((operation, stats) -> {
+				long[] sorted = stats.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+				System.out.printf("%-13s %9d %8d %12.1f %9.1f %9.1f %9.1f%n", operation, sorted.length, stats.errors.sum(),
+						sorted.length / (double) seconds, LoadTestSupport.percentileMillis(sorted, 0.50),
+						LoadTestSupport.percentileMillis(sorted, 0.99), LoadTestSupport.percentileMillis(sorted, 1.0));
+				stats.errorsByStatus.forEach((status, count) -> System.out.printf("  %s: %d%n", status, count.sum()));
+			});
+			System.out.println("upstream calls during the run:");
+			new TreeMap<>(upstreamAfter).forEach((operation, count) ->
+					System.out.printf("  %-13s %d%n", operation, count - upstreamBefore.getOrDefault(operation, 0L)));
+		} finally {
+			context.close();
+			standIn.stop();
+		}
+	}
+
+	private static Map<String, Stats> run(HttpClient client, String baseUrl, List<String> searches, double autocompleteShare,
+										  int clients, long seconds) throws InterruptedException {
+		Map<String, Stats> results = new TreeMap<>(Map.of("search", new Stats(), "autocomplete", new Stats()));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+		List<Thread> threads = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			threads.add(Thread.ofVirtual().start(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.nanoTime() < deadline) {
+					boolean autocomplete = random.nextDouble() < autocompleteShare;
+					String url = autocomplete
+							? baseUrl + "/api/airport-and-city/search?subType=AIRPORT&keyword=" + KEYWORDS[random.nextInt(KEYWORDS.length)]
+							: searches.get(random.nextInt(searches.size()));
+					Stats stats = results.get(autocomplete ? "autocomplete" : "search");
+
+					long start = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url))
+								.timeout(Duration.ofSeconds(30))
+								.build(), HttpResponse.BodyHandlers.discarding());
+						long elapsed = System.nanoTime() - start;
+						if (response.statusCode() == 200) {
+							stats.latencies.add(elapsed);
+						} else {
+							stats.error("HTTP " + response.statusCode());
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					} catch (Exception e) {
+						stats.error(e.getClass().getSimpleName());
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return results;
+	}
+
+	private static List<String> searchUrls(String baseUrl, int routes, int dates) {
+		List<String> urls = new ArrayList<>(routes * dates);
+		LocalDate firstDate = LocalDate.now().plusDays(14);
+		int route = 0;
+		for (String origin : AIRPORTS) {
+			for (String destination : AIRPORTS) {
+				if (origin.equals(destination) || route++ >= routes) {
+					continue;
+				}
+				for (int day = 0; day < dates; day++) {
+					urls.add(baseUrl + "/api/flight-offers/search?origin=" + origin + "&destination=" + destination
+							+ "&departureDate=" + firstDate.plusDays(day) + "&currency=USD&adults=1");
+				}
+			}
+		}
+		return urls;
+	}
+
+	private static final class Stats {
+
+		private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		private final LongAdder errors = new LongAdder();
+		private final Map<String, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+
+		private void error(String status) {
+			errors.increment();
+			errorsByStatus.computeIfAbsent(status, ignored -> new LongAdder()).increment();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.raul.flight_search_backend;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts the packaged application repeatedly in each startup mode and reports how long it takes
+ * until the context is ready (Spring's {@code application.ready.time}) and until the first
+ * request is answered, measured from process launch, so JVM startup is included. The first
+ * request is an autocomplete lookup the local index answers, so no Amadeus call is needed.
+ *
+ * <pre>
+ * ./gradlew startupBenchmark -Pproduction -PstartupArgs="runs=10"
+ * </pre>
+ *
+ * Modes combine {@code aot} (pre-generated bean definitions), {@code cds} (the extracted jar
+ * with the AppCDS archive) and {@code lazy} (the {@code fast-startup} profile); {@code jar} is
+ * the current build, {@code java -jar} on the boot jar. Each run gets a fresh working directory.
+ */
+public class StartupBenchmark {
+
+	private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+	public static void main(String[] args) throws Exception {
+		String bootJar = LoadTestSupport.stringArg(args, "bootJar", "build/libs/flight-search-backend-0.0.1-SNAPSHOT.jar");
+		String extractedJar = LoadTestSupport.stringArg(args, "extractedJar", "build/cds/app/flight-search-backend-0.0.1-SNAPSHOT.jar");
+		String archive = LoadTestSupport.stringArg(args, "archive", "build/cds/app/application.jsa");
+		List<String> modes = List.of(LoadTestSupport.stringArg(args, "modes", "jar,aot,aot+cds,aot+cds+lazy").split(","));
+		int runs = (int) LoadTestSupport.longArg(args, "runs", 5);
+		long timeoutSeconds = LoadTestSupport.longArg(args, "timeoutSeconds", 60);
+		String firstRequest = LoadTestSupport.stringArg(args, "path", "/api/airport-and-city/search?subType=AIRPORT&keyword=JFK");
+		String java = ProcessHandle.current().info().command().orElse("java");
+
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+		System.out.printf("%d runs per mode, first request %s%n", runs, firstRequest);
+		System.out.printf("%-14s %14s %14s %19s %19s%n", "mode", "ready p50 ms", "ready max ms", "first req p50 ms", "first req max ms");
+		for (String mode : modes) {
+			List<String> flags = Arrays.asList(mode.split("\\+"));
+			long[] ready = new long[runs];
+			long[] firstAnswer = new long[runs];
+			for (int run = 0; run < runs; run++) {
+				List<String> command = new ArrayList<>(List.of(java));
+				if (flags.contains("cds")) {
+					command.add("-XX:SharedArchiveFile=" + Path.of(archive).toAbsolutePath());
+				}
+				if (flags.contains("aot")) {
+					command.add("-Dspring.aot.enabled=true");
+				}
+				command.addAll(List.of("-jar", Path.of(flags.contains("cds") ? extractedJar : bootJar).toAbsolutePath().toString()));
+				if (flags.contains("lazy")) {
+					command.add("--spring.profiles.active=fast-startup");
+				}
+
+				long[] timings = startOnce(client, command, firstRequest, timeoutSeconds);
+				ready[run] = timings[0];
+				firstAnswer[run] = timings[1];
+			}
+			Arrays.sort(ready);
+			Arrays.sort(firstAnswer);
+			System.out.printf("%-14s %14.0f %14.0f %19.0f %19.0f%n", mode,
+					LoadTestSupport.percentileMillis(ready, 0.50), LoadTestSupport.percentileMillis(ready, 1.0),
+					LoadTestSupport.percentileMillis(firstAnswer, 0.50), LoadTestSupport.percentileMillis(firstAnswer, 1.0));
+		}
+	}
+
+	/**
+	 * Returns the context ready time and the time to the first answered request, in nanoseconds.
+	 */
+	private static long[] startOnce(HttpClient client, List<String> command, String firstRequest, long timeoutSeconds)
+			throws IOException, InterruptedException {
+		Path workingDirectory = Files.createTempDirectory("startup-benchmark");
+		int port = freePort();
+		List<String> arguments = new ArrayList<>(command);
+		arguments.add("--server.port=" + port);
+		String baseUrl = "http://localhost:" + port;
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(arguments)
+				.directory(workingDirectory.toFile())
+				.redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.start();
+		try {
+			long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+			while (true) {
+				if (!process.isAlive()) {
+					throw new IllegalStateException("Exited with " + process.exitValue() + ": " + String.join(" ", arguments));
+				}
+				if (System.nanoTime() > deadline) {
+					throw new IllegalStateException("No answer within " + timeoutSeconds + " s: " + String.join(" ", arguments));
+				}
+				try {
+					if (get(client, baseUrl + firstRequest).statusCode() == 200) {
+						break;
+					}
+				} catch (IOException e) {
+					// Not listening yet.
+				}
+				Thread.sleep(5);
+			}
+			long firstAnswer = System.nanoTime() - start;
+
+			Matcher value = METRIC_VALUE.matcher(get(client, baseUrl + "/actuator/metrics/application.ready.time").body());
+			long ready = value.find() ? (long) (Double.parseDouble(value.group(1)) * TimeUnit.SECONDS.toNanos(1)) : 0;
+			return new long[] {ready, firstAnswer};
+		} finally {
+			process.destroy();
+			if (!process.waitFor(10, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+			try (Stream<Path> paths = Files.walk(workingDirectory)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	private static HttpResponse<String> get(HttpClient client, String url) throws IOException, InterruptedException {
+		return client.send(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.service.AirportAndCitySearchService;
+import com.raul.flight_search_backend.service.FlightOfferSearchService;
+import com.raul.flight_search_backend.service.SearchResultStore;
+import com.raul.flight_search_backend.util.InboundAdmissionLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Inbound admission lanes. On platform request threads (the default) a lane only protects the
+ * others while the sum of every lane's {@code max-concurrent} and {@code queue-capacity} stays
+ * below {@code server.tomcat.threads.max} (200 by default); the defaults add up to 192.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} every request gets its own virtual thread and
+ * there is no thread pool to exhaust, so the lanes are what bounds the work in flight: each one
+ * caps its own concurrency and queue, and queued requests wait without holding a carrier thread.
+ * Their sizes can then be set from what the upstream and the heap allow rather than the pool.
+ */
+@Configuration
+public class AdmissionConfig {
+
+    @Value("${admission.search.max-concurrent:48}")
+    private int searchConcurrency;
+
+    @Value("${admission.search.queue-capacity:48}")
+    private int searchQueueCapacity;
+
+    @Value("${admission.search.queue-timeout:2s}")
+    private Duration searchQueueTimeout;
+
+    @Value("${admission.details.max-concurrent:24}")
+    private int detailsConcurrency;
+
+    @Value("${admission.details.queue-capacity:24}")
+    private int detailsQueueCapacity;
+
+    @Value("${admission.details.queue-timeout:500ms}")
+    private Duration detailsQueueTimeout;
+
+    @Value("${admission.autocomplete.max-concurrent:16}")
+    private int autocompleteConcurrency;
+
+    @Value("${admission.autocomplete.queue-capacity:16}")
+    private int autocompleteQueueCapacity;
+
+    @Value("${admission.autocomplete.queue-timeout:250ms}")
+    private Duration autocompleteQueueTimeout;
+
+    @Value("${admission.dictionaries.max-concurrent:8}")
+    private int dictionariesConcurrency;
+
+    @Value("${admission.dictionaries.queue-capacity:8}")
+    private int dictionariesQueueCapacity;
+
+    @Value("${admission.dictionaries.queue-timeout:500ms}")
+    private Duration dictionariesQueueTimeout;
+
+    @Value("${admission.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Bean
+    public InboundAdmissionLimiter inboundAdmissionLimiter() {
+        return new InboundAdmissionLimiter()
+                .lane(InboundAdmissionFilter.SEARCH, searchConcurrency, searchQueueCapacity, searchQueueTimeout)
+                .lane(InboundAdmissionFilter.DETAILS, detailsConcurrency, detailsQueueCapacity, detailsQueueTimeout)
+                .lane(InboundAdmissionFilter.AUTOCOMPLETE, autocompleteConcurrency, autocompleteQueueCapacity, autocompleteQueueTimeout)
+                .lane(InboundAdmissionFilter.DICTIONARIES, dictionariesConcurrency, dictionariesQueueCapacity, dictionariesQueueTimeout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<InboundAdmissionFilter> inboundAdmissionFilter(InboundAdmissionLimiter inboundAdmissionLimiter,
+                                                                                 FlightOfferSearchService flightOfferSearchService,
+                                                                                 AirportAndCitySearchService airportAndCitySearchService,
+                                                                                 SearchResultStore searchResultStore) {
+        FilterRegistrationBean<InboundAdmissionFilter> registration = new FilterRegistrationBean<>(new InboundAdmissionFilter(
+                inboundAdmissionLimiter, flightOfferSearchService, airportAndCitySearchService, searchResultStore, retryAfter));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -1,50 +1,272 @@
 package com.raul.flight_search_backend.config;
 
-import com.raul.flight_search_backend.service.AmadeusAuthService;
+import com.raul.flight_search_backend.service.AmadeusTokenManager;
+import com.raul.flight_search_backend.util.UpstreamCircuitBreaker;
+import com.raul.flight_search_backend.util.UpstreamConcurrencyLimiter;
+import com.raul.flight_search_backend.util.UpstreamRateLimiter;
+import com.raul.flight_search_backend.util.UpstreamTimingInterceptor;
+import com.raul.flight_search_backend.util.UpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Instant;
-import java.util.Collections;
-import java.util.Map;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class AmadeusConfig {
 
+    // Relative to amadeus.api.base_url, which points at the v1 API.
+    public static final String FLIGHT_OFFERS_PATH = "../v2/shopping/flight-offers";
+    public static final String LOCATIONS_PATH = "reference-data/locations";
+    public static final String TOKEN_PATH = "security/oauth2/token";
+
+    @Autowired
+    private AmadeusTokenManager amadeusTokenManager;
+
     @Autowired
-    private AmadeusAuthService amadeusAuthService;
+    private ClientHttpRequestFactory amadeusRequestFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${amadeus.api.base_url:https://test.api.amadeus.com/v1/}")
+    private String baseUrl;
 
-    @Value("${amadeus.api.key}")
-    private String apiKey;
+    @Value("${upstream.concurrency.flight-offers:32}")
+    private int flightOffersConcurrency;
 
-    @Value("${amadeus.api.secret}")
-    private String apiSecret;
+    @Value("${upstream.concurrency.locations:16}")
+    private int locationsConcurrency;
 
-    private String bearerToken;
-    private Instant tokenExpireTime;
+    @Value("${upstream.concurrency.acquire-timeout:5s}")
+    private Duration acquireTimeout;
+
+    @Value("${upstream.rate.flight-offers:5}")
+    private double flightOffersRate;
+
+    @Value("${upstream.rate.locations:5}")
+    private double locationsRate;
+
+    @Value("${upstream.rate.max-wait:2s}")
+    private Duration rateMaxWait;
+
+    @Value("${upstream.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${upstream.circuit.open-duration:30s}")
+    private Duration circuitOpenDuration;
 
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
-        ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
-            if (bearerToken == null || Instant.now().isAfter(tokenExpireTime)) {
-                refreshBearerToken();
+    public UpstreamConcurrencyLimiter upstreamConcurrencyLimiter() {
+        return new UpstreamConcurrencyLimiter(acquireTimeout)
+                .limit("flight-offers", apiPath(FLIGHT_OFFERS_PATH), flightOffersConcurrency)
+                .limit("locations", apiPath(LOCATIONS_PATH), locationsConcurrency);
+    }
+
+    @Bean
+    public UpstreamRateLimiter upstreamRateLimiter() {
+        return new UpstreamRateLimiter(rateMaxWait)
+                .limit("flight-offers", apiPath(FLIGHT_OFFERS_PATH), flightOffersRate)
+                .limit("locations", apiPath(LOCATIONS_PATH), locationsRate);
+    }
+
+    @Bean
+    public UpstreamCircuitBreaker upstreamCircuitBreaker() {
+        return new UpstreamCircuitBreaker(circuitFailureThreshold, circuitOpenDuration)
+                .circuit("flight-offers", apiPath(FLIGHT_OFFERS_PATH))
+                .circuit("locations", apiPath(LOCATIONS_PATH));
+    }
+
+    /**
+     * Each Amadeus call passes, in order: the circuit breaker (fails fast while open), the rate
+     * limiter (holds the per-second quota, paused by 429s) and the adaptive concurrency limiter
+     * (backs off on overload). Only then is the bearer token attached, so a refused call never
+     * waits on a token refresh. Calls refused by a guard never count as upstream failures. The
+     * concurrency permit is held, and the circuit's outcome recorded, when the response is
+     * closed, so bodies read as a stream count too: a body that fails mid-read is a failure.
+     */
+    @Bean
+    public RestTemplate restTemplate(UpstreamConcurrencyLimiter upstreamConcurrencyLimiter,
+                                     UpstreamRateLimiter upstreamRateLimiter,
+                                     UpstreamCircuitBreaker upstreamCircuitBreaker) {
+        RestTemplate restTemplate = new RestTemplate(amadeusRequestFactory);
+        ClientHttpRequestInterceptor circuitBreaker = (request, body, execution) -> {
+            UpstreamCircuitBreaker.Call call = upstreamCircuitBreaker.attempt(request.getURI().getPath());
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                if (isFailure(response.getStatusCode())) {
+                    call.failed();
+                    return response;
+                }
+                return new ClosingResponse(response, bodyFailed -> {
+                    if (bodyFailed) {
+                        call.failed();
+                    } else {
+                        call.succeeded();
+                    }
+                });
+            } catch (UpstreamUnavailableException e) {
+                call.abandoned();
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                call.failed();
+                throw e;
+            }
+        };
+        ClientHttpRequestInterceptor rateLimit = (request, body, execution) -> {
+            String path = request.getURI().getPath();
+            upstreamRateLimiter.acquire(path);
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                upstreamRateLimiter.pause(path, retryAfter(response));
+            }
+            return response;
+        };
+        ClientHttpRequestInterceptor concurrencyLimit = (request, body, execution) -> {
+            UpstreamConcurrencyLimiter.Permit permit = upstreamConcurrencyLimiter.acquire(request.getURI().getPath());
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                if (isOverloaded(response.getStatusCode())) {
+                    permit.overloaded();
+                }
+                return new ClosingResponse(response, bodyFailed -> permit.close());
+            } catch (IOException e) {
+                permit.overloaded();
+                permit.close();
+                throw e;
+            } catch (RuntimeException e) {
+                permit.close();
+                throw e;
             }
-            request.getHeaders().setBearerAuth(bearerToken);
+        };
+        ClientHttpRequestInterceptor bearerToken = (request, body, execution) -> {
+            request.getHeaders().setBearerAuth(amadeusTokenManager.getToken());
             return execution.execute(request, body);
         };
-        restTemplate.setInterceptors(Collections.singletonList(interceptor));
+        restTemplate.setInterceptors(List.of(circuitBreaker, rateLimit, concurrencyLimit, bearerToken,
+                new UpstreamTimingInterceptor(meterRegistry)));
         return restTemplate;
     }
 
-    private synchronized void refreshBearerToken() {
-        Map<String, Object> tokenResponse = amadeusAuthService.getBearerToken(apiKey, apiSecret);
-        bearerToken = (String) tokenResponse.get("access_token");
-        int expiresIn = (int) tokenResponse.get("expires_in");
-        tokenExpireTime = Instant.now().plusSeconds(expiresIn);
+    /**
+     * Resolves an API path against {@code amadeus.api.base_url}, which may be given with or
+     * without its trailing slash.
+     */
+    public static URI apiUrl(String baseUrl, String relativePath) {
+        String base = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        return URI.create(base).resolve(relativePath);
+    }
+
+    // Guards match on the full request path, so their prefixes come from the same URLs the
+    // services request.
+    private String apiPath(String relativePath) {
+        return apiUrl(baseUrl, relativePath).getPath();
+    }
+
+    private static boolean isFailure(HttpStatusCode status) {
+        return status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    private static Duration retryAfter(ClientHttpResponse response) {
+        String retryAfter = response.getHeaders().getFirst("Retry-After");
+        try {
+            return retryAfter != null ? Duration.ofSeconds(Long.parseLong(retryAfter.trim())) : Duration.ofSeconds(1);
+        } catch (NumberFormatException e) {
+            return Duration.ofSeconds(1);
+        }
+    }
+
+    /**
+     * Tells its listener, once, when the response is closed and whether reading the body failed.
+     */
+    static final class ClosingResponse implements ClientHttpResponse {
+
+        @FunctionalInterface
+        interface CloseListener {
+            void closed(boolean bodyFailed);
+        }
+
+        private final ClientHttpResponse response;
+        private final CloseListener listener;
+        private volatile boolean bodyFailed;
+        private boolean closed;
+
+        ClosingResponse(ClientHttpResponse response, CloseListener listener) {
+            this.response = response;
+            this.listener = listener;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(response.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        bodyFailed = true;
+                        throw e;
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        bodyFailed = true;
+                        throw e;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                response.close();
+            } finally {
+                listener.closed(bodyFailed);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package com.raul.flight_search_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${enrichment.parallelism:8}")
+    private int enrichmentParallelism;
+
+    @Value("${enrichment.queue-capacity:500}")
+    private int enrichmentQueueCapacity;
+
+    @Value("${streaming.parallelism:32}")
+    private int streamingParallelism;
+
+    @Value("${streaming.queue-capacity:100}")
+    private int streamingQueueCapacity;
+
+    @Value("${streaming.writers:200}")
+    private int streamWriters;
+
+    @Value("${flexible-search.max-concurrent:8}")
+    private int flexibleSearchConcurrency;
+
+    @Value("${flexible-search.queue-capacity:100}")
+    private int flexibleSearchQueueCapacity;
+
+    @Value("${cache.flight-offers.refresh-parallelism:4}")
+    private int refreshParallelism;
+
+    /**
+     * Shared pool for location lookups; its size caps how many lookups run against Amadeus at once.
+     * When the queue is full the searching thread runs the lookup itself.
+     */
+    @Bean(name = "enrichmentExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor enrichmentExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(enrichmentParallelism);
+        executor.setMaxPoolSize(enrichmentParallelism);
+        executor.setQueueCapacity(enrichmentQueueCapacity);
+        executor.setThreadNamePrefix("enrichment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled=true} every lookup gets its own virtual thread;
+     * the number hitting Amadeus at once is capped by {@code upstream.concurrency.locations}.
+     */
+    @Bean(name = "enrichmentExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualEnrichmentExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("enrichment-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Runs the searches behind streamed responses (NDJSON and SSE) off the request threads.
+     */
+    @Bean(name = "streamingExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamingParallelism);
+        executor.setMaxPoolSize(streamingParallelism);
+        executor.setQueueCapacity(streamingQueueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        return executor;
+    }
+
+    @Bean(name = "streamingExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualStreamingExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("streaming-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Spring MVC's async executor, which writes streamed responses to their clients. It is kept
+     * apart from the streaming executor so a slow client only ever ties up a writer, never the
+     * thread parsing the Amadeus response, and writers never wait behind searches in one pool.
+     */
+    @Bean(name = "streamWriterExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor streamWriterExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamWriters);
+        executor.setMaxPoolSize(streamWriters);
+        executor.setQueueCapacity(streamingQueueCapacity);
+        executor.setThreadNamePrefix("stream-writer-");
+        return executor;
+    }
+
+    @Bean(name = "streamWriterExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualStreamWriterExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stream-writer-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Shared by every flexible-date search, so its size is the total number of per-date searches
+     * in flight at once, however many users ask for a date window. Once its queue is full further
+     * windows are rejected, and answered with a 503, rather than queued behind the timeout.
+     */
+    @Bean(name = "flexibleSearchExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor flexibleSearchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(flexibleSearchConcurrency);
+        executor.setMaxPoolSize(flexibleSearchConcurrency);
+        executor.setQueueCapacity(flexibleSearchQueueCapacity);
+        executor.setThreadNamePrefix("flexible-search-");
+        return executor;
+    }
+
+    /**
+     * Same bounds on virtual threads. A concurrency-limited {@link SimpleAsyncTaskExecutor} would
+     * block the submitting request instead of rejecting it, so this is still a bounded pool.
+     */
+    @Bean(name = "flexibleSearchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualFlexibleSearchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(flexibleSearchConcurrency);
+        executor.setMaxPoolSize(flexibleSearchConcurrency);
+        executor.setQueueCapacity(flexibleSearchQueueCapacity);
+        executor.setThreadFactory(Thread.ofVirtual().name("flexible-search-", 0).factory());
+        return executor;
+    }
+
+    /**
+     * Background cache refreshes. Refreshing is best effort: when the queue is full the refresh
+     * is dropped and the stale entry stays in place until a later request retries it.
+     */
+    @Bean(name = "refreshExecutor")
+    public TaskExecutor refreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshParallelism);
+        executor.setMaxPoolSize(refreshParallelism);
+        executor.setQueueCapacity(refreshParallelism * 25);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Runs {@code @Scheduled} jobs; declared explicitly so they do not end up on another
+     * scheduled executor in the context.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+}
@@ -1,18 +1,184 @@
 package com.raul.flight_search_backend.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.raul.flight_search_backend.dto.CityLocationResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import com.raul.flight_search_backend.util.AppendOnlyFileStore;
+import com.raul.flight_search_backend.util.DiskBackedCache;
+import com.raul.flight_search_backend.util.RouteStatsCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cache.flight-offers.max-weight-bytes:67108864}")
+    private long flightOffersMaxWeightBytes;
+
+    @Value("${cache.flight-offers.refresh-after:10m}")
+    private Duration flightOffersRefreshAfter;
+
+    @Value("${cache.flight-offers.max-stale:20m}")
+    private Duration flightOffersMaxStale;
+
+    @Value("${cache.flight-offers.max-tracked-routes:1000}")
+    private int flightOffersMaxTrackedRoutes;
+
+    @Value("${cache.locations.max-size:20000}")
+    private long locationsMaxSize;
+
+    @Value("${cache.locations.ttl:7d}")
+    private Duration locationsTtl;
+
+    @Value("${cache.disk.enabled:true}")
+    private boolean diskEnabled;
+
+    @Value("${cache.disk.directory:data/cache}")
+    private Path diskDirectory;
+
+    private final List<DiskBackedCache> diskBackedCaches = new ArrayList<>();
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Bounded Caffeine caches (W-TinyLFU admission) with per-cache expiry and statistics.
+     * Flight offers are weighed by their estimated retained size so the bound tracks real memory use,
+     * and their hits and misses are also counted per route. They are kept for the max staleness past
+     * their refresh point so stale entries can still be served while they are refreshed.
+     * Location details change rarely, so they are also kept on disk to survive restarts; their
+     * expiry is per entry so a value read back from disk keeps only what is left of its ttl. Flight
+     * dictionaries are not cached here; they live in the process-wide {@code DictionaryRegistry}.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("flightOffersCache", "locationDetails", "flightDictionaries");
+    public CacheManager cacheManager() throws IOException {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new RouteStatsCache(new CaffeineCache("flightOffersCache", Caffeine.newBuilder()
+                        .maximumWeight(flightOffersMaxWeightBytes)
+                        .weigher((Object key, Object value) -> weigh(value))
+                        .expireAfterWrite(flightOffersRefreshAfter.plus(flightOffersMaxStale))
+                        .recordStats()
+                        .build()),
+                        key -> key instanceof FlightSearchKey searchKey ? searchKey.route() : RouteStatsCache.OTHER_ROUTES,
+                        flightOffersMaxTrackedRoutes),
+                diskBacked(new CaffeineCache("locationDetails", Caffeine.newBuilder()
+                        .maximumSize(locationsMaxSize)
+                        .expireAfter(expireAfterWrite(locationsTtl))
+                        .recordStats()
+                        .build()),
+                        CityLocationResponse.LocationData.class, locationsTtl)
+        ));
+        return cacheManager;
+    }
+
+    /**
+     * Intern table for the codes of cached offers. Cached searches hold its ids, so every search
+     * has to go through the same instance.
+     */
+    @Bean
+    public StringPool stringPool() {
+        return new StringPool();
+    }
+
+    /**
+     * Dictionary entries shared by all cached searches, keyed by {@link #stringPool()} ids.
+     */
+    @Bean
+    public DictionaryRegistry dictionaryRegistry(StringPool stringPool) {
+        return new DictionaryRegistry(stringPool);
+    }
+
+    /**
+     * Backs {@code cache} with an append-only file named after it. The file is indexed in the
+     * background, so startup does not wait on it; until then misses go upstream as before.
+     */
+    private Cache diskBacked(CaffeineCache cache, Class<?> valueType, Duration ttl) throws IOException {
+        if (!diskEnabled) {
+            return cache;
+        }
+        AppendOnlyFileStore store = new AppendOnlyFileStore(diskDirectory.resolve(cache.getName() + ".log"));
+        DiskBackedCache diskBackedCache = new DiskBackedCache(cache, store, smileMapper, valueType, ttl);
+        diskBackedCaches.add(diskBackedCache);
+        return diskBackedCache;
+    }
+
+    @PreDestroy
+    public void closeDiskCaches() {
+        for (DiskBackedCache cache : diskBackedCaches) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                log.warn("Could not close disk cache {}: {}", cache.getName(), e.getMessage());
+            }
+        }
+    }
+
+    // Same as expireAfterWrite, but lets individual entries be put with a shorter lifetime.
+    private static Expiry<Object, Object> expireAfterWrite(Duration ttl) {
+        long ttlNanos = ttl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return ttlNanos;
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private int weigh(Object value) {
+        if (value == null || value instanceof NullValue) {
+            return 1;
+        }
+        if (value instanceof SearchResult searchResult) {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(1, searchResult.estimatedBytes()));
+        }
+        try {
+            return Math.max(1, objectMapper.writeValueAsBytes(value).length);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not weigh cache value: {}", e.getMessage());
+            return 1;
+        }
     }
 
 }
@@ -0,0 +1,164 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.util.HttpClientMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client used for every Amadeus call. The default ({@code http.client.type=apache}) is a
+ * pooled Apache HttpClient: keep-alive connections (which also reuse their TLS sessions),
+ * per-host and total connection limits, gzip/deflate decompression, and connect, read and total
+ * timeouts. {@code http.client.type=jdk} switches to the JDK client, which negotiates HTTP/2
+ * but has no pool limits or pool statistics.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final String ACQUIRE_START_ATTRIBUTE = "flight-search.connection-acquire-start";
+
+    @Value("${http.client.max-connections-total:200}")
+    private int maxConnectionsTotal;
+
+    @Value("${http.client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.read-timeout:10s}")
+    private Duration readTimeout;
+
+    @Value("${http.client.connection-request-timeout:2s}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${http.client.total-timeout:15s}")
+    private Duration totalTimeout;
+
+    @Value("${http.client.keep-alive:30s}")
+    private Duration keepAlive;
+
+    @Value("${http.client.idle-eviction:60s}")
+    private Duration idleEviction;
+
+    @Bean
+    public HttpClientMetrics httpClientMetrics(MeterRegistry meterRegistry) {
+        return new HttpClientMetrics(meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledThreadPoolExecutor httpTimeoutScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "http-total-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "http.client.type", havingValue = "apache", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager amadeusConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "http.client.type", havingValue = "apache", matchIfMissing = true)
+    public ClientHttpRequestFactory apacheRequestFactory(PoolingHttpClientConnectionManager amadeusConnectionManager,
+                                                         HttpClientMetrics httpClientMetrics,
+                                                         ScheduledThreadPoolExecutor httpTimeoutScheduler) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(amadeusConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.of(keepAlive).compareTo(serverKeepAlive) < 0 ? TimeValue.of(keepAlive) : serverKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .addExecInterceptorFirst("total-timeout", totalTimeoutHandler(httpClientMetrics, httpTimeoutScheduler))
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(), "acquire-start", (request, scope, chain) -> {
+                    scope.clientContext.setAttribute(ACQUIRE_START_ATTRIBUTE, System.nanoTime());
+                    return chain.proceed(request, scope);
+                })
+                .addExecInterceptorAfter(ChainElement.CONNECT.name(), "acquire-end", (request, scope, chain) -> {
+                    if (scope.clientContext.getAttribute(ACQUIRE_START_ATTRIBUTE) instanceof Long start) {
+                        httpClientMetrics.recordAcquire(System.nanoTime() - start);
+                    }
+                    return chain.proceed(request, scope);
+                })
+                .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "http.client.type", havingValue = "jdk")
+    public ClientHttpRequestFactory jdkRequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(totalTimeout);
+        return requestFactory;
+    }
+
+    /**
+     * Aborts a request that has not produced a response within {@code http.client.total-timeout},
+     * covering pool wait, connect and every retry and redirect together.
+     */
+    private ExecChainHandler totalTimeoutHandler(HttpClientMetrics httpClientMetrics, ScheduledThreadPoolExecutor scheduler) {
+        return (request, scope, chain) -> {
+            if (!(scope.originalRequest instanceof HttpUriRequest abortable)) {
+                return chain.proceed(request, scope);
+            }
+
+            ScheduledFuture<?> abort = scheduler.schedule(() -> {
+                httpClientMetrics.recordTotalTimeout();
+                abortable.abort();
+            }, totalTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            try {
+                return chain.proceed(request, scope);
+            } finally {
+                abort.cancel(false);
+            }
+        };
+    }
+}
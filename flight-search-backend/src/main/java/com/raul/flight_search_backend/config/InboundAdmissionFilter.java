@@ -0,0 +1,143 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.dto.AirportAndCitySearchRequest;
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.service.AirportAndCitySearchService;
+import com.raul.flight_search_backend.service.FlightOfferSearchService;
+import com.raul.flight_search_backend.service.SearchResultStore;
+import com.raul.flight_search_backend.util.InboundAdmissionLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Puts each API request through its lane of the {@link InboundAdmissionLimiter} before it
+ * reaches a controller, and answers 503 with {@code Retry-After} when it is shed. Searches whose
+ * key is in the offers cache, lookups of stored search ids and autocomplete keywords the local
+ * index can answer are preferred. The streaming endpoints are not admitted here; they are
+ * bounded by the streaming executor and its queue.
+ */
+public class InboundAdmissionFilter extends OncePerRequestFilter {
+
+    public static final String SEARCH = "search";
+    public static final String DETAILS = "details";
+    public static final String DICTIONARIES = "dictionaries";
+    public static final String AUTOCOMPLETE = "autocomplete";
+
+    private static final String RESULTS_PREFIX = "/api/flight-offers/results/";
+    private static final String DETAILS_PREFIX = "/api/flight-offers/details/";
+
+    private final InboundAdmissionLimiter limiter;
+    private final FlightOfferSearchService flightOfferSearchService;
+    private final AirportAndCitySearchService airportAndCitySearchService;
+    private final SearchResultStore searchResultStore;
+    private final String retryAfterSeconds;
+
+    public InboundAdmissionFilter(InboundAdmissionLimiter limiter,
+                                  FlightOfferSearchService flightOfferSearchService,
+                                  AirportAndCitySearchService airportAndCitySearchService,
+                                  SearchResultStore searchResultStore,
+                                  Duration retryAfter) {
+        this.limiter = limiter;
+        this.flightOfferSearchService = flightOfferSearchService;
+        this.airportAndCitySearchService = airportAndCitySearchService;
+        this.searchResultStore = searchResultStore;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String lane = "GET".equals(request.getMethod()) ? laneOf(path) : null;
+        if (lane == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        InboundAdmissionLimiter.Permit permit = admit(lane, path, request);
+        if (permit == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many " + lane + " requests, retry later");
+            return;
+        }
+
+        try (permit) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static String laneOf(String path) {
+        return switch (path) {
+            case "/api/flight-offers/search", "/api/flight-offers/search/flexible" -> SEARCH;
+            case "/api/flight-offers/dictionaries" -> DICTIONARIES;
+            case "/api/airport-and-city/search" -> AUTOCOMPLETE;
+            default -> path.startsWith(DETAILS_PREFIX) || path.startsWith(RESULTS_PREFIX) ? DETAILS : null;
+        };
+    }
+
+    private InboundAdmissionLimiter.Permit admit(String lane, String path, HttpServletRequest request) {
+        try {
+            return limiter.acquire(lane, isPreferred(lane, path, request));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private boolean isPreferred(String lane, String path, HttpServletRequest request) {
+        try {
+            return switch (lane) {
+                case SEARCH -> !path.endsWith("/flexible") && flightOfferSearchService.isCached(searchKey(request));
+                case DETAILS -> searchResultStore.contains(path.startsWith(RESULTS_PREFIX)
+                        ? path.substring(RESULTS_PREFIX.length())
+                        : request.getParameter("searchId"));
+                case DICTIONARIES -> searchResultStore.contains(request.getParameter("searchId"));
+                case AUTOCOMPLETE -> airportAndCitySearchService.canAnswerLocally(locationRequest(request));
+                default -> false;
+            };
+        } catch (RuntimeException e) {
+            // Malformed parameters: admitted as ordinary, the controller answers with a 400.
+            return false;
+        }
+    }
+
+    private static FlightSearchKey searchKey(HttpServletRequest request) {
+        FlightOfferSearchRequest searchRequest = new FlightOfferSearchRequest();
+
+        searchRequest.setOriginLocationCode(request.getParameter("origin"));
+        searchRequest.setDestinationLocationCode(request.getParameter("destination"));
+        searchRequest.setDepartureDate(request.getParameter("departureDate"));
+        searchRequest.setReturnDate(request.getParameter("returnDate"));
+        searchRequest.setCurrency(request.getParameter("currency"));
+        searchRequest.setAdults(Integer.parseInt(request.getParameter("adults")));
+        searchRequest.setNonStop(Boolean.parseBoolean(request.getParameter("nonStop")));
+
+        return FlightSearchKey.of(searchRequest);
+    }
+
+    private static AirportAndCitySearchRequest locationRequest(HttpServletRequest request) {
+        AirportAndCitySearchRequest locationRequest = new AirportAndCitySearchRequest();
+
+        locationRequest.setSubType(request.getParameter("subType"));
+        locationRequest.setKeyword(request.getParameter("keyword"));
+        locationRequest.setCountryCode(request.getParameter("countryCode"));
+        locationRequest.setLimit(intParameter(request, "limit", 10));
+        locationRequest.setOffset(intParameter(request, "offset", 0));
+
+        return locationRequest;
+    }
+
+    private static int intParameter(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
@@ -0,0 +1,221 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.service.FareObservationService;
+import com.raul.flight_search_backend.service.FlightOfferSearchService;
+import com.raul.flight_search_backend.service.LocationEnrichmentService;
+import com.raul.flight_search_backend.service.ResponseBytesCache;
+import com.raul.flight_search_backend.util.DiskBackedCache;
+import com.raul.flight_search_backend.util.InFlightRequestCoalescer;
+import com.raul.flight_search_backend.util.InboundAdmissionLimiter;
+import com.raul.flight_search_backend.util.UpstreamCircuitBreaker;
+import com.raul.flight_search_backend.util.UpstreamConcurrencyLimiter;
+import com.raul.flight_search_backend.util.UpstreamRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Size, hit, miss and eviction meters for every cache in the cache manager. Boot only binds
+     * plain {@code CaffeineCache}s, and ours are wrapped, so they are bound from the native cache
+     * with the same tags Boot would use. Disk-backed caches also report their disk tier.
+     */
+    @Bean
+    public MeterBinder cacheMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache == null) {
+                    continue;
+                }
+                Tags tags = Tags.of("cache", cacheName, "cache.manager", "cacheManager");
+
+                if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                    CaffeineCacheMetrics.monitor(registry, nativeCache, cacheName, Tags.of("cache.manager", "cacheManager"));
+                }
+
+                if (cache instanceof DiskBackedCache diskBackedCache) {
+                    FunctionCounter.builder("cache.disk.gets", diskBackedCache, DiskBackedCache::getDiskHits)
+                            .tags(tags).tag("result", "hit").register(registry);
+                    FunctionCounter.builder("cache.disk.gets", diskBackedCache, DiskBackedCache::getDiskMisses)
+                            .tags(tags).tag("result", "miss").register(registry);
+                    FunctionCounter.builder("cache.disk.writes", diskBackedCache, DiskBackedCache::getDiskWrites)
+                            .tags(tags).register(registry);
+                    FunctionCounter.builder("cache.disk.errors", diskBackedCache, DiskBackedCache::getDiskErrors)
+                            .tags(tags).register(registry);
+                    Gauge.builder("cache.disk.size", diskBackedCache, DiskBackedCache::getDiskEntries)
+                            .tags(tags).register(registry);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder responseBytesCacheMetrics(ResponseBytesCache responseBytesCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, responseBytesCache.getResponses(), "responseBytes");
+    }
+
+    @Bean
+    public MeterBinder dictionaryRegistryMetrics(DictionaryRegistry dictionaryRegistry) {
+        return registry -> {
+            Gauge.builder("dictionary.registry.size", dictionaryRegistry, DictionaryRegistry::locationCount)
+                    .tag("dictionary", "locations").register(registry);
+            Gauge.builder("dictionary.registry.size", dictionaryRegistry, DictionaryRegistry::aircraftCount)
+                    .tag("dictionary", "aircraft").register(registry);
+            Gauge.builder("dictionary.registry.size", dictionaryRegistry, DictionaryRegistry::currencyCount)
+                    .tag("dictionary", "currencies").register(registry);
+            Gauge.builder("dictionary.registry.size", dictionaryRegistry, DictionaryRegistry::carrierCount)
+                    .tag("dictionary", "carriers").register(registry);
+        };
+    }
+
+    /**
+     * Stale-while-revalidate activity of the flight-offers cache.
+     */
+    @Bean
+    public MeterBinder offersRefreshMetrics(FlightOfferSearchService flightOfferSearchService) {
+        return registry -> {
+            FunctionCounter.builder("flight.offers.stale.served", flightOfferSearchService, FlightOfferSearchService::getStaleServedCount)
+                    .register(registry);
+            FunctionCounter.builder("flight.offers.refreshes", flightOfferSearchService, FlightOfferSearchService::getRefreshCount)
+                    .tag("result", "success").register(registry);
+            FunctionCounter.builder("flight.offers.refreshes", flightOfferSearchService, FlightOfferSearchService::getRefreshFailureCount)
+                    .tag("result", "failure").register(registry);
+            Gauge.builder("flight.offers.refreshing", flightOfferSearchService, FlightOfferSearchService::getRefreshingCount)
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Upstream calls made and calls that joined one already in flight, per coalesced operation.
+     */
+    @Bean
+    public MeterBinder coalescingMetrics(FlightOfferSearchService flightOfferSearchService,
+                                         LocationEnrichmentService locationEnrichmentService) {
+        return registry -> {
+            bindCoalescer(registry, "flight-offers", flightOfferSearchService.getSearchCoalescer());
+            bindCoalescer(registry, "locations", locationEnrichmentService.getLookupCoalescer());
+        };
+    }
+
+    private static void bindCoalescer(MeterRegistry registry, String operation, InFlightRequestCoalescer<?, ?> coalescer) {
+        FunctionCounter.builder("coalescer.calls", coalescer, InFlightRequestCoalescer::getExecutedCount)
+                .tags("operation", operation, "result", "executed").register(registry);
+        FunctionCounter.builder("coalescer.calls", coalescer, InFlightRequestCoalescer::getCoalescedCount)
+                .tags("operation", operation, "result", "coalesced").register(registry);
+        Gauge.builder("coalescer.in.flight", coalescer, InFlightRequestCoalescer::getInFlightCount)
+                .tag("operation", operation).register(registry);
+    }
+
+    /**
+     * Leased, pending, available and max connections of the Amadeus connection pool, when the
+     * Apache client is in use; acquire time and total timeouts are recorded by {@code HttpClientMetrics}.
+     */
+    @Bean
+    public MeterBinder httpPoolMetrics(ObjectProvider<PoolingHttpClientConnectionManager> amadeusConnectionManager) {
+        return registry -> amadeusConnectionManager.ifAvailable(connectionManager ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "amadeus").bindTo(registry));
+    }
+
+    @Bean
+    public MeterBinder fareObservationMetrics(FareObservationService fareObservationService) {
+        return registry -> {
+            Gauge.builder("fares.index.ready", fareObservationService, service -> service.isReady() ? 1 : 0)
+                    .register(registry);
+            Gauge.builder("fares.observations", fareObservationService, FareObservationService::getStoredCount)
+                    .register(registry);
+            Gauge.builder("fares.observations.indexed", fareObservationService, FareObservationService::getIndexedCount)
+                    .register(registry);
+            FunctionCounter.builder("fares.observations.overwritten", fareObservationService, FareObservationService::getOverwrittenCount)
+                    .register(registry);
+            FunctionCounter.builder("fares.observations.unchanged", fareObservationService, FareObservationService::getUnchangedCount)
+                    .register(registry);
+            Gauge.builder("fares.routes", fareObservationService, FareObservationService::getRouteCount)
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Adaptive limit, occupancy, ordinary-request latency, and admitted and shed requests per
+     * inbound admission lane; {@code reason} is
+     * {@code rejected} for a full queue and {@code timeout} for a queue deadline.
+     */
+    @Bean
+    public MeterBinder admissionMetrics(InboundAdmissionLimiter inboundAdmissionLimiter) {
+        return registry -> inboundAdmissionLimiter.getLanes().forEach((name, lane) -> {
+            Gauge.builder("admission.limit", lane, InboundAdmissionLimiter.Lane::getLimit)
+                    .tag("lane", name).register(registry);
+            Gauge.builder("admission.in.flight", lane, InboundAdmissionLimiter.Lane::getInFlight)
+                    .tag("lane", name).register(registry);
+            Gauge.builder("admission.queued", lane, InboundAdmissionLimiter.Lane::getQueued)
+                    .tag("lane", name).register(registry);
+            Gauge.builder("admission.latency", lane, InboundAdmissionLimiter.Lane::getLatencyMillis)
+                    .tag("lane", name).baseUnit("milliseconds").register(registry);
+            FunctionCounter.builder("admission.admitted", lane, InboundAdmissionLimiter.Lane::getAdmitted)
+                    .tag("lane", name).register(registry);
+            FunctionCounter.builder("admission.shed", lane, InboundAdmissionLimiter.Lane::getRejected)
+                    .tags("lane", name, "reason", "rejected").register(registry);
+            FunctionCounter.builder("admission.shed", lane, InboundAdmissionLimiter.Lane::getTimedOut)
+                    .tags("lane", name, "reason", "timeout").register(registry);
+        });
+    }
+
+    /**
+     * Adaptive concurrency limit and backoffs, rate-limit tokens and pauses, circuit state
+     * (0 closed, 1 half-open, 2 open) and guard rejections per upstream endpoint.
+     */
+    @Bean
+    public MeterBinder upstreamGuardMetrics(UpstreamConcurrencyLimiter upstreamConcurrencyLimiter,
+                                            UpstreamRateLimiter upstreamRateLimiter,
+                                            UpstreamCircuitBreaker upstreamCircuitBreaker) {
+        return registry -> {
+            upstreamConcurrencyLimiter.getEndpoints().forEach((name, endpoint) -> {
+                Gauge.builder("upstream.concurrency.limit", endpoint, UpstreamConcurrencyLimiter.Endpoint::getLimit)
+                        .tag("operation", name).register(registry);
+                Gauge.builder("upstream.concurrency.in.flight", endpoint, UpstreamConcurrencyLimiter.Endpoint::getInFlight)
+                        .tag("operation", name).register(registry);
+                Gauge.builder("upstream.concurrency.waiting", endpoint, UpstreamConcurrencyLimiter.Endpoint::getWaiting)
+                        .tag("operation", name).register(registry);
+                FunctionCounter.builder("upstream.concurrency.backoffs", endpoint, UpstreamConcurrencyLimiter.Endpoint::getBackoffs)
+                        .tag("operation", name).register(registry);
+                FunctionCounter.builder("upstream.rejected", endpoint, UpstreamConcurrencyLimiter.Endpoint::getRejected)
+                        .tags("operation", name, "guard", "concurrency").register(registry);
+            });
+            upstreamRateLimiter.getBuckets().forEach((name, bucket) -> {
+                Gauge.builder("upstream.rate.available", bucket, UpstreamRateLimiter.Bucket::getAvailableTokens)
+                        .tag("operation", name).register(registry);
+                FunctionCounter.builder("upstream.rate.pauses", bucket, UpstreamRateLimiter.Bucket::getPauses)
+                        .tag("operation", name).register(registry);
+                FunctionCounter.builder("upstream.rejected", bucket, UpstreamRateLimiter.Bucket::getRejected)
+                        .tags("operation", name, "guard", "rate").register(registry);
+            });
+            upstreamCircuitBreaker.getCircuits().forEach((name, circuit) -> {
+                Gauge.builder("upstream.circuit.state", circuit, c -> switch (c.getState()) {
+                            case CLOSED -> 0;
+                            case HALF_OPEN -> 1;
+                            case OPEN -> 2;
+                        })
+                        .tag("operation", name).register(registry);
+                Gauge.builder("upstream.circuit.consecutive.failures", circuit, UpstreamCircuitBreaker.Circuit::getConsecutiveFailures)
+                        .tag("operation", name).register(registry);
+                FunctionCounter.builder("upstream.circuit.opened", circuit, UpstreamCircuitBreaker.Circuit::getOpenedCount)
+                        .tag("operation", name).register(registry);
+                FunctionCounter.builder("upstream.rejected", circuit, UpstreamCircuitBreaker.Circuit::getRejected)
+                        .tags("operation", name, "guard", "circuit").register(registry);
+            });
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.controller.AirportAndCitySearchController;
+import com.raul.flight_search_backend.controller.FlightOfferSearchController;
+import com.raul.flight_search_backend.service.AirportCityIndex;
+import com.raul.flight_search_backend.service.FareObservationService;
+import com.raul.flight_search_backend.service.HotSearchRefresher;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans created at startup even with {@code spring.main.lazy-initialization=true} (the
+ * {@code fast-startup} profile): the search and autocomplete controllers and everything they
+ * depend on, so the first request does not pay for wiring them; the location index and fare
+ * index, which load their data at startup; and the hot-search refresher, whose schedule is only
+ * registered once the bean exists. Everything else (stats, fares API, metrics binders) is
+ * created on first use.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                FlightOfferSearchController.class,
+                AirportAndCitySearchController.class,
+                AirportCityIndex.class,
+                FareObservationService.class,
+                HotSearchRefresher.class);
+    }
+}
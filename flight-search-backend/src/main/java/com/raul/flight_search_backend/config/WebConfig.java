@@ -0,0 +1,28 @@
+package com.raul.flight_search_backend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    @Qualifier("streamWriterExecutor")
+    private AsyncTaskExecutor streamWriterExecutor;
+
+    @Value("${streaming.timeout:60s}")
+    private Duration streamingTimeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamWriterExecutor);
+        configurer.setDefaultTimeout(streamingTimeout.toMillis());
+    }
+}
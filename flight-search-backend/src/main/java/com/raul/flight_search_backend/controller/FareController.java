@@ -0,0 +1,41 @@
+package com.raul.flight_search_backend.controller;
+
+import com.raul.flight_search_backend.dto.FareCalendarResponse;
+import com.raul.flight_search_backend.dto.FareTrendResponse;
+import com.raul.flight_search_backend.service.FareObservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Price hints from fares already seen in searches; these never call Amadeus.
+ */
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/fares")
+public class FareController {
+
+    @Autowired
+    private FareObservationService fareObservationService;
+
+    /**
+     * Cheapest known one-way fare per person for each departure date in {@code month} (yyyy-MM).
+     */
+    @GetMapping("/calendar")
+    public FareCalendarResponse getCalendar(@RequestParam String origin,
+                                            @RequestParam String destination,
+                                            @RequestParam String month,
+                                            @RequestParam(required = false, defaultValue = "USD") String currency) {
+        return fareObservationService.calendar(origin, destination, month, currency);
+    }
+
+    /**
+     * Lowest and average fare seen on the route on each of the last {@code days} days.
+     */
+    @GetMapping("/trend")
+    public FareTrendResponse getTrend(@RequestParam String origin,
+                                      @RequestParam String destination,
+                                      @RequestParam(required = false, defaultValue = "USD") String currency,
+                                      @RequestParam(required = false, defaultValue = "30") int days) {
+        return fareObservationService.trend(origin, destination, currency, days);
+    }
+}
@@ -1,13 +1,39 @@
 package com.raul.flight_search_backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raul.flight_search_backend.dto.FlexibleDateSearchResponse;
+import com.raul.flight_search_backend.dto.FlightOfferQuery;
 import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
 import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.dto.FlightOfferStreamEvent;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.SerializedResponse;
+import com.raul.flight_search_backend.service.FlexibleDateSearchService;
+import com.raul.flight_search_backend.service.FlightOfferQueryService;
 import com.raul.flight_search_backend.service.FlightOfferSearchService;
+import com.raul.flight_search_backend.service.FlightOfferStreamService;
+import com.raul.flight_search_backend.service.ResponseBytesCache;
+import com.raul.flight_search_backend.service.SearchResultStore;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:3000")
@@ -15,11 +41,69 @@ import java.util.Map;
 @RequestMapping("/api/flight-offers")
 public class FlightOfferSearchController {
 
+    private static final byte[] SSE_EVENT_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     private FlightOfferSearchService flightOfferSearchService;
 
+    @Autowired
+    private SearchResultStore searchResultStore;
+
+    @Autowired
+    private FlightOfferQueryService flightOfferQueryService;
+
+    @Autowired
+    private FlightOfferStreamService flightOfferStreamService;
+
+    @Autowired
+    private FlexibleDateSearchService flexibleDateSearchService;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${streaming.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Value("${flexible-search.retry-after:1s}")
+    private Duration flexibleSearchRetryAfter;
+    /**
+     * Answers from pre-serialized bytes, gzipped when the client accepts it. Repeat searches
+     * served from the offers cache carry the same ETag, so clients revalidate with a 304.
+     */
     @GetMapping("/search")
-    public FlightOfferSearchResponse searchFlight(@Valid @RequestParam String origin,
+    public ResponseEntity<byte[]> searchFlight(@Valid @RequestParam String origin,
+            @Valid @RequestParam String destination,
+            @Valid @RequestParam String departureDate,
+            @RequestParam(required = false) String returnDate,
+            @Valid @RequestParam String currency,
+            @Valid @RequestParam int adults,
+            @RequestParam(required = false, defaultValue = "false") boolean nonStop,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) List<String> carriers,
+            @RequestParam(required = false) Integer maxStops,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        FlightSearchKey key = toKey(origin, destination, departureDate, returnDate, currency, adults, nonStop);
+
+        SearchResult searchResult = searchResultStore.register(flightOfferSearchService.searchFlights(key));
+
+        return queryResponse(searchResult, toQuery(sort, order, maxPrice, carriers, maxStops, page, size), acceptEncoding);
+    }
+
+    /**
+     * Streams the search as NDJSON: one {@code offer} line per offer as soon as it is parsed,
+     * then a {@code complete} line with the search id and enriched dictionaries.
+     * Answers 503 with {@code Retry-After} when the streaming executor has no room for the search.
+     */
+    @GetMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(@Valid @RequestParam String origin,
             @Valid @RequestParam String destination,
             @Valid @RequestParam String departureDate,
             @RequestParam(required = false) String returnDate,
@@ -27,84 +111,183 @@ public class FlightOfferSearchController {
             @Valid @RequestParam int adults,
             @RequestParam(required = false, defaultValue = "false") boolean nonStop) {
 
-        FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+        FlightSearchKey key = toKey(origin, destination, departureDate, returnDate, currency, adults, nonStop);
 
-        request.setOriginLocationCode(origin);
-        request.setDestinationLocationCode(destination);
-        request.setDepartureDate(departureDate);
-        request.setReturnDate(returnDate);
-        request.setCurrency(currency);
-        request.setAdults(adults);
-        request.setNonStop(nonStop);
+        return stream(key, MediaType.APPLICATION_NDJSON, (event, outputStream) -> {
+            outputStream.write(objectMapper.writeValueAsBytes(event));
+            outputStream.write('\n');
+        });
+    }
+
+    /**
+     * Same events as {@code /search/stream}, sent as Server-Sent Events named after the event type.
+     */
+    @GetMapping(value = "/search/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchEvents(@Valid @RequestParam String origin,
+            @Valid @RequestParam String destination,
+            @Valid @RequestParam String departureDate,
+            @RequestParam(required = false) String returnDate,
+            @Valid @RequestParam String currency,
+            @Valid @RequestParam int adults,
+            @RequestParam(required = false, defaultValue = "false") boolean nonStop) {
 
-        return flightOfferSearchService.searchFlights(request);
+        FlightSearchKey key = toKey(origin, destination, departureDate, returnDate, currency, adults, nonStop);
+
+        return stream(key, MediaType.TEXT_EVENT_STREAM, (event, outputStream) -> {
+            outputStream.write(("event:" + event.getType() + "\ndata:").getBytes(StandardCharsets.UTF_8));
+            outputStream.write(objectMapper.writeValueAsBytes(event.getData()));
+            outputStream.write(SSE_EVENT_END);
+        });
     }
 
-    @GetMapping("/details/{id}")
-    public Map<String, Object> getFlightDetails(@PathVariable String id) {
-        FlightOfferSearchResponse cachedResponse = flightOfferSearchService.getCachedResponse();
+    /**
+     * Price calendar for every departure date within {@code days} of the requested one; a return
+     * date shifts with the departure. Each entry carries its own search id for the details page.
+     * Answers 503 with {@code Retry-After} when the flexible-search executor has no room for the window.
+     */
+    @GetMapping("/search/flexible")
+    public ResponseEntity<FlexibleDateSearchResponse> searchFlexibleDates(@Valid @RequestParam String origin,
+            @Valid @RequestParam String destination,
+            @Valid @RequestParam String departureDate,
+            @RequestParam(required = false) String returnDate,
+            @Valid @RequestParam String currency,
+            @Valid @RequestParam int adults,
+            @RequestParam(required = false, defaultValue = "false") boolean nonStop,
+            @RequestParam(required = false, defaultValue = "3") int days) {
+
+        FlightSearchKey key = toKey(origin, destination, departureDate, returnDate, currency, adults, nonStop);
 
-        if (cachedResponse == null || cachedResponse.getDictionaries() == null) {
-            throw new RuntimeException("Dictionaries missing from the response");
+        try {
+            return ResponseEntity.ok(flexibleDateSearchService.search(key, days));
+        } catch (TaskRejectedException e) {
+            return serviceUnavailable(flexibleSearchRetryAfter);
         }
+    }
 
-        FlightOfferSearchResponse.FlightOffer flightOffer = cachedResponse.getData().stream()
-                .filter(offer -> offer.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Flight not found"));
+    @GetMapping("/results/{searchId}")
+    public ResponseEntity<byte[]> getSearchResults(@PathVariable String searchId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) List<String> carriers,
+            @RequestParam(required = false) Integer maxStops,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("flightOffer", flightOffer);
+        SearchResult searchResult = searchResultStore.get(searchId);
 
-        FlightOfferSearchResponse.Dictionaries cachedDictionaries = flightOfferSearchService.getCachedDictionaries();
-        FlightOfferSearchResponse.Dictionaries relevantDictionaries = filterUsedDictionaries(flightOffer, cachedDictionaries);
+        return queryResponse(searchResult, toQuery(sort, order, maxPrice, carriers, maxStops, page, size), acceptEncoding);
+    }
 
-        response.put("dictionaries", relevantDictionaries);
+    @GetMapping("/details/{id}")
+    public ResponseEntity<byte[]> getFlightDetails(@PathVariable String id, @RequestParam String searchId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SearchResult searchResult = searchResultStore.get(searchId);
+
+        return toResponseEntity(responseBytesCache.get(searchId, "details", id, () -> {
+            FlightOfferSearchResponse.FlightOffer flightOffer = searchResult.getOffer(id);
+            if (flightOffer == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Flight not found");
+            }
 
-        return response;
+            Map<String, Object> response = new HashMap<>();
+            response.put("flightOffer", flightOffer);
+            response.put("dictionaries", searchResult.getDictionariesForOffer(id));
+            return response;
+        }), acceptEncoding);
     }
 
     @GetMapping("/dictionaries")
-    public FlightOfferSearchResponse.Dictionaries getCachedDictionaries() {
-        return flightOfferSearchService.getCachedDictionaries();
+    public ResponseEntity<byte[]> getCachedDictionaries(@RequestParam String searchId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SearchResult searchResult = searchResultStore.get(searchId);
+
+        return toResponseEntity(responseBytesCache.get(searchId, "dictionaries", null, searchResult::getDictionaries),
+                acceptEncoding);
     }
 
-    private FlightOfferSearchResponse.Dictionaries filterUsedDictionaries(FlightOfferSearchResponse.FlightOffer flightOffer,
-                                                                          FlightOfferSearchResponse.Dictionaries cachedDictionaries) {
-        FlightOfferSearchResponse.Dictionaries usedDictionaries = new FlightOfferSearchResponse.Dictionaries();
-        usedDictionaries.setLocations(new HashMap<>());
-        usedDictionaries.setAircraft(new HashMap<>());
-        usedDictionaries.setCarriers(new HashMap<>());
-
-        flightOffer.getItineraries().forEach(itinerary -> {
-            itinerary.getSegments().forEach(segment -> {
-                String departureIataCode = segment.getDeparture().getIataCode();
-                String arrivalIataCode = segment.getArrival().getIataCode();
-                String carrierCode = segment.getCarrierCode();
-                String aircraftCode = segment.getAircraft().getCode();
-                String operatingCarrierCode = segment.getOperating() != null ? segment.getOperating().getCarrierCode() : null;
-
-                if (cachedDictionaries.getLocations().containsKey(departureIataCode)) {
-                    usedDictionaries.getLocations().put(departureIataCode, cachedDictionaries.getLocations().get(departureIataCode));
-                }
-                if (cachedDictionaries.getLocations().containsKey(arrivalIataCode)) {
-                    usedDictionaries.getLocations().put(arrivalIataCode, cachedDictionaries.getLocations().get(arrivalIataCode));
-                }
-
-                if (cachedDictionaries.getCarriers().containsKey(carrierCode)) {
-                    usedDictionaries.getCarriers().put(carrierCode, cachedDictionaries.getCarriers().get(carrierCode));
-                }
-
-                if (operatingCarrierCode != null && cachedDictionaries.getCarriers().containsKey(operatingCarrierCode)) {
-                    usedDictionaries.getCarriers().put(operatingCarrierCode, cachedDictionaries.getCarriers().get(operatingCarrierCode));
-                }
-
-                if (cachedDictionaries.getAircraft().containsKey(aircraftCode)) {
-                    usedDictionaries.getAircraft().put(aircraftCode, cachedDictionaries.getAircraft().get(aircraftCode));
-                }
-            });
+    /**
+     * Starts the search before answering, so a full streaming executor still gets a proper 503;
+     * the body then writes the search's events, flushing after each, on the MVC async thread.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(FlightSearchKey key, MediaType contentType, EventFormat format) {
+        FlightOfferStreamService.StreamedSearch search;
+        try {
+            search = flightOfferStreamService.start(key);
+        } catch (TaskRejectedException e) {
+            return serviceUnavailable(retryAfter);
+        }
+
+        StreamingResponseBody body = outputStream -> search.drainTo(event -> {
+            format.write(event, outputStream);
+            outputStream.flush();
         });
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    private static <T> ResponseEntity<T> serviceUnavailable(Duration retryAfter) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .build();
+    }
+
+    private ResponseEntity<byte[]> queryResponse(SearchResult searchResult, FlightOfferQuery query, String acceptEncoding) {
+        return toResponseEntity(responseBytesCache.get(searchResult.getSearchId(), "query", query,
+                () -> flightOfferQueryService.query(searchResult, query)), acceptEncoding);
+    }
+
+    /**
+     * Writes the cached bytes as they are. The ETag is set on the entity, so Spring answers a
+     * matching {@code If-None-Match} with 304 and no body. {@code no-cache} makes browsers
+     * revalidate rather than reuse a search that may have been refreshed since.
+     */
+    private static ResponseEntity<byte[]> toResponseEntity(SerializedResponse serialized, String acceptEncoding) {
+        SerializedResponse.Variant variant = serialized.select(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(variant.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (variant.contentEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, variant.contentEncoding());
+        }
+        return response.body(variant.body());
+    }
+
+    private FlightSearchKey toKey(String origin, String destination, String departureDate, String returnDate,
+                                  String currency, int adults, boolean nonStop) {
+        FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+
+        request.setOriginLocationCode(origin);
+        request.setDestinationLocationCode(destination);
+        request.setDepartureDate(departureDate);
+        request.setReturnDate(returnDate);
+        request.setCurrency(currency);
+        request.setAdults(adults);
+        request.setNonStop(nonStop);
+
+        return FlightSearchKey.of(request);
+    }
+
+    private FlightOfferQuery toQuery(String sort, String order, Double maxPrice, List<String> carriers,
+                                     Integer maxStops, Integer page, Integer size) {
+        FlightOfferQuery query = new FlightOfferQuery();
+
+        query.setSort(sort);
+        query.setOrder(order);
+        query.setMaxPrice(maxPrice);
+        query.setCarriers(carriers);
+        query.setMaxStops(maxStops);
+        query.setPage(page);
+        query.setSize(size);
+
+        return query;
+    }
 
-        return usedDictionaries;
+    @FunctionalInterface
+    private interface EventFormat {
+        void write(FlightOfferStreamEvent event, OutputStream outputStream) throws IOException;
     }
 }
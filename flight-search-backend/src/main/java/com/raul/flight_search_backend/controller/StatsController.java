@@ -0,0 +1,58 @@
+package com.raul.flight_search_backend.controller;
+
+import com.raul.flight_search_backend.service.HotSearchTracker;
+import com.raul.flight_search_backend.util.RouteStatsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Debug view of per-route cache behaviour. Everything else (caches, refreshes, coalescing, the
+ * token, fares, the HTTP pool, upstream guards and admission lanes) is published as Micrometer
+ * meters under {@code /actuator/metrics} and {@code /actuator/prometheus}; routes are kept here
+ * because one meter per search key would be an unbounded tag.
+ */
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotSearchTracker hotSearchTracker;
+
+    /**
+     * Flight-offer cache hits and misses per route, keyed by the normalized search key, busiest
+     * first, and the searches the tracker currently considers hot.
+     */
+    @GetMapping("/routes")
+    public Map<String, Object> getRouteStats() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+
+        if (cacheManager.getCache("flightOffersCache") instanceof RouteStatsCache routeStatsCache) {
+            routeStatsCache.getStatsByRoute().entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue().getHits() + b.getValue().getMisses(),
+                            a.getValue().getHits() + a.getValue().getMisses()))
+                    .forEach(entry -> {
+                        Map<String, Object> stats = new LinkedHashMap<>();
+                        stats.put("hits", entry.getValue().getHits());
+                        stats.put("misses", entry.getValue().getMisses());
+                        stats.put("hitRate", entry.getValue().getHitRate());
+                        routes.put(entry.getKey(), stats);
+                    });
+        }
+
+        Map<String, Long> hotSearches = new LinkedHashMap<>();
+        hotSearchTracker.top(20).forEach((key, count) -> hotSearches.put(key.toString(), count));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("routes", routes);
+        response.put("hotSearches", hotSearches);
+        return response;
+    }
+}
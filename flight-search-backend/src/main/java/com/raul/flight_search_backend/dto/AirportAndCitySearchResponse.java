@@ -25,6 +25,7 @@ public class AirportAndCitySearchResponse {
         private String iataCode;
 
         private Address address;
+        private Analytics analytics;
 
         @Data
         public static class Address {
@@ -34,5 +35,15 @@ public class AirportAndCitySearchResponse {
             private String countryCode;
             private String regionCode;
         }
+
+        @Data
+        public static class Analytics {
+            private Travelers travelers;
+        }
+
+        @Data
+        public static class Travelers {
+            private int score;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.raul.flight_search_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class FareCalendarResponse {
+    private String origin;
+    private String destination;
+    private String currency;
+    private String month;
+    private List<Fare> days;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Fare cheapest;
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Fare {
+        private String departureDate;
+        private BigDecimal price;
+        private String carrier;
+        private int stops;
+        private String observedAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.raul.flight_search_backend.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class FareTrendResponse {
+    private String origin;
+    private String destination;
+    private String currency;
+    private int days;
+    private List<Point> points;
+
+    @Data
+    public static class Point {
+        private String date;
+        private BigDecimal lowestPrice;
+        private BigDecimal averagePrice;
+        private long observations;
+    }
+}
@@ -0,0 +1,29 @@
+package com.raul.flight_search_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FlexibleDateSearchResponse {
+    private String origin;
+    private String destination;
+    private String currency;
+    private List<DateOption> calendar;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DateOption cheapest;
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class DateOption {
+        private String departureDate;
+        private String returnDate;
+        private String searchId;
+        private int offerCount;
+        private Double lowestPrice;
+        private FlightOfferSearchResponse.FlightOffer bestOffer;
+        private String error;
+    }
+}
@@ -0,0 +1,19 @@
+package com.raul.flight_search_backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FlightOfferQuery {
+
+    private String sort;
+    private String order;
+
+    private Double maxPrice;
+    private List<String> carriers;
+    private Integer maxStops;
+
+    private Integer page;
+    private Integer size;
+}
@@ -1,5 +1,6 @@
 package com.raul.flight_search_backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.util.Map;
 
 @Data
 public class FlightOfferSearchResponse {
+    private String searchId;
     private Meta meta;
     private List<FlightOffer> data;
     private Dictionaries dictionaries;
@@ -16,6 +18,15 @@ public class FlightOfferSearchResponse {
     public static class Meta {
         private int count;
         private Links links;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer totalCount;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer page;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer pageSize;
     }
 
     @Data
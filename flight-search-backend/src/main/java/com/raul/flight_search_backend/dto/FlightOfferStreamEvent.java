@@ -0,0 +1,57 @@
+package com.raul.flight_search_backend.dto;
+
+import lombok.Data;
+
+/**
+ * One event of a streamed search: an "offer" per flight offer, then a single "complete" event
+ * carrying the search id and the enriched dictionaries, or an "error" event.
+ */
+@Data
+public class FlightOfferStreamEvent {
+
+    public static final String OFFER = "offer";
+    public static final String COMPLETE = "complete";
+    public static final String ERROR = "error";
+
+    private String type;
+    private Object data;
+
+    public static FlightOfferStreamEvent offer(FlightOfferSearchResponse.FlightOffer offer) {
+        return of(OFFER, offer);
+    }
+
+    public static FlightOfferStreamEvent complete(String searchId,
+                                                  FlightOfferSearchResponse.Meta meta,
+                                                  FlightOfferSearchResponse.Dictionaries dictionaries) {
+        Completion completion = new Completion();
+        completion.setSearchId(searchId);
+        completion.setMeta(meta);
+        completion.setDictionaries(dictionaries);
+        return of(COMPLETE, completion);
+    }
+
+    public static FlightOfferStreamEvent error(String message) {
+        Failure failure = new Failure();
+        failure.setMessage(message);
+        return of(ERROR, failure);
+    }
+
+    private static FlightOfferStreamEvent of(String type, Object data) {
+        FlightOfferStreamEvent event = new FlightOfferStreamEvent();
+        event.setType(type);
+        event.setData(data);
+        return event;
+    }
+
+    @Data
+    public static class Completion {
+        private String searchId;
+        private FlightOfferSearchResponse.Meta meta;
+        private FlightOfferSearchResponse.Dictionaries dictionaries;
+    }
+
+    @Data
+    public static class Failure {
+        private String message;
+    }
+}
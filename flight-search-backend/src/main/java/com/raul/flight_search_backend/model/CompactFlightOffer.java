@@ -0,0 +1,615 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache-resident form of a {@link FlightOfferSearchResponse.FlightOffer}. Low-cardinality codes
+ * (IATA, carrier, aircraft, currency, cabin and similar enumerations) are {@link StringPool} ids;
+ * ids, flight numbers, fare bases and branded fares stay plain strings, since the pool never
+ * shrinks. Amounts are longs scaled by 1000, timestamps are minutes since the epoch (airport
+ * local time) and durations are minutes. Values that cannot be parsed are logged and stored as
+ * missing. Amenities are kept as pooled codes too, so no DTO from the parsed response is
+ * retained; the DTO is rebuilt, fresh and safe to modify, only when a response is written.
+ */
+public final class CompactFlightOffer {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactFlightOffer.class);
+
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final int MONEY_SCALE = 3;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final byte INSTANT_TICKETING_REQUIRED = 1;
+    private static final byte NON_HOMOGENEOUS = 1 << 1;
+    private static final byte ONE_WAY = 1 << 2;
+    private static final byte HAS_PRICING_OPTIONS = 1 << 3;
+    private static final byte INCLUDED_CHECKED_BAGS_ONLY = 1 << 4;
+
+    private static final int OBJECT_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final StringPool pool;
+    private final int type;
+    private final String id;
+    private final int source;
+    private final byte flags;
+    private final int lastTicketingDate;
+    private final int numberOfBookableSeats;
+    private final Itinerary[] itineraries;
+    private final Price price;
+    private final int[] fareTypes;
+    private final int[] validatingAirlineCodes;
+    private final TravelerPricing[] travelerPricings;
+
+    private CompactFlightOffer(FlightOfferSearchResponse.FlightOffer offer, StringPool pool) {
+        this.pool = pool;
+        this.type = pool.intern(offer.getType());
+        this.id = offer.getId();
+        this.source = pool.intern(offer.getSource());
+        this.lastTicketingDate = toEpochDay(offer.getLastTicketingDate());
+        this.numberOfBookableSeats = offer.getNumberOfBookableSeats();
+        this.price = offer.getPrice() != null ? new Price(offer.getPrice(), pool) : null;
+        this.validatingAirlineCodes = internAll(offer.getValidatingAirlineCodes(), pool);
+
+        byte offerFlags = 0;
+        if (offer.isInstantTicketingRequired()) offerFlags |= INSTANT_TICKETING_REQUIRED;
+        if (offer.isNonHomogeneous()) offerFlags |= NON_HOMOGENEOUS;
+        if (offer.isOneWay()) offerFlags |= ONE_WAY;
+
+        FlightOfferSearchResponse.PricingOptions pricingOptions = offer.getPricingOptions();
+        if (pricingOptions != null) {
+            offerFlags |= HAS_PRICING_OPTIONS;
+            if (pricingOptions.isIncludedCheckedBagsOnly()) offerFlags |= INCLUDED_CHECKED_BAGS_ONLY;
+            this.fareTypes = internAll(pricingOptions.getFareType(), pool);
+        } else {
+            this.fareTypes = null;
+        }
+        this.flags = offerFlags;
+
+        if (offer.getItineraries() != null) {
+            this.itineraries = offer.getItineraries().stream().map(itinerary -> new Itinerary(itinerary, pool)).toArray(Itinerary[]::new);
+        } else {
+            this.itineraries = null;
+        }
+
+        if (offer.getTravelerPricings() != null) {
+            this.travelerPricings = offer.getTravelerPricings().stream().map(travelerPricing -> new TravelerPricing(travelerPricing, pool)).toArray(TravelerPricing[]::new);
+        } else {
+            this.travelerPricings = null;
+        }
+    }
+
+    public static CompactFlightOffer of(FlightOfferSearchResponse.FlightOffer offer, StringPool pool) {
+        return new CompactFlightOffer(offer, pool);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The first validating airline, or null if the offer has none.
+     */
+    public String getValidatingCarrier() {
+        return validatingAirlineCodes != null && validatingAirlineCodes.length > 0 ? pool.get(validatingAirlineCodes[0]) : null;
+    }
+
+    public FlightOfferSearchResponse.FlightOffer toDto() {
+        FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+        offer.setType(pool.get(type));
+        offer.setId(id);
+        offer.setSource(pool.get(source));
+        offer.setInstantTicketingRequired((flags & INSTANT_TICKETING_REQUIRED) != 0);
+        offer.setNonHomogeneous((flags & NON_HOMOGENEOUS) != 0);
+        offer.setOneWay((flags & ONE_WAY) != 0);
+        offer.setLastTicketingDate(lastTicketingDate != NO_VALUE ? LocalDate.ofEpochDay(lastTicketingDate).toString() : null);
+        offer.setNumberOfBookableSeats(numberOfBookableSeats);
+        offer.setPrice(price != null ? price.toDto(pool) : null);
+        offer.setValidatingAirlineCodes(resolveAll(validatingAirlineCodes, pool));
+
+        if ((flags & HAS_PRICING_OPTIONS) != 0) {
+            FlightOfferSearchResponse.PricingOptions pricingOptions = new FlightOfferSearchResponse.PricingOptions();
+            pricingOptions.setFareType(resolveAll(fareTypes, pool));
+            pricingOptions.setIncludedCheckedBagsOnly((flags & INCLUDED_CHECKED_BAGS_ONLY) != 0);
+            offer.setPricingOptions(pricingOptions);
+        }
+
+        if (itineraries != null) {
+            List<FlightOfferSearchResponse.Itinerary> itineraryDtos = new ArrayList<>(itineraries.length);
+            for (Itinerary itinerary : itineraries) {
+                itineraryDtos.add(itinerary.toDto(pool));
+            }
+            offer.setItineraries(itineraryDtos);
+        }
+
+        if (travelerPricings != null) {
+            List<FlightOfferSearchResponse.TravelerPricing> travelerPricingDtos = new ArrayList<>(travelerPricings.length);
+            for (TravelerPricing travelerPricing : travelerPricings) {
+                travelerPricingDtos.add(travelerPricing.toDto(pool));
+            }
+            offer.setTravelerPricings(travelerPricingDtos);
+        }
+
+        return offer;
+    }
+
+    /**
+     * Visits the location, carrier and aircraft codes used by this offer's segments.
+     */
+    public void forEachSegmentCode(CodeVisitor visitor) {
+        if (itineraries == null) {
+            return;
+        }
+        for (Itinerary itinerary : itineraries) {
+            for (Segment segment : itinerary.segments) {
+                visitor.visit(segment.departureIataCode, segment.arrivalIataCode, segment.carrierCode,
+                        segment.operatingCarrierCode, segment.aircraftCode);
+            }
+        }
+    }
+
+    /**
+     * Rough retained size in bytes, used to weigh cache entries. Pooled strings are not counted.
+     */
+    public long estimatedBytes() {
+        long bytes = OBJECT_HEADER_BYTES + 7 * 4 + 1 + 7 * REFERENCE_BYTES + stringBytes(id);
+        bytes += intArrayBytes(fareTypes) + intArrayBytes(validatingAirlineCodes);
+        bytes += price != null ? price.estimatedBytes() : 0;
+        if (itineraries != null) {
+            bytes += OBJECT_HEADER_BYTES + (long) itineraries.length * REFERENCE_BYTES;
+            for (Itinerary itinerary : itineraries) {
+                bytes += itinerary.estimatedBytes();
+            }
+        }
+        if (travelerPricings != null) {
+            bytes += OBJECT_HEADER_BYTES + (long) travelerPricings.length * REFERENCE_BYTES;
+            for (TravelerPricing travelerPricing : travelerPricings) {
+                bytes += travelerPricing.estimatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    @FunctionalInterface
+    public interface CodeVisitor {
+        void visit(int departureIataCode, int arrivalIataCode, int carrierCode, int operatingCarrierCode, int aircraftCode);
+    }
+
+    private static final class Itinerary {
+        private final int duration;
+        private final Segment[] segments;
+
+        private Itinerary(FlightOfferSearchResponse.Itinerary itinerary, StringPool pool) {
+            this.duration = toMinutes(itinerary.getDuration());
+            this.segments = itinerary.getSegments() != null
+                    ? itinerary.getSegments().stream().map(segment -> new Segment(segment, pool)).toArray(Segment[]::new)
+                    : new Segment[0];
+        }
+
+        private FlightOfferSearchResponse.Itinerary toDto(StringPool pool) {
+            FlightOfferSearchResponse.Itinerary itinerary = new FlightOfferSearchResponse.Itinerary();
+            itinerary.setDuration(fromMinutes(duration));
+
+            List<FlightOfferSearchResponse.Segment> segmentDtos = new ArrayList<>(segments.length);
+            for (Segment segment : segments) {
+                segmentDtos.add(segment.toDto(pool));
+            }
+            itinerary.setSegments(segmentDtos);
+            return itinerary;
+        }
+
+        private long estimatedBytes() {
+            long bytes = OBJECT_HEADER_BYTES + 4 + REFERENCE_BYTES + OBJECT_HEADER_BYTES + (long) segments.length * REFERENCE_BYTES;
+            for (Segment segment : segments) {
+                bytes += segment.estimatedBytes();
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Segment {
+        private final int departureIataCode;
+        private final int departureTerminal;
+        private final int departureAt;
+        private final int arrivalIataCode;
+        private final int arrivalTerminal;
+        private final int arrivalAt;
+        private final int carrierCode;
+        private final String number;
+        private final int aircraftCode;
+        private final int operatingCarrierCode;
+        private final int duration;
+        private final String id;
+        private final int numberOfStops;
+        private final boolean blacklistedInEU;
+
+        private Segment(FlightOfferSearchResponse.Segment segment, StringPool pool) {
+            FlightOfferSearchResponse.Departure departure = segment.getDeparture();
+            FlightOfferSearchResponse.Arrival arrival = segment.getArrival();
+
+            this.departureIataCode = departure != null ? pool.intern(departure.getIataCode()) : StringPool.NONE;
+            this.departureTerminal = departure != null ? pool.intern(departure.getTerminal()) : StringPool.NONE;
+            this.departureAt = departure != null ? toEpochMinute(departure.getAt()) : NO_VALUE;
+            this.arrivalIataCode = arrival != null ? pool.intern(arrival.getIataCode()) : StringPool.NONE;
+            this.arrivalTerminal = arrival != null ? pool.intern(arrival.getTerminal()) : StringPool.NONE;
+            this.arrivalAt = arrival != null ? toEpochMinute(arrival.getAt()) : NO_VALUE;
+            this.carrierCode = pool.intern(segment.getCarrierCode());
+            this.number = segment.getNumber();
+            this.aircraftCode = segment.getAircraft() != null ? pool.intern(segment.getAircraft().getCode()) : StringPool.NONE;
+            this.operatingCarrierCode = segment.getOperating() != null ? pool.intern(segment.getOperating().getCarrierCode()) : StringPool.NONE;
+            this.duration = toMinutes(segment.getDuration());
+            this.id = segment.getId();
+            this.numberOfStops = segment.getNumberOfStops();
+            this.blacklistedInEU = segment.isBlacklistedInEU();
+        }
+
+        private FlightOfferSearchResponse.Segment toDto(StringPool pool) {
+            FlightOfferSearchResponse.Departure departure = new FlightOfferSearchResponse.Departure();
+            departure.setIataCode(pool.get(departureIataCode));
+            departure.setTerminal(pool.get(departureTerminal));
+            departure.setAt(fromEpochMinute(departureAt));
+
+            FlightOfferSearchResponse.Arrival arrival = new FlightOfferSearchResponse.Arrival();
+            arrival.setIataCode(pool.get(arrivalIataCode));
+            arrival.setTerminal(pool.get(arrivalTerminal));
+            arrival.setAt(fromEpochMinute(arrivalAt));
+
+            FlightOfferSearchResponse.Segment segment = new FlightOfferSearchResponse.Segment();
+            segment.setDeparture(departure);
+            segment.setArrival(arrival);
+            segment.setCarrierCode(pool.get(carrierCode));
+            segment.setNumber(number);
+            segment.setDuration(fromMinutes(duration));
+            segment.setId(id);
+            segment.setNumberOfStops(numberOfStops);
+            segment.setBlacklistedInEU(blacklistedInEU);
+
+            if (aircraftCode != StringPool.NONE) {
+                FlightOfferSearchResponse.Aircraft aircraft = new FlightOfferSearchResponse.Aircraft();
+                aircraft.setCode(pool.get(aircraftCode));
+                segment.setAircraft(aircraft);
+            }
+            if (operatingCarrierCode != StringPool.NONE) {
+                FlightOfferSearchResponse.Operating operating = new FlightOfferSearchResponse.Operating();
+                operating.setCarrierCode(pool.get(operatingCarrierCode));
+                segment.setOperating(operating);
+            }
+            return segment;
+        }
+
+        private long estimatedBytes() {
+            return OBJECT_HEADER_BYTES + 11 * 4 + 1 + 2 * REFERENCE_BYTES + stringBytes(number) + stringBytes(id);
+        }
+    }
+
+    private static final class Price {
+        private final int currency;
+        private final long total;
+        private final long base;
+        private final long grandTotal;
+        private final long[] feeAmounts;
+        private final int[] feeTypes;
+        private final byte decimals;
+
+        private Price(FlightOfferSearchResponse.Price price, StringPool pool) {
+            int maxDecimals = Math.max(decimalsOf(price.getTotal()), Math.max(decimalsOf(price.getBase()), decimalsOf(price.getGrandTotal())));
+
+            this.currency = pool.intern(price.getCurrency());
+            this.total = toScaledAmount(price.getTotal());
+            this.base = toScaledAmount(price.getBase());
+            this.grandTotal = toScaledAmount(price.getGrandTotal());
+
+            if (price.getFees() != null) {
+                this.feeAmounts = new long[price.getFees().size()];
+                this.feeTypes = new int[price.getFees().size()];
+                for (int i = 0; i < feeAmounts.length; i++) {
+                    FlightOfferSearchResponse.Fee fee = price.getFees().get(i);
+                    feeAmounts[i] = toScaledAmount(fee.getAmount());
+                    feeTypes[i] = pool.intern(fee.getType());
+                    maxDecimals = Math.max(maxDecimals, decimalsOf(fee.getAmount()));
+                }
+            } else {
+                this.feeAmounts = null;
+                this.feeTypes = null;
+            }
+            this.decimals = (byte) maxDecimals;
+        }
+
+        private FlightOfferSearchResponse.Price toDto(StringPool pool) {
+            FlightOfferSearchResponse.Price price = new FlightOfferSearchResponse.Price();
+            price.setCurrency(pool.get(currency));
+            price.setTotal(fromScaledAmount(total, decimals));
+            price.setBase(fromScaledAmount(base, decimals));
+            price.setGrandTotal(fromScaledAmount(grandTotal, decimals));
+
+            if (feeAmounts != null) {
+                List<FlightOfferSearchResponse.Fee> fees = new ArrayList<>(feeAmounts.length);
+                for (int i = 0; i < feeAmounts.length; i++) {
+                    FlightOfferSearchResponse.Fee fee = new FlightOfferSearchResponse.Fee();
+                    fee.setAmount(fromScaledAmount(feeAmounts[i], decimals));
+                    fee.setType(pool.get(feeTypes[i]));
+                    fees.add(fee);
+                }
+                price.setFees(fees);
+            }
+            return price;
+        }
+
+        private long estimatedBytes() {
+            long bytes = OBJECT_HEADER_BYTES + 4 + 3 * 8 + 1 + 2 * REFERENCE_BYTES;
+            if (feeAmounts != null) {
+                bytes += OBJECT_HEADER_BYTES + 8L * feeAmounts.length + intArrayBytes(feeTypes);
+            }
+            return bytes;
+        }
+    }
+
+    private static final class TravelerPricing {
+        private final int travelerId;
+        private final int fareOption;
+        private final int travelerType;
+        private final Price price;
+        private final FareDetails[] fareDetailsBySegment;
+
+        private TravelerPricing(FlightOfferSearchResponse.TravelerPricing travelerPricing, StringPool pool) {
+            this.travelerId = pool.intern(travelerPricing.getTravelerId());
+            this.fareOption = pool.intern(travelerPricing.getFareOption());
+            this.travelerType = pool.intern(travelerPricing.getTravelerType());
+            this.price = travelerPricing.getPrice() != null ? new Price(travelerPricing.getPrice(), pool) : null;
+            this.fareDetailsBySegment = travelerPricing.getFareDetailsBySegment() != null
+                    ? travelerPricing.getFareDetailsBySegment().stream().map(fareDetails -> new FareDetails(fareDetails, pool)).toArray(FareDetails[]::new)
+                    : null;
+        }
+
+        private FlightOfferSearchResponse.TravelerPricing toDto(StringPool pool) {
+            FlightOfferSearchResponse.TravelerPricing travelerPricing = new FlightOfferSearchResponse.TravelerPricing();
+            travelerPricing.setTravelerId(pool.get(travelerId));
+            travelerPricing.setFareOption(pool.get(fareOption));
+            travelerPricing.setTravelerType(pool.get(travelerType));
+            travelerPricing.setPrice(price != null ? price.toDto(pool) : null);
+
+            if (fareDetailsBySegment != null) {
+                List<FlightOfferSearchResponse.FareDetailsBySegment> fareDetails = new ArrayList<>(fareDetailsBySegment.length);
+                for (FareDetails fareDetail : fareDetailsBySegment) {
+                    fareDetails.add(fareDetail.toDto(pool));
+                }
+                travelerPricing.setFareDetailsBySegment(fareDetails);
+            }
+            return travelerPricing;
+        }
+
+        private long estimatedBytes() {
+            long bytes = OBJECT_HEADER_BYTES + 3 * 4 + 2 * REFERENCE_BYTES;
+            bytes += price != null ? price.estimatedBytes() : 0;
+            if (fareDetailsBySegment != null) {
+                bytes += OBJECT_HEADER_BYTES + (long) fareDetailsBySegment.length * REFERENCE_BYTES;
+                for (FareDetails fareDetail : fareDetailsBySegment) {
+                    bytes += fareDetail.estimatedBytes();
+                }
+            }
+            return bytes;
+        }
+    }
+
+    private static final class FareDetails {
+        private final String segmentId;
+        private final int cabin;
+        private final String fareBasis;
+        private final String brandedFare;
+        private final String brandedFareLabel;
+        private final int classType;
+        private final boolean hasIncludedCheckedBags;
+        private final int checkedBagsWeight;
+        private final int checkedBagsWeightUnit;
+        private final int checkedBagsQuantity;
+        private final Amenity[] amenities;
+
+        private FareDetails(FlightOfferSearchResponse.FareDetailsBySegment fareDetails, StringPool pool) {
+            this.segmentId = fareDetails.getSegmentId();
+            this.cabin = pool.intern(fareDetails.getCabin());
+            this.fareBasis = fareDetails.getFareBasis();
+            this.brandedFare = fareDetails.getBrandedFare();
+            this.brandedFareLabel = fareDetails.getBrandedFareLabel();
+            this.classType = pool.intern(fareDetails.getClassType());
+
+            FlightOfferSearchResponse.IncludedCheckedBags bags = fareDetails.getIncludedCheckedBags();
+            this.hasIncludedCheckedBags = bags != null;
+            this.checkedBagsWeight = bags != null ? bags.getWeight() : 0;
+            this.checkedBagsWeightUnit = bags != null ? pool.intern(bags.getWeightUnit()) : StringPool.NONE;
+            this.checkedBagsQuantity = bags != null && bags.getQuantity() != null ? bags.getQuantity() : NO_VALUE;
+
+            this.amenities = fareDetails.getAmenities() != null
+                    ? fareDetails.getAmenities().stream().map(amenity -> new Amenity(amenity, pool)).toArray(Amenity[]::new)
+                    : null;
+        }
+
+        private FlightOfferSearchResponse.FareDetailsBySegment toDto(StringPool pool) {
+            FlightOfferSearchResponse.FareDetailsBySegment fareDetails = new FlightOfferSearchResponse.FareDetailsBySegment();
+            fareDetails.setSegmentId(segmentId);
+            fareDetails.setCabin(pool.get(cabin));
+            fareDetails.setFareBasis(fareBasis);
+            fareDetails.setBrandedFare(brandedFare);
+            fareDetails.setBrandedFareLabel(brandedFareLabel);
+            fareDetails.setClassType(pool.get(classType));
+
+            if (hasIncludedCheckedBags) {
+                FlightOfferSearchResponse.IncludedCheckedBags bags = new FlightOfferSearchResponse.IncludedCheckedBags();
+                bags.setWeight(checkedBagsWeight);
+                bags.setWeightUnit(pool.get(checkedBagsWeightUnit));
+                bags.setQuantity(checkedBagsQuantity != NO_VALUE ? checkedBagsQuantity : null);
+                fareDetails.setIncludedCheckedBags(bags);
+            }
+
+            if (amenities != null) {
+                List<FlightOfferSearchResponse.Amenities> amenityDtos = new ArrayList<>(amenities.length);
+                for (Amenity amenity : amenities) {
+                    amenityDtos.add(amenity.toDto(pool));
+                }
+                fareDetails.setAmenities(amenityDtos);
+            }
+            return fareDetails;
+        }
+
+        private long estimatedBytes() {
+            long bytes = OBJECT_HEADER_BYTES + 5 * 4 + 1 + 5 * REFERENCE_BYTES
+                    + stringBytes(segmentId) + stringBytes(fareBasis) + stringBytes(brandedFare) + stringBytes(brandedFareLabel);
+            if (amenities != null) {
+                bytes += OBJECT_HEADER_BYTES + (long) amenities.length * (REFERENCE_BYTES + Amenity.BYTES);
+            }
+            return bytes;
+        }
+    }
+
+    // Descriptions come from each carrier's fixed catalogue of fare amenities, so they are pooled
+    // like the codes.
+    private static final class Amenity {
+        private static final int BYTES = OBJECT_HEADER_BYTES + 3 * 4 + 2;
+
+        private final int description;
+        private final int amenityType;
+        private final int providerName;
+        private final boolean chargeable;
+        private final boolean hasProvider;
+
+        private Amenity(FlightOfferSearchResponse.Amenities amenity, StringPool pool) {
+            this.description = pool.intern(amenity.getDescription());
+            this.amenityType = pool.intern(amenity.getAmenityType());
+            this.chargeable = amenity.isChargeable();
+            this.hasProvider = amenity.getAmenityProvider() != null;
+            this.providerName = hasProvider ? pool.intern(amenity.getAmenityProvider().getName()) : StringPool.NONE;
+        }
+
+        private FlightOfferSearchResponse.Amenities toDto(StringPool pool) {
+            FlightOfferSearchResponse.Amenities amenity = new FlightOfferSearchResponse.Amenities();
+            amenity.setDescription(pool.get(description));
+            amenity.setAmenityType(pool.get(amenityType));
+            amenity.setChargeable(chargeable);
+            if (hasProvider) {
+                FlightOfferSearchResponse.AmenityProvider provider = new FlightOfferSearchResponse.AmenityProvider();
+                provider.setName(pool.get(providerName));
+                amenity.setAmenityProvider(provider);
+            }
+            return amenity;
+        }
+    }
+
+    private static int[] internAll(List<String> values, StringPool pool) {
+        if (values == null) {
+            return null;
+        }
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = pool.intern(values.get(i));
+        }
+        return ids;
+    }
+
+    private static List<String> resolveAll(int[] ids, StringPool pool) {
+        if (ids == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            values.add(pool.get(id));
+        }
+        return values;
+    }
+
+    private static long intArrayBytes(int[] values) {
+        return values != null ? OBJECT_HEADER_BYTES + 4L * values.length : 0;
+    }
+
+    // A String and its Latin-1 backing array.
+    private static long stringBytes(String value) {
+        return value != null ? OBJECT_HEADER_BYTES + 8 + OBJECT_HEADER_BYTES + value.length() : 0;
+    }
+
+    private static long toScaledAmount(String amount) {
+        if (amount == null) {
+            return NO_AMOUNT;
+        }
+        try {
+            return new BigDecimal(amount).setScale(MONEY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            log.warn("Ignoring unparseable amount '{}' in a flight offer", amount);
+            return NO_AMOUNT;
+        }
+    }
+
+    private static String fromScaledAmount(long amount, int decimals) {
+        if (amount == NO_AMOUNT) {
+            return null;
+        }
+        return BigDecimal.valueOf(amount, MONEY_SCALE).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static int decimalsOf(String amount) {
+        if (amount == null) {
+            return 0;
+        }
+        int dot = amount.indexOf('.');
+        return dot < 0 ? 0 : Math.min(MONEY_SCALE, amount.length() - dot - 1);
+    }
+
+    private static int toEpochDay(String date) {
+        if (date == null) {
+            return NO_VALUE;
+        }
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring unparseable date '{}' in a flight offer", date);
+            return NO_VALUE;
+        }
+    }
+
+    private static int toEpochMinute(String localDateTime) {
+        if (localDateTime == null) {
+            return NO_VALUE;
+        }
+        try {
+            return (int) (LocalDateTime.parse(localDateTime).toEpochSecond(ZoneOffset.UTC) / 60);
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring unparseable date-time '{}' in a flight offer", localDateTime);
+            return NO_VALUE;
+        }
+    }
+
+    private static String fromEpochMinute(int epochMinute) {
+        if (epochMinute == NO_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC).format(LOCAL_DATE_TIME);
+    }
+
+    private static int toMinutes(String isoDuration) {
+        if (isoDuration == null) {
+            return NO_VALUE;
+        }
+        try {
+            return (int) Duration.parse(isoDuration).toMinutes();
+        } catch (DateTimeParseException | ArithmeticException e) {
+            log.warn("Ignoring unparseable duration '{}' in a flight offer", isoDuration);
+            return NO_VALUE;
+        }
+    }
+
+    private static String fromMinutes(int minutes) {
+        return minutes != NO_VALUE ? Duration.ofMinutes(minutes).toString() : null;
+    }
+}
@@ -0,0 +1,232 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-wide dictionary entries (locations, aircraft, currencies, carriers) keyed by
+ * {@link StringPool} id. Every search merges its response's dictionaries in and keeps only the
+ * ids it saw; its dictionaries are then read-only map views over those ids, so the same few
+ * thousand entries exist once instead of once per cached search.
+ * <p>
+ * Entries are never removed. A location is replaced only by one carrying more detail (an
+ * enriched city or country name), and a name only by a different name, so registered values
+ * are never mutated and can be read without locking.
+ */
+public final class DictionaryRegistry {
+
+    private final StringPool pool;
+    private final Map<Integer, FlightOfferSearchResponse.Location> locations = new ConcurrentHashMap<>();
+    private final Map<Integer, String> aircraft = new ConcurrentHashMap<>();
+    private final Map<Integer, String> currencies = new ConcurrentHashMap<>();
+    private final Map<Integer, String> carriers = new ConcurrentHashMap<>();
+
+    public DictionaryRegistry(StringPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * The pool the registry's codes, and the offers registered alongside them, are interned in.
+     */
+    public StringPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Merges {@code dictionaries} into the registry and returns the ids of the codes it held.
+     */
+    public Codes register(FlightOfferSearchResponse.Dictionaries dictionaries) {
+        if (dictionaries == null) {
+            return Codes.EMPTY;
+        }
+
+        int[] locationIds = ids(dictionaries.getLocations());
+        if (dictionaries.getLocations() != null) {
+            dictionaries.getLocations().forEach((code, location) -> {
+                if (location != null) {
+                    locations.compute(pool.intern(code), (id, known) ->
+                            known != null && detail(known) >= detail(location) ? known : copy(location));
+                }
+            });
+        }
+
+        return new Codes(locationIds,
+                mergeNames(dictionaries.getAircraft(), aircraft),
+                mergeNames(dictionaries.getCurrencies(), currencies),
+                mergeNames(dictionaries.getCarriers(), carriers));
+    }
+
+    /**
+     * Dictionaries limited to {@code codes}, backed by the registry.
+     */
+    public FlightOfferSearchResponse.Dictionaries resolve(Codes codes) {
+        FlightOfferSearchResponse.Dictionaries dictionaries = new FlightOfferSearchResponse.Dictionaries();
+        dictionaries.setLocations(new CodeMap<>(codes.locations(), locations));
+        dictionaries.setAircraft(new CodeMap<>(codes.aircraft(), aircraft));
+        dictionaries.setCurrencies(new CodeMap<>(codes.currencies(), currencies));
+        dictionaries.setCarriers(new CodeMap<>(codes.carriers(), carriers));
+        return dictionaries;
+    }
+
+    public FlightOfferSearchResponse.Location getLocation(String code) {
+        int id = pool.idOf(code);
+        return id == StringPool.NONE ? null : locations.get(id);
+    }
+
+    public int locationCount() {
+        return locations.size();
+    }
+
+    public int aircraftCount() {
+        return aircraft.size();
+    }
+
+    public int currencyCount() {
+        return currencies.size();
+    }
+
+    public int carrierCount() {
+        return carriers.size();
+    }
+
+    private int[] mergeNames(Map<String, String> names, Map<Integer, String> registered) {
+        if (names == null) {
+            return new int[0];
+        }
+        names.forEach((code, name) -> {
+            if (name != null) {
+                registered.compute(pool.intern(code), (id, known) -> name.equals(known) ? known : name);
+            }
+        });
+        return ids(names);
+    }
+
+    private int[] ids(Map<String, ?> entries) {
+        if (entries == null) {
+            return new int[0];
+        }
+        return entries.entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .mapToInt(entry -> pool.intern(entry.getKey()))
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private static int detail(FlightOfferSearchResponse.Location location) {
+        return (location.getCityCode() != null ? 1 : 0)
+                + (location.getCityName() != null ? 1 : 0)
+                + (location.getCountryCode() != null ? 1 : 0)
+                + (location.getCountryName() != null ? 1 : 0);
+    }
+
+    private static FlightOfferSearchResponse.Location copy(FlightOfferSearchResponse.Location location) {
+        FlightOfferSearchResponse.Location copy = new FlightOfferSearchResponse.Location();
+        copy.setCityCode(location.getCityCode());
+        copy.setCityName(location.getCityName());
+        copy.setCountryCode(location.getCountryCode());
+        copy.setCountryName(location.getCountryName());
+        return copy;
+    }
+
+    /**
+     * Sorted pool ids of the codes a response's dictionaries held, per dictionary.
+     */
+    public record Codes(int[] locations, int[] aircraft, int[] currencies, int[] carriers) {
+
+        static final Codes EMPTY = new Codes(new int[0], new int[0], new int[0], new int[0]);
+
+        public Codes {
+            Arrays.sort(locations);
+            Arrays.sort(aircraft);
+            Arrays.sort(currencies);
+            Arrays.sort(carriers);
+        }
+
+        public int size() {
+            return locations.length + aircraft.length + currencies.length + carriers.length;
+        }
+    }
+
+    /**
+     * Read-only view of the registered entries for a fixed, sorted set of ids.
+     */
+    private final class CodeMap<V> extends AbstractMap<String, V> {
+
+        private final int[] ids;
+        private final Map<Integer, V> entries;
+
+        private CodeMap(int[] ids, Map<Integer, V> entries) {
+            this.ids = ids;
+            this.entries = entries;
+        }
+
+        @Override
+        public V get(Object key) {
+            if (!(key instanceof String code)) {
+                return null;
+            }
+            int id = pool.idOf(code);
+            return id != StringPool.NONE && Arrays.binarySearch(ids, id) >= 0 ? entries.get(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < ids.length;
+                        }
+
+                        @Override
+                        public Entry<String, V> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int id = ids[next];
+                            next = advance(next + 1);
+                            return new SimpleImmutableEntry<>(pool.get(id), entries.get(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int id : ids) {
+                        if (entries.containsKey(id)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        private int advance(int from) {
+            int index = from;
+            while (index < ids.length && !entries.containsKey(ids[index])) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.raul.flight_search_backend.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory summary of observed fares per route and currency, updated as each observation is
+ * added: the cheapest fare per departure date, and the lowest and average fare per day the route
+ * was observed. Queries read a month or a window of days from sorted maps and never touch the
+ * observations themselves.
+ */
+public class FareIndex {
+
+    private final Map<Long, RouteFares> routes = new ConcurrentHashMap<>();
+    private final LongAdder observations = new LongAdder();
+
+    public void add(FareObservation observation) {
+        routes.computeIfAbsent(key(observation.route(), observation.currency()), key -> new RouteFares()).add(observation);
+        observations.increment();
+    }
+
+    /**
+     * Cheapest known fare for each departure date in {@code month} that has been observed, by date.
+     */
+    public List<FareObservation> cheapestByDay(int route, int currency, YearMonth month) {
+        RouteFares fares = routes.get(key(route, currency));
+        if (fares == null) {
+            return List.of();
+        }
+        return fares.cheapestBetween((int) month.atDay(1).toEpochDay(), (int) month.atEndOfMonth().toEpochDay());
+    }
+
+    /**
+     * Lowest and average observed fare per day, for the {@code days} days up to and including {@code today}.
+     */
+    public List<TrendPoint> trend(int route, int currency, int days, LocalDate today) {
+        RouteFares fares = routes.get(key(route, currency));
+        if (fares == null) {
+            return List.of();
+        }
+        return fares.trendBetween((int) today.minusDays(days - 1L).toEpochDay(), (int) today.toEpochDay());
+    }
+
+    public int routeCount() {
+        return routes.size();
+    }
+
+    public long size() {
+        return observations.sum();
+    }
+
+    private static long key(int route, int currency) {
+        return Integer.toUnsignedLong(route) << 16 | currency;
+    }
+
+    public record TrendPoint(LocalDate date, int minPriceCents, long averagePriceCents, long observations) {
+    }
+
+    private static final class RouteFares {
+
+        private final TreeMap<Integer, FareObservation> cheapestByDeparture = new TreeMap<>();
+        private final TreeMap<Integer, DailyPrices> byObservedDay = new TreeMap<>();
+
+        private synchronized void add(FareObservation observation) {
+            cheapestByDeparture.merge(observation.departureDay(), observation, RouteFares::cheaper);
+            byObservedDay.computeIfAbsent(Math.floorDiv(observation.observedMinute(), 24 * 60), day -> new DailyPrices())
+                    .add(observation.priceCents());
+        }
+
+        private synchronized List<FareObservation> cheapestBetween(int fromDay, int toDay) {
+            return new ArrayList<>(cheapestByDeparture.subMap(fromDay, true, toDay, true).values());
+        }
+
+        private synchronized List<TrendPoint> trendBetween(int fromDay, int toDay) {
+            NavigableMap<Integer, DailyPrices> window = byObservedDay.subMap(fromDay, true, toDay, true);
+            List<TrendPoint> points = new ArrayList<>(window.size());
+            window.forEach((day, prices) -> points.add(new TrendPoint(LocalDate.ofEpochDay(day),
+                    prices.min, prices.sum / prices.count, prices.count)));
+            return points;
+        }
+
+        // Equal prices keep the more recent observation, so the date reported is the latest sighting.
+        private static FareObservation cheaper(FareObservation known, FareObservation candidate) {
+            if (candidate.priceCents() < known.priceCents()) {
+                return candidate;
+            }
+            if (candidate.priceCents() == known.priceCents() && candidate.observedMinute() > known.observedMinute()) {
+                return candidate;
+            }
+            return known;
+        }
+    }
+
+    private static final class DailyPrices {
+
+        private int min = Integer.MAX_VALUE;
+        private long sum;
+        private long count;
+
+        private void add(int priceCents) {
+            min = Math.min(min, priceCents);
+            sum += priceCents;
+            count++;
+        }
+    }
+}
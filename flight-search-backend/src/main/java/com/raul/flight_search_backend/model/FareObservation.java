@@ -0,0 +1,97 @@
+package com.raul.flight_search_backend.model;
+
+import java.util.Locale;
+
+/**
+ * One fare seen in an Amadeus response, in the fixed-width form stored on disk. Codes of up to
+ * three letters or digits (IATA airports and cities, carriers, ISO currencies) are packed in
+ * base 37 into 16 bits, so a route is one int and a record needs no strings.
+ *
+ * @param route          origin code in the high 16 bits, destination in the low 16 bits
+ * @param departureDay   departure date as days since the epoch
+ * @param observedMinute when the fare was seen, as minutes since the epoch
+ * @param priceCents     {@code grandTotal} in hundredths of the currency unit
+ * @param currency       packed currency code
+ * @param carrier        packed validating carrier code
+ * @param stops          stops on the itinerary with the most stops
+ */
+public record FareObservation(int route,
+                              int departureDay,
+                              int observedMinute,
+                              int priceCents,
+                              int currency,
+                              int carrier,
+                              int stops) {
+
+    private static final int BASE = 37;
+
+    public static int route(String origin, String destination) {
+        return pack(origin) << 16 | pack(destination);
+    }
+
+    /**
+     * Packs a code of up to three characters from {@code [A-Z0-9]}, case-insensitively.
+     */
+    public static int pack(String code) {
+        if (!isPackable(code)) {
+            throw new IllegalArgumentException("Not a code of up to three letters or digits: " + code);
+        }
+        int packed = 0;
+        String upper = code.toUpperCase(Locale.ROOT);
+        for (int i = 0; i < 3; i++) {
+            packed = packed * BASE + (i < upper.length() ? digit(upper.charAt(i)) : 0);
+        }
+        return packed;
+    }
+
+    public static boolean isPackable(String code) {
+        if (code == null || code.isEmpty() || code.length() > 3) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            if (digit(Character.toUpperCase(code.charAt(i))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String unpack(int packed) {
+        char[] chars = new char[3];
+        int length = 0;
+        for (int i = 2, rest = packed & 0xFFFF; i >= 0; i--, rest /= BASE) {
+            chars[i] = symbol(rest % BASE);
+        }
+        for (char c : chars) {
+            if (c != 0) {
+                chars[length++] = c;
+            }
+        }
+        return length > 0 ? new String(chars, 0, length) : null;
+    }
+
+    public String origin() {
+        return unpack(route >>> 16);
+    }
+
+    public String destination() {
+        return unpack(route);
+    }
+
+    private static int digit(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+
+    private static char symbol(int digit) {
+        if (digit == 0) {
+            return 0;
+        }
+        return digit <= 26 ? (char) ('A' + digit - 1) : (char) ('0' + digit - 27);
+    }
+}
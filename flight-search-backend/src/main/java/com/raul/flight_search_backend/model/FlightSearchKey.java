@@ -0,0 +1,169 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, normalized identity of a flight search. "jfk"/"JFK", "usd"/"USD" and a null or
+ * blank return date all map to the same key, so they share one cache entry and one upstream call.
+ * The hash is computed once, since the key is hashed by every cache and dedup layer it passes.
+ */
+public final class FlightSearchKey {
+
+    private static final Pattern IATA_CODE = Pattern.compile("[A-Z]{3}");
+    private static final int MAX_ADULTS = 9;
+
+    private final String origin;
+    private final String destination;
+    private final LocalDate departureDate;
+    private final LocalDate returnDate;
+    private final String currency;
+    private final int adults;
+    private final boolean nonStop;
+    private final int hash;
+
+    private FlightSearchKey(String origin, String destination, LocalDate departureDate, LocalDate returnDate,
+                            String currency, int adults, boolean nonStop) {
+        this.origin = origin;
+        this.destination = destination;
+        this.departureDate = departureDate;
+        this.returnDate = returnDate;
+        this.currency = currency;
+        this.adults = adults;
+        this.nonStop = nonStop;
+        this.hash = Objects.hash(origin, destination, departureDate, returnDate, currency, adults, nonStop);
+    }
+
+    /**
+     * Normalizes and validates a request; anything that cannot be searched is a 400.
+     */
+    public static FlightSearchKey of(FlightOfferSearchRequest request) {
+        LocalDate departureDate = parseDate("departureDate", request.getDepartureDate());
+        LocalDate returnDate = request.getReturnDate() == null || request.getReturnDate().isBlank()
+                ? null
+                : parseDate("returnDate", request.getReturnDate());
+
+        if (returnDate != null && returnDate.isBefore(departureDate)) {
+            throw badRequest("returnDate must not be before departureDate");
+        }
+        if (request.getAdults() < 1 || request.getAdults() > MAX_ADULTS) {
+            throw badRequest("adults must be between 1 and " + MAX_ADULTS);
+        }
+
+        return new FlightSearchKey(
+                iataCode("origin", request.getOriginLocationCode()),
+                iataCode("destination", request.getDestinationLocationCode()),
+                departureDate,
+                returnDate,
+                currency(request.getCurrency()),
+                request.getAdults(),
+                request.isNonStop());
+    }
+
+    /**
+     * The same search on other dates; the dates are assumed valid.
+     */
+    public FlightSearchKey withDates(LocalDate departureDate, LocalDate returnDate) {
+        return new FlightSearchKey(origin, destination, departureDate, returnDate, currency, adults, nonStop);
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getAdults() {
+        return adults;
+    }
+
+    public boolean isNonStop() {
+        return nonStop;
+    }
+
+    /**
+     * Origin and destination, e.g. {@code JFK-LAX}; the granularity of per-route statistics.
+     */
+    public String route() {
+        return origin + "-" + destination;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FlightSearchKey other)) {
+            return false;
+        }
+        return hash == other.hash
+                && adults == other.adults
+                && nonStop == other.nonStop
+                && origin.equals(other.origin)
+                && destination.equals(other.destination)
+                && departureDate.equals(other.departureDate)
+                && Objects.equals(returnDate, other.returnDate)
+                && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return route() + "|" + departureDate + "|" + (returnDate != null ? returnDate : "") + "|" + currency
+                + "|" + adults + "|" + nonStop;
+    }
+
+    private static String iataCode(String field, String value) {
+        String code = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        if (!IATA_CODE.matcher(code).matches()) {
+            throw badRequest(field + " must be a 3-letter IATA code");
+        }
+        return code;
+    }
+
+    private static String currency(String value) {
+        try {
+            return Currency.getInstance(value == null ? "" : value.trim().toUpperCase(Locale.ROOT)).getCurrencyCode();
+        } catch (IllegalArgumentException e) {
+            throw badRequest("currency must be an ISO 4217 code");
+        }
+    }
+
+    private static LocalDate parseDate(String field, String value) {
+        try {
+            return LocalDate.parse(value == null ? "" : value.trim());
+        } catch (DateTimeParseException e) {
+            throw badRequest(field + " must be a date in yyyy-MM-dd format");
+        }
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
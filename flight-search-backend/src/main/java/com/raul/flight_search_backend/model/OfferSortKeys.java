@@ -0,0 +1,113 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sort and filter keys parsed once per offer from the string fields of the Amadeus payload.
+ * Missing segments, departures or codes are skipped, as {@link CompactFlightOffer} does, and
+ * carrier codes are the pooled instances so offers share them.
+ *
+ * @param price                total price from {@code Price.grandTotal} (falls back to {@code total})
+ * @param durationMinutes      sum of all itinerary durations, {@code Long.MAX_VALUE} if any is
+ *                             missing or unparseable so such offers sort last
+ * @param departureEpochSecond first departure, local airport time, as seconds since the epoch
+ * @param stops                stops on the itinerary with the most stops
+ * @param carriers             marketing and operating carrier codes
+ */
+public record OfferSortKeys(double price,
+                            long durationMinutes,
+                            long departureEpochSecond,
+                            int stops,
+                            Set<String> carriers) {
+
+    public static OfferSortKeys of(FlightOfferSearchResponse.FlightOffer offer, StringPool pool) {
+        long durationMinutes = Long.MAX_VALUE;
+        long departureEpochSecond = Long.MAX_VALUE;
+        int stops = 0;
+        Set<String> carriers = new HashSet<>();
+
+        if (offer.getItineraries() != null && !offer.getItineraries().isEmpty()) {
+            durationMinutes = 0;
+            for (FlightOfferSearchResponse.Itinerary itinerary : offer.getItineraries()) {
+                long itineraryMinutes = parseDurationMinutes(itinerary.getDuration());
+                durationMinutes = itineraryMinutes == Long.MAX_VALUE || durationMinutes == Long.MAX_VALUE
+                        ? Long.MAX_VALUE : durationMinutes + itineraryMinutes;
+                if (itinerary.getSegments() == null || itinerary.getSegments().isEmpty()) {
+                    continue;
+                }
+
+                int itineraryStops = itinerary.getSegments().size() - 1;
+                for (FlightOfferSearchResponse.Segment segment : itinerary.getSegments()) {
+                    itineraryStops += segment.getNumberOfStops();
+                    addCarrier(carriers, segment.getCarrierCode(), pool);
+                    if (segment.getOperating() != null) {
+                        addCarrier(carriers, segment.getOperating().getCarrierCode(), pool);
+                    }
+                }
+                stops = Math.max(stops, itineraryStops);
+            }
+
+            FlightOfferSearchResponse.Itinerary first = offer.getItineraries().get(0);
+            if (first.getSegments() != null && !first.getSegments().isEmpty()
+                    && first.getSegments().get(0).getDeparture() != null) {
+                departureEpochSecond = parseEpochSecond(first.getSegments().get(0).getDeparture().getAt());
+            }
+        }
+
+        return new OfferSortKeys(parsePrice(offer.getPrice()), durationMinutes, departureEpochSecond, stops, Set.copyOf(carriers));
+    }
+
+    /**
+     * Rough retained size in bytes; the carrier strings are pooled and not counted.
+     */
+    public long estimatedBytes() {
+        return 16 + 3 * 8 + 4 + 4 + 16 + 16 + 8L * carriers.size();
+    }
+
+    private static void addCarrier(Set<String> carriers, String code, StringPool pool) {
+        if (code != null) {
+            carriers.add(pool.get(pool.intern(code)));
+        }
+    }
+
+    private static double parsePrice(FlightOfferSearchResponse.Price price) {
+        if (price == null) {
+            return Double.MAX_VALUE;
+        }
+        String amount = price.getGrandTotal() != null ? price.getGrandTotal() : price.getTotal();
+        try {
+            return amount != null ? Double.parseDouble(amount) : Double.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            return Double.MAX_VALUE;
+        }
+    }
+
+    private static long parseDurationMinutes(String isoDuration) {
+        if (isoDuration == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Duration.parse(isoDuration).toMinutes();
+        } catch (DateTimeParseException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long parseEpochSecond(String localDateTime) {
+        if (localDateTime == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return LocalDateTime.parse(localDateTime).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * One search's offers in compact form, indexed by offer id, with sort keys and the dictionary
+ * codes each offer uses computed up front. DTOs are only rebuilt for the offers being returned.
+ * Dictionaries are merged into the {@link DictionaryRegistry}; the result keeps only the codes.
+ */
+public class SearchResult {
+
+    private static final int[] NO_CODES = new int[0];
+
+    private final DictionaryRegistry registry;
+    private final String searchId;
+    private final FlightOfferSearchResponse.Meta meta;
+    private final DictionaryRegistry.Codes dictionaryCodes;
+    private final FlightOfferSearchResponse.Dictionaries dictionaries;
+    private final CompactFlightOffer[] offers;
+    private final OfferSortKeys[] sortKeys;
+    private final Map<String, Integer> offerIndexById;
+    private final DictionaryRegistry.Codes[] usedCodes;
+    private final long estimatedBytes;
+    private final long fetchedAt;
+
+    private SearchResult(Builder builder) {
+        this.registry = builder.registry;
+        this.searchId = builder.searchId;
+        this.fetchedAt = System.currentTimeMillis();
+        this.meta = builder.meta;
+        this.dictionaryCodes = registry.register(builder.dictionaries);
+        this.dictionaries = registry.resolve(dictionaryCodes);
+        this.offers = builder.offers.toArray(new CompactFlightOffer[0]);
+        this.sortKeys = builder.sortKeys.toArray(new OfferSortKeys[0]);
+        this.usedCodes = new DictionaryRegistry.Codes[offers.length];
+        this.offerIndexById = new HashMap<>();
+
+        long bytes = 0;
+        for (int i = 0; i < offers.length; i++) {
+            usedCodes[i] = usedCodes(offers[i]);
+            offerIndexById.put(offers[i].getId(), i);
+            bytes += offers[i].estimatedBytes() + sortKeys[i].estimatedBytes();
+        }
+        this.estimatedBytes = bytes + dictionaryCodes.size() * 4L + 64;
+    }
+
+    public static SearchResult of(FlightOfferSearchResponse response, DictionaryRegistry registry) {
+        Builder builder = builder(response.getSearchId(), registry)
+                .meta(response.getMeta())
+                .dictionaries(response.getDictionaries());
+        if (response.getData() != null) {
+            response.getData().forEach(builder::addOffer);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(String searchId, DictionaryRegistry registry) {
+        return new Builder(searchId, registry);
+    }
+
+    public String getSearchId() {
+        return searchId;
+    }
+
+    public int size() {
+        return offers.length;
+    }
+
+    public OfferSortKeys getSortKeys(int index) {
+        return sortKeys[index];
+    }
+
+    public FlightOfferSearchResponse.FlightOffer getOffer(String offerId) {
+        Integer index = offerIndexById.get(offerId);
+        return index != null ? offers[index].toDto() : null;
+    }
+
+    public String getValidatingCarrierAt(int index) {
+        return offers[index].getValidatingCarrier();
+    }
+
+    public FlightOfferSearchResponse.FlightOffer getOfferAt(int index) {
+        return offers[index].toDto();
+    }
+
+    public FlightOfferSearchResponse.Dictionaries getDictionariesForOffer(String offerId) {
+        Integer index = offerIndexById.get(offerId);
+        return index != null ? registry.resolve(usedCodes[index]) : null;
+    }
+
+    /**
+     * This search's dictionaries as read-only views into the registry.
+     */
+    public FlightOfferSearchResponse.Dictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    public FlightOfferSearchResponse.Meta getMeta() {
+        return meta;
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * When the offers were fetched from Amadeus, in epoch milliseconds; drives stale-while-revalidate.
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * Rebuilds the full public response, all offers in their original order.
+     */
+    public FlightOfferSearchResponse getResponse() {
+        List<Integer> indexes = new ArrayList<>(offers.length);
+        for (int i = 0; i < offers.length; i++) {
+            indexes.add(i);
+        }
+        return toResponse(indexes, meta);
+    }
+
+    /**
+     * Rebuilds the public response for the given offers, in the given order.
+     */
+    public FlightOfferSearchResponse toResponse(List<Integer> indexes, FlightOfferSearchResponse.Meta responseMeta) {
+        List<FlightOfferSearchResponse.FlightOffer> data = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            data.add(offers[index].toDto());
+        }
+
+        FlightOfferSearchResponse response = new FlightOfferSearchResponse();
+        response.setSearchId(searchId);
+        response.setMeta(responseMeta);
+        response.setData(data);
+        response.setDictionaries(dictionaries);
+        return response;
+    }
+
+    /**
+     * The location, carrier and aircraft codes an offer's segments use.
+     */
+    private static DictionaryRegistry.Codes usedCodes(CompactFlightOffer offer) {
+        Set<Integer> locations = new LinkedHashSet<>();
+        Set<Integer> carriers = new LinkedHashSet<>();
+        Set<Integer> aircraft = new LinkedHashSet<>();
+
+        offer.forEachSegmentCode((departure, arrival, carrier, operatingCarrier, aircraftCode) -> {
+            locations.add(departure);
+            locations.add(arrival);
+            carriers.add(carrier);
+            carriers.add(operatingCarrier);
+            aircraft.add(aircraftCode);
+        });
+
+        return new DictionaryRegistry.Codes(toArray(locations), toArray(aircraft), NO_CODES, toArray(carriers));
+    }
+
+    private static int[] toArray(Set<Integer> codes) {
+        codes.remove(StringPool.NONE);
+        return codes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Collects a search one offer at a time, compacting each offer as it is added so the
+     * full DTO graph never has to exist at once.
+     */
+    public static final class Builder {
+
+        private final DictionaryRegistry registry;
+        private final String searchId;
+        private final List<CompactFlightOffer> offers = new ArrayList<>();
+        private final List<OfferSortKeys> sortKeys = new ArrayList<>();
+        private FlightOfferSearchResponse.Meta meta;
+        private FlightOfferSearchResponse.Dictionaries dictionaries;
+        private Consumer<FlightOfferSearchResponse.FlightOffer> listener = offer -> { };
+
+        private Builder(String searchId, DictionaryRegistry registry) {
+            this.registry = registry;
+            this.searchId = searchId;
+        }
+
+        public Builder meta(FlightOfferSearchResponse.Meta meta) {
+            this.meta = meta;
+            return this;
+        }
+
+        public Builder dictionaries(FlightOfferSearchResponse.Dictionaries dictionaries) {
+            this.dictionaries = dictionaries;
+            return this;
+        }
+
+        /**
+         * Called with every offer as it is added, before it is compacted.
+         */
+        public Builder listener(Consumer<FlightOfferSearchResponse.FlightOffer> listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public Builder addOffer(FlightOfferSearchResponse.FlightOffer offer) {
+            offers.add(CompactFlightOffer.of(offer, registry.getPool()));
+            sortKeys.add(OfferSortKeys.of(offer, registry.getPool()));
+            listener.accept(offer);
+            return this;
+        }
+
+        public String getSearchId() {
+            return searchId;
+        }
+
+        public FlightOfferSearchResponse.Meta getMeta() {
+            return meta;
+        }
+
+        public FlightOfferSearchResponse.Dictionaries getDictionaries() {
+            return dictionaries;
+        }
+
+        public int getOfferCount() {
+            return offers.size();
+        }
+
+        public SearchResult build() {
+            return new SearchResult(this);
+        }
+    }
+}
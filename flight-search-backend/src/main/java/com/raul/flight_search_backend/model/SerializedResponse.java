@@ -0,0 +1,142 @@
+package com.raul.flight_search_backend.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once, with a gzipped copy when it is large enough to be worth it.
+ * The copy is made the first time a client that accepts gzip asks for it, at the default
+ * compression level, and then kept; clients that never send {@code Accept-Encoding: gzip} never
+ * pay for it. Each variant has its own strong ETag, derived from the JSON bytes, since a strong
+ * validator must change with the content encoding.
+ */
+public final class SerializedResponse {
+
+    // Marks a body that was compressed but did not get smaller, so plain JSON is served.
+    private static final byte[] NOT_SMALLER = new byte[0];
+
+    private final byte[] json;
+    private final boolean compressible;
+    private final String etag;
+    private volatile byte[] gzip;
+
+    private SerializedResponse(byte[] json, boolean compressible, String etag) {
+        this.json = json;
+        this.compressible = compressible;
+        this.etag = etag;
+    }
+
+    /**
+     * Wraps {@code json}; it will be gzipped on demand if it is at least {@code gzipMinBytes}
+     * long and compression actually makes it smaller.
+     */
+    public static SerializedResponse of(byte[] json, int gzipMinBytes) {
+        return new SerializedResponse(json, json.length >= gzipMinBytes, etag(json));
+    }
+
+    /**
+     * The gzip variant if the client accepts it and one exists, otherwise plain JSON.
+     */
+    public Variant select(String acceptEncoding) {
+        if (compressible && acceptsGzip(acceptEncoding)) {
+            byte[] compressed = gzipped();
+            if (compressed != NOT_SMALLER) {
+                return new Variant(compressed, "gzip", "\"" + etag + "-gzip\"");
+            }
+        }
+        return new Variant(json, null, "\"" + etag + "\"");
+    }
+
+    /**
+     * Whether gzip-accepting clients get a gzip variant; compresses the body if not done yet.
+     */
+    public boolean hasGzip() {
+        return compressible && gzipped() != NOT_SMALLER;
+    }
+
+    /**
+     * Counts room for a gzip copy (a quarter of the JSON) before one exists, since the cache
+     * weighs an entry only once, when it is added.
+     */
+    public long estimatedBytes() {
+        byte[] compressed = gzip;
+        long gzipBytes = compressed != null ? compressed.length : compressible ? json.length / 4 : 0;
+        return json.length + gzipBytes + 64;
+    }
+
+    // Two first requests may both compress; they produce the same bytes and either copy is kept.
+    private byte[] gzipped() {
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            compressed = gzip(json);
+            if (compressed.length >= json.length) {
+                compressed = NOT_SMALLER;
+            }
+            gzip = compressed;
+        }
+        return compressed;
+    }
+
+    /**
+     * Whether an Accept-Encoding header lists gzip (or *) without {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().toLowerCase(Locale.ROOT).split(";");
+            String coding = parts[0].trim();
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The bytes to write, their Content-Encoding ({@code null} for none) and quoted ETag.
+     */
+    public record Variant(byte[] body, String contentEncoding, String etag) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.raul.flight_search_backend.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-wide intern table mapping the small, highly repetitive strings of flight offers
+ * (IATA, carrier and aircraft codes, currencies, cabins, ...) to dense int ids.
+ * Ids are never reused, so compact offers stay valid for the lifetime of the process; the table
+ * never shrinks, so only values from small, bounded sets belong in it. One instance is shared
+ * as a bean, see {@code CacheConfig}.
+ */
+public final class StringPool {
+
+    public static final int NONE = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[1024];
+    private int size;
+
+    public int intern(String value) {
+        if (value == null) {
+            return NONE;
+        }
+
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = value;
+            values = current;
+            ids.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * The id of {@code value} if it has been interned, otherwise {@link #NONE}; never adds it.
+     */
+    public int idOf(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = ids.get(value);
+        return id != null ? id : NONE;
+    }
+
+    public String get(int id) {
+        return id == NONE ? null : values[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
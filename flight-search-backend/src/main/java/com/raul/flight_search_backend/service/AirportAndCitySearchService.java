@@ -1,8 +1,13 @@
 package com.raul.flight_search_backend.service;
 
+import com.raul.flight_search_backend.config.AmadeusConfig;
 import com.raul.flight_search_backend.dto.AirportAndCitySearchRequest;
 import com.raul.flight_search_backend.dto.AirportAndCitySearchResponse;
+import com.raul.flight_search_backend.util.UpstreamUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -12,21 +17,119 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.List;
+
 @Service
 public class AirportAndCitySearchService {
 
+    private static final Logger log = LoggerFactory.getLogger(AirportAndCitySearchService.class);
+
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private AirportCityIndex airportCityIndex;
+
+    @Value("${amadeus.api.base_url:https://test.api.amadeus.com/v1/}")
+    private String baseUrl;
+
+    /**
+     * Answers from the local index when it can fill the requested page, or when Amadeus already
+     * returned every match for the keyword; otherwise asks Amadeus and adds the returned
+     * locations to the index so the next lookup for them stays local. While Amadeus is
+     * unavailable, whatever the index matched is returned instead.
+     */
     public AirportAndCitySearchResponse searchAirportAndCity(AirportAndCitySearchRequest request) {
-        String referenceUrl = "reference-data/locations";
-        String url = UriComponentsBuilder.fromHttpUrl("https://test.api.amadeus.com/v1/" + referenceUrl)
+        List<AirportAndCitySearchResponse.LocationData> matches = airportCityIndex.search(request);
+        if (canAnswerLocally(request, matches)) {
+            return toPage(matches, request);
+        }
+
+        AirportAndCitySearchResponse response;
+        try {
+            response = fetchAirportAndCity(request);
+        } catch (RuntimeException e) {
+            if (!UpstreamUnavailableException.isCause(e)) {
+                throw e;
+            }
+            log.warn("Location search not sent, answering from the local index: {}", e.getMessage());
+            return toPage(matches, request);
+        }
+        if (response != null && response.getData() != null) {
+            response.getData().forEach(airportCityIndex::add);
+            if (isComplete(request, response)) {
+                airportCityIndex.markComplete(request);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Whether {@link #searchAirportAndCity} would answer {@code request} from the local index.
+     */
+    public boolean canAnswerLocally(AirportAndCitySearchRequest request) {
+        return canAnswerLocally(request, airportCityIndex.search(request));
+    }
+
+    // The bundled dataset only holds the busiest locations, so a few local matches do not mean
+    // Amadeus has no others; the index answers alone only if it fills the whole page.
+    private boolean canAnswerLocally(AirportAndCitySearchRequest request,
+                                     List<AirportAndCitySearchResponse.LocationData> matches) {
+        if (airportCityIndex.isComplete(request)) {
+            return true;
+        }
+        return request.getLimit() != null && matches.size() >= (long) offset(request) + Math.max(0, request.getLimit());
+    }
+
+    // A first page holding as many locations as the total count is every match Amadeus has.
+    private static boolean isComplete(AirportAndCitySearchRequest request, AirportAndCitySearchResponse response) {
+        return offset(request) == 0
+                && response.getMeta() != null
+                && response.getData().size() >= response.getMeta().getCount();
+    }
+
+    private static int offset(AirportAndCitySearchRequest request) {
+        return request.getOffset() != null ? Math.max(0, request.getOffset()) : 0;
+    }
+
+    private AirportAndCitySearchResponse toPage(List<AirportAndCitySearchResponse.LocationData> matches,
+                                                AirportAndCitySearchRequest request) {
+        int offset = offset(request);
+        int limit = request.getLimit() != null ? Math.max(0, request.getLimit()) : matches.size();
+        int from = Math.min(offset, matches.size());
+        int to = (int) Math.min((long) from + limit, matches.size());
+
+        AirportAndCitySearchResponse.Meta meta = new AirportAndCitySearchResponse.Meta();
+        meta.setCount(matches.size());
+
+        AirportAndCitySearchResponse response = new AirportAndCitySearchResponse();
+        response.setMeta(meta);
+        response.setData(matches.subList(from, to));
+        return response;
+    }
+
+    private AirportAndCitySearchResponse fetchAirportAndCity(AirportAndCitySearchRequest request) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUri(AmadeusConfig.apiUrl(baseUrl, AmadeusConfig.LOCATIONS_PATH))
                 .queryParam("subType", request.getSubType())
-                .queryParam("keyword", request.getKeyword())
-                .encode()
-                .toUriString();
+                .queryParam("keyword", request.getKeyword());
+
+        if (request.getCountryCode() != null) {
+            builder.queryParam("countryCode", request.getCountryCode());
+        }
+        if (request.getLimit() != null) {
+            builder.queryParam("page[limit]", request.getLimit());
+        }
+        if (request.getOffset() != null) {
+            builder.queryParam("page[offset]", request.getOffset());
+        }
+        if (request.getSort() != null) {
+            builder.queryParam("sort", request.getSort());
+        }
+        if (request.getView() != null) {
+            builder.queryParam("view", request.getView());
+        }
 
-        System.out.println("URL: " + url);
+        String url = builder.encode().toUriString();
 
         HttpHeaders headers = new HttpHeaders();
         headers.set("Accept", "application/vnd.amadeus+json");
@@ -37,11 +140,11 @@ public class AirportAndCitySearchService {
             ResponseEntity<AirportAndCitySearchResponse> response = restTemplate.exchange(url, HttpMethod.GET, entity, AirportAndCitySearchResponse.class);
             return response.getBody();
         } catch (HttpClientErrorException e) {
-            System.err.println("Error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString());
+            log.error("Location search failed: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Failed to fetch data from API: " + e.getMessage());
         } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            throw new RuntimeException("An unexpected error occurred: " + e.getMessage());
+            log.error("Location search failed: {}", e.getMessage());
+            throw new RuntimeException("An unexpected error occurred: " + e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,330 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.AirportAndCitySearchRequest;
+import com.raul.flight_search_backend.dto.AirportAndCitySearchResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory autocomplete index over airports and cities. Built at startup from the bundled
+ * dataset and extended with every location Amadeus returns, so repeated keywords never leave
+ * the process. Words are indexed by prefix, with a trigram index for matches inside a word.
+ */
+@Component
+public class AirportCityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AirportCityIndex.class);
+
+    public static final String SCORE_SORT = "analytics.travelers.score";
+
+    private static final int MAX_COMPLETE_QUERIES = 10_000;
+    private static final Duration COMPLETE_QUERY_TTL = Duration.ofDays(7);
+
+    @Value("${location-index.dataset:classpath:data/locations.csv}")
+    private Resource dataset;
+
+    private final ConcurrentHashMap<String, IndexedLocation> locationsById = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<String>> prefixIndex = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<String>> trigramIndex = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> completeQueries = Caffeine.newBuilder()
+            .maximumSize(MAX_COMPLETE_QUERIES)
+            .expireAfterWrite(COMPLETE_QUERY_TTL)
+            .build();
+
+    @PostConstruct
+    public void loadDataset() {
+        if (dataset == null || !dataset.exists()) {
+            log.warn("Location dataset not found, the airport and city index starts empty");
+            return;
+        }
+
+        Map<String, AirportAndCitySearchResponse.LocationData> cities = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split(",", -1);
+                if (fields.length < 8) {
+                    continue;
+                }
+
+                AirportAndCitySearchResponse.LocationData airport;
+                AirportAndCitySearchResponse.LocationData city;
+                try {
+                    airport = toLocation("AIRPORT", fields[0], fields[1], fields);
+                    city = toLocation("CITY", fields[2], fields[3], fields);
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping location dataset line {}: {}", lineNumber, e.getMessage());
+                    continue;
+                }
+
+                add(airport);
+                cities.merge(fields[2], city, (existing, candidate) -> score(existing) >= score(candidate) ? existing : candidate);
+            }
+        } catch (IOException e) {
+            log.error("Failed to load location dataset: {}", e.getMessage());
+        }
+
+        cities.values().forEach(this::add);
+        log.info("Airport and city index loaded with {} locations", locationsById.size());
+    }
+
+    /**
+     * Indexes {@code location}, replacing any earlier version with the same id.
+     */
+    public synchronized void add(AirportAndCitySearchResponse.LocationData location) {
+        if (location == null || location.getIataCode() == null || location.getSubType() == null) {
+            return;
+        }
+
+        String subType = location.getSubType().toUpperCase(Locale.ROOT);
+        String id = location.getId() != null ? location.getId() : subType.charAt(0) + location.getIataCode();
+        AirportAndCitySearchResponse.LocationData.Address address = location.getAddress();
+
+        String iataCode = normalize(location.getIataCode());
+        String name = normalize(location.getName());
+        String cityName = address != null ? normalize(address.getCityName()) : "";
+        String countryCode = address != null && address.getCountryCode() != null
+                ? address.getCountryCode().toUpperCase(Locale.ROOT) : null;
+
+        Set<String> words = new LinkedHashSet<>();
+        words.add(iataCode);
+        words.addAll(Arrays.asList(name.split(" ")));
+        words.addAll(Arrays.asList(cityName.split(" ")));
+        words.remove("");
+
+        String searchText = String.join(" ", iataCode, name, cityName);
+        IndexedLocation previous = locationsById.put(id,
+                new IndexedLocation(location, subType, countryCode, iataCode, score(location), List.copyOf(words), searchText));
+        if (previous != null) {
+            unindex(id, previous, words, trigrams(searchText));
+        }
+
+        words.forEach(word -> prefixIndex.computeIfAbsent(word, k -> ConcurrentHashMap.newKeySet()).add(id));
+        trigrams(searchText).forEach(trigram -> trigramIndex.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    /**
+     * Records that Amadeus returned every location matching {@code request}.
+     */
+    public void markComplete(AirportAndCitySearchRequest request) {
+        completeQueries.put(queryKey(request), Boolean.TRUE);
+    }
+
+    /**
+     * Whether the index holds every location Amadeus has for {@code request}.
+     */
+    public boolean isComplete(AirportAndCitySearchRequest request) {
+        return completeQueries.getIfPresent(queryKey(request)) != null;
+    }
+
+    /**
+     * Returns every indexed location matching the request, ordered but not paged. All keyword
+     * words must prefix a word of the location; if none do, the keyword is matched as a substring.
+     */
+    public List<AirportAndCitySearchResponse.LocationData> search(AirportAndCitySearchRequest request) {
+        String keyword = normalize(request.getKeyword());
+        if (keyword.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> subTypes = parseSubTypes(request.getSubType());
+        String countryCode = request.getCountryCode() != null && !request.getCountryCode().isBlank()
+                ? request.getCountryCode().trim().toUpperCase(Locale.ROOT) : null;
+        String[] keywordWords = keyword.split(" ");
+
+        Set<String> candidateIds = prefixCandidates(keywordWords[0]);
+        Predicate<IndexedLocation> matcher = location -> matchesAllPrefixes(location, keywordWords);
+
+        if (candidateIds.isEmpty() && keyword.length() >= 3) {
+            candidateIds = trigramCandidates(keyword);
+            matcher = location -> location.searchText().contains(keyword);
+        }
+
+        Predicate<IndexedLocation> filter = matcher;
+        return candidateIds.stream()
+                .map(locationsById::get)
+                .filter(Objects::nonNull)
+                .filter(location -> subTypes.isEmpty() || subTypes.contains(location.subType()))
+                .filter(location -> countryCode == null || countryCode.equals(location.countryCode()))
+                .filter(filter)
+                .sorted(comparator(keyword, request.getSort()))
+                .map(IndexedLocation::data)
+                .toList();
+    }
+
+    public int size() {
+        return locationsById.size();
+    }
+
+    // Drops the postings of a replaced version that the new one no longer has.
+    private void unindex(String id, IndexedLocation previous, Set<String> words, List<String> trigrams) {
+        Set<String> currentTrigrams = new HashSet<>(trigrams);
+        for (String word : previous.words()) {
+            if (!words.contains(word)) {
+                removePosting(prefixIndex, word, id);
+            }
+        }
+        for (String trigram : trigrams(previous.searchText())) {
+            if (!currentTrigrams.contains(trigram)) {
+                removePosting(trigramIndex, trigram, id);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<String>> index, String term, String id) {
+        index.computeIfPresent(term, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static String queryKey(AirportAndCitySearchRequest request) {
+        String countryCode = request.getCountryCode() != null ? request.getCountryCode().trim().toUpperCase(Locale.ROOT) : "";
+        return normalize(request.getKeyword()) + "|" + new TreeSet<>(parseSubTypes(request.getSubType())) + "|" + countryCode;
+    }
+
+    private Set<String> prefixCandidates(String prefix) {
+        Set<String> ids = new HashSet<>();
+        prefixIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private Set<String> trigramCandidates(String keyword) {
+        Set<String> ids = null;
+        for (String trigram : trigrams(keyword)) {
+            Set<String> posting = trigramIndex.get(trigram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (ids == null) {
+                ids = new HashSet<>(posting);
+            } else {
+                ids.retainAll(posting);
+            }
+        }
+        return ids != null ? ids : Set.of();
+    }
+
+    private static boolean matchesAllPrefixes(IndexedLocation location, String[] keywordWords) {
+        for (String keywordWord : keywordWords) {
+            boolean matched = false;
+            for (String word : location.words()) {
+                if (word.startsWith(keywordWord)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Comparator<IndexedLocation> comparator(String keyword, String sort) {
+        Comparator<IndexedLocation> exactCodeFirst = Comparator.comparing((IndexedLocation location) -> !location.iataCode().equals(keyword));
+        Comparator<IndexedLocation> byName = Comparator.comparing(
+                (IndexedLocation location) -> location.data().getName(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+        if (sort == null || SCORE_SORT.equals(sort)) {
+            return exactCodeFirst
+                    .thenComparing(Comparator.comparingInt(IndexedLocation::score).reversed())
+                    .thenComparing(byName);
+        }
+        return exactCodeFirst.thenComparing(byName);
+    }
+
+    private static Set<String> parseSubTypes(String subType) {
+        if (subType == null || subType.isBlank()) {
+            return Set.of();
+        }
+        Set<String> subTypes = new HashSet<>();
+        for (String value : subType.split(",")) {
+            if (!value.isBlank()) {
+                subTypes.add(value.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return subTypes;
+    }
+
+    private static List<String> trigrams(String text) {
+        List<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]+", " ").trim();
+    }
+
+    private static int score(AirportAndCitySearchResponse.LocationData location) {
+        if (location.getAnalytics() == null || location.getAnalytics().getTravelers() == null) {
+            return 0;
+        }
+        return location.getAnalytics().getTravelers().getScore();
+    }
+
+    private static AirportAndCitySearchResponse.LocationData toLocation(String subType, String iataCode, String name, String[] fields) {
+        AirportAndCitySearchResponse.LocationData.Address address = new AirportAndCitySearchResponse.LocationData.Address();
+        address.setCityCode(fields[2]);
+        address.setCityName(fields[3]);
+        address.setCountryCode(fields[4]);
+        address.setCountryName(fields[5]);
+        address.setRegionCode(fields[6]);
+
+        AirportAndCitySearchResponse.LocationData.Travelers travelers = new AirportAndCitySearchResponse.LocationData.Travelers();
+        travelers.setScore(Integer.parseInt(fields[7].trim()));
+        AirportAndCitySearchResponse.LocationData.Analytics analytics = new AirportAndCitySearchResponse.LocationData.Analytics();
+        analytics.setTravelers(travelers);
+
+        AirportAndCitySearchResponse.LocationData location = new AirportAndCitySearchResponse.LocationData();
+        location.setType("location");
+        location.setSubType(subType);
+        location.setId(subType.charAt(0) + iataCode);
+        location.setIataCode(iataCode);
+        location.setName(name);
+        location.setDetailedName("AIRPORT".equals(subType)
+                ? fields[3] + "/" + fields[4] + ":" + name
+                : fields[3] + "/" + fields[4]);
+        location.setAddress(address);
+        location.setAnalytics(analytics);
+        return location;
+    }
+
+    private record IndexedLocation(AirportAndCitySearchResponse.LocationData data,
+                                   String subType,
+                                   String countryCode,
+                                   String iataCode,
+                                   int score,
+                                   List<String> words,
+                                   String searchText) {
+    }
+}
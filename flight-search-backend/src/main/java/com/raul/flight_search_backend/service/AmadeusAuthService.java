@@ -1,6 +1,13 @@
 package com.raul.flight_search_backend.service;
 
+import com.raul.flight_search_backend.config.AmadeusConfig;
+import com.raul.flight_search_backend.util.UpstreamTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -11,8 +18,25 @@ import java.util.Map;
 @Service
 public class AmadeusAuthService {
 
+    @Autowired
+    private ClientHttpRequestFactory amadeusRequestFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RestTemplate restTemplate;
+
+    @Value("${amadeus.api.base_url:https://test.api.amadeus.com/v1/}")
+    private String baseUrl;
+
+    @PostConstruct
+    public void init() {
+        restTemplate = new RestTemplate(amadeusRequestFactory);
+        restTemplate.getInterceptors().add(new UpstreamTimingInterceptor(meterRegistry));
+    }
+
     public Map<String, Object> getBearerToken(String apiKey, String apiSecret) {
-        String url = "https://test.api.amadeus.com/v1/security/oauth2/token";
+        String url = AmadeusConfig.apiUrl(baseUrl, AmadeusConfig.TOKEN_PATH).toString();
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
@@ -22,8 +46,6 @@ public class AmadeusAuthService {
         requestBody.add("client_id", apiKey);
         requestBody.add("client_secret", apiSecret);
 
-        RestTemplate restTemplate = new RestTemplate();
-
         HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(requestBody, headers);
 
         ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, Map.class);
@@ -0,0 +1,157 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.util.InFlightRequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the Amadeus bearer token. Requests read it from an atomic reference without locking;
+ * a background task replaces it {@code amadeus.token.refresh-margin} before it expires.
+ * Only when no valid token exists (first use, failed refresh) do requests wait, and then
+ * all of them share a single refresh call.
+ */
+@Component
+public class AmadeusTokenManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AmadeusTokenManager.class);
+
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(5);
+
+    @Autowired
+    private AmadeusAuthService amadeusAuthService;
+
+    @Value("${amadeus.api.key}")
+    private String apiKey;
+
+    @Value("${amadeus.api.secret}")
+    private String apiSecret;
+
+    @Value("${amadeus.token.refresh-margin:60s}")
+    private Duration refreshMargin;
+
+    @Value("${amadeus.token.retry-delay:5s}")
+    private Duration retryDelay;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicReference<AccessToken> currentToken = new AtomicReference<>();
+    private final InFlightRequestCoalescer<String, AccessToken> refreshCoalescer = new InFlightRequestCoalescer<>();
+    private final AtomicReference<ScheduledFuture<?>> scheduledRefresh = new AtomicReference<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "amadeus-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+
+    public String getToken() {
+        AccessToken token = currentToken.get();
+        if (token != null && token.isUsableAt(Instant.now())) {
+            return token.value();
+        }
+
+        Timer.Sample stall = Timer.start(meterRegistry);
+        try {
+            return refresh().value();
+        } finally {
+            stall.stop(stallTimer());
+        }
+    }
+
+    private AccessToken refresh() {
+        return refreshCoalescer.execute("token", this::fetchToken);
+    }
+
+    private AccessToken fetchToken() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "failure";
+        try {
+            Map<String, Object> tokenResponse = amadeusAuthService.getBearerToken(apiKey, apiSecret);
+            String accessToken = (String) tokenResponse.get("access_token");
+            long expiresIn = ((Number) tokenResponse.get("expires_in")).longValue();
+
+            AccessToken token = new AccessToken(accessToken, Instant.now().plusSeconds(expiresIn));
+            currentToken.set(token);
+            result = "success";
+            scheduleRefresh(token);
+            return token;
+        } finally {
+            sample.stop(refreshTimer(result));
+        }
+    }
+
+    private void scheduleRefresh(AccessToken token) {
+        Duration delay = Duration.between(Instant.now(), token.expiresAt().minus(refreshMargin));
+        scheduleRefresh(delay.isNegative() ? Duration.ofSeconds(1) : delay);
+    }
+
+    private void scheduleRefresh(Duration delay) {
+        ScheduledFuture<?> next = scheduler.schedule(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Background token refresh failed, retrying: {}", e.getMessage());
+                scheduleRefresh(retryDelay);
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+
+        ScheduledFuture<?> previous = scheduledRefresh.getAndSet(next);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public long getRefreshCount() {
+        return refreshTimer("success").count();
+    }
+
+    public long getRefreshFailures() {
+        return refreshTimer("failure").count();
+    }
+
+    public long getStalledRequests() {
+        return stallTimer().count();
+    }
+
+    // Registering returns the existing meter, so these are looked up rather than held.
+    private Timer refreshTimer(String result) {
+        return Timer.builder("amadeus.token.refresh")
+                .description("Calls to the Amadeus token endpoint")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Timer stallTimer() {
+        return Timer.builder("amadeus.token.stall")
+                .description("Time requests waited for a token because none was valid")
+                .register(meterRegistry);
+    }
+
+    private record AccessToken(String value, Instant expiresAt) {
+
+        private boolean isUsableAt(Instant now) {
+            return now.isBefore(expiresAt.minus(EXPIRY_SKEW));
+        }
+    }
+}
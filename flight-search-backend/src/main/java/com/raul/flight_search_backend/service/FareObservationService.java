@@ -0,0 +1,314 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FareCalendarResponse;
+import com.raul.flight_search_backend.dto.FareTrendResponse;
+import com.raul.flight_search_backend.model.FareIndex;
+import com.raul.flight_search_backend.model.FareObservation;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.OfferSortKeys;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.util.FareObservationStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps every fare fetched from Amadeus in the {@link FareObservationStore} and a
+ * {@link FareIndex} over it, so price calendars and trends are answered locally. Only one-way
+ * searches are recorded, with {@code grandTotal} divided by the number of adults, so every
+ * observation of a route is a comparable one-way, per-person price.
+ * <p>
+ * The store keeps the most recent {@code fares.max-records} observations. The index is built from
+ * the file on a background thread at startup, and rebuilt periodically from what the store still
+ * holds and is younger than {@code fares.retention}, so overwritten and expired observations
+ * leave it. Until the first build finishes, answers only cover what has been loaded so far plus
+ * new observations.
+ * <p>
+ * A search that returns the same fares as the last one recorded for its key on the same day is
+ * not recorded again, so hot searches refreshed every minute do not outweigh everything else in
+ * the daily averages.
+ */
+@Service
+public class FareObservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(FareObservationService.class);
+
+    private static final int MAX_TRACKED_SEARCHES = 50_000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Value("${fares.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fares.file:data/fares/observations.dat}")
+    private Path file;
+
+    @Value("${fares.max-records:20000000}")
+    private long maxRecords;
+
+    @Value("${fares.retention:365d}")
+    private Duration retention;
+
+    @Value("${fares.trend.max-days:365}")
+    private int maxTrendDays;
+
+    private final Cache<FlightSearchKey, RecordedFares> lastRecorded = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_SEARCHES)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+    private final LongAdder unchanged = new LongAdder();
+    private volatile FareIndex index = new FareIndex();
+    private FareObservationStore store;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            ready = true;
+            return;
+        }
+        try {
+            store = new FareObservationStore(file, maxRecords);
+        } catch (IOException e) {
+            log.warn("Fare observations disabled, could not open {}: {}", file, e.getMessage());
+            ready = true;
+            return;
+        }
+
+        long stored = store.end();
+        FareIndex initial = index;
+        Thread loader = new Thread(() -> {
+            long start = System.nanoTime();
+            store.forEach(0, stored, retained(initial));
+            ready = true;
+            log.info("Indexed {} fare observations in {} ms", initial.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }, "fare-index-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the observations the store still holds and that are within the
+     * retention period. Observations recorded while it runs are added before the new index
+     * replaces the old one.
+     */
+    @Scheduled(fixedDelayString = "${fares.rebuild-interval:PT6H}", initialDelayString = "${fares.rebuild-interval:PT6H}")
+    public void rebuildIndex() {
+        if (store == null || !ready) {
+            return;
+        }
+        long start = System.nanoTime();
+        FareIndex rebuilt = new FareIndex();
+        long end = store.end();
+        store.forEach(0, end, retained(rebuilt));
+        synchronized (this) {
+            store.forEach(end, store.end(), retained(rebuilt));
+            index = rebuilt;
+        }
+        log.info("Rebuilt the fare index with {} observations in {} ms",
+                rebuilt.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Records the offers of a search just fetched from Amadeus. Never fails the search.
+     */
+    public void record(FlightSearchKey key, SearchResult searchResult) {
+        if (store == null || key.getReturnDate() != null
+                || !FareObservation.isPackable(key.getOrigin()) || !FareObservation.isPackable(key.getDestination())
+                || !FareObservation.isPackable(key.getCurrency())) {
+            return;
+        }
+
+        int route = FareObservation.route(key.getOrigin(), key.getDestination());
+        int currency = FareObservation.pack(key.getCurrency());
+        int departureDay = (int) key.getDepartureDate().toEpochDay();
+        int observedMinute = (int) TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+        int adults = Math.max(1, key.getAdults());
+
+        try {
+            List<FareObservation> observations = new ArrayList<>(searchResult.size());
+            for (int i = 0; i < searchResult.size(); i++) {
+                OfferSortKeys sortKeys = searchResult.getSortKeys(i);
+                if (sortKeys.price() == Double.MAX_VALUE) {
+                    continue;
+                }
+                observations.add(new FareObservation(route, departureDay, observedMinute,
+                        (int) Math.round(sortKeys.price() * 100 / adults), currency,
+                        carrier(searchResult.getValidatingCarrierAt(i), sortKeys), sortKeys.stops()));
+            }
+
+            RecordedFares fares = new RecordedFares(Math.floorDiv(observedMinute, MINUTES_PER_DAY), fingerprint(observations));
+            if (fares.equals(lastRecorded.asMap().put(key, fares))) {
+                unchanged.increment();
+                return;
+            }
+            synchronized (this) {
+                for (FareObservation observation : observations) {
+                    store.append(observation);
+                    index.add(observation);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not record fare observations for {}: {}", key, e.getMessage());
+        }
+    }
+
+    public FareCalendarResponse calendar(String origin, String destination, String month, String currency) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month must be formatted as yyyy-MM");
+        }
+
+        List<FareCalendarResponse.Fare> days = index.cheapestByDay(route(origin, destination), code(currency), yearMonth).stream()
+                .map(FareObservationService::toFare)
+                .toList();
+
+        FareCalendarResponse response = new FareCalendarResponse();
+        response.setOrigin(origin.toUpperCase(Locale.ROOT));
+        response.setDestination(destination.toUpperCase(Locale.ROOT));
+        response.setCurrency(currency.toUpperCase(Locale.ROOT));
+        response.setMonth(yearMonth.toString());
+        response.setDays(days);
+        response.setCheapest(days.stream().min(Comparator.comparing(FareCalendarResponse.Fare::getPrice)).orElse(null));
+        return response;
+    }
+
+    public FareTrendResponse trend(String origin, String destination, String currency, int days) {
+        if (days < 1 || days > maxTrendDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must be between 1 and " + maxTrendDays);
+        }
+
+        List<FareTrendResponse.Point> points = index.trend(route(origin, destination), code(currency), days, LocalDate.now(ZoneOffset.UTC))
+                .stream()
+                .map(trendPoint -> {
+                    FareTrendResponse.Point point = new FareTrendResponse.Point();
+                    point.setDate(trendPoint.date().toString());
+                    point.setLowestPrice(BigDecimal.valueOf(trendPoint.minPriceCents(), 2));
+                    point.setAveragePrice(BigDecimal.valueOf(trendPoint.averagePriceCents(), 2));
+                    point.setObservations(trendPoint.observations());
+                    return point;
+                })
+                .toList();
+
+        FareTrendResponse response = new FareTrendResponse();
+        response.setOrigin(origin.toUpperCase(Locale.ROOT));
+        response.setDestination(destination.toUpperCase(Locale.ROOT));
+        response.setCurrency(currency.toUpperCase(Locale.ROOT));
+        response.setDays(days);
+        response.setPoints(points);
+        return response;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getStoredCount() {
+        return store != null ? store.size() : 0;
+    }
+
+    public long getOverwrittenCount() {
+        return store != null ? store.start() : 0;
+    }
+
+    public long getUnchangedCount() {
+        return unchanged.sum();
+    }
+
+    public long getIndexedCount() {
+        return index.size();
+    }
+
+    public int getRouteCount() {
+        return index.routeCount();
+    }
+
+    private Consumer<FareObservation> retained(FareIndex target) {
+        int oldestMinute = (int) TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - retention.toMillis());
+        return observation -> {
+            if (observation.observedMinute() >= oldestMinute) {
+                target.add(observation);
+            }
+        };
+    }
+
+    // Observation time is left out, so the same fares fetched again compare equal.
+    private static int fingerprint(List<FareObservation> observations) {
+        int hash = 1;
+        for (FareObservation observation : observations) {
+            hash = 31 * hash + observation.priceCents();
+            hash = 31 * hash + observation.carrier();
+            hash = 31 * hash + observation.stops();
+        }
+        return hash;
+    }
+
+    private static int carrier(String validatingCarrier, OfferSortKeys sortKeys) {
+        if (FareObservation.isPackable(validatingCarrier)) {
+            return FareObservation.pack(validatingCarrier);
+        }
+        return sortKeys.carriers().stream()
+                .filter(FareObservation::isPackable)
+                .sorted()
+                .findFirst()
+                .map(FareObservation::pack)
+                .orElse(0);
+    }
+
+    private static int route(String origin, String destination) {
+        return code(origin) << 16 | code(destination);
+    }
+
+    private static int code(String code) {
+        if (!FareObservation.isPackable(code)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid code: " + code);
+        }
+        return FareObservation.pack(code);
+    }
+
+    private static FareCalendarResponse.Fare toFare(FareObservation observation) {
+        FareCalendarResponse.Fare fare = new FareCalendarResponse.Fare();
+        fare.setDepartureDate(LocalDate.ofEpochDay(observation.departureDay()).toString());
+        fare.setPrice(BigDecimal.valueOf(observation.priceCents(), 2));
+        fare.setCarrier(FareObservation.unpack(observation.carrier()));
+        fare.setStops(observation.stops());
+        fare.setObservedAt(Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(observation.observedMinute())).toString());
+        return fare;
+    }
+
+    private record RecordedFares(int observedDay, int fingerprint) {
+    }
+}
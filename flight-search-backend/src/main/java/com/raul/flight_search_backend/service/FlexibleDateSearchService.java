@@ -0,0 +1,177 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlexibleDateSearchResponse;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * "Cheapest within +/-N days": one search per date in the window, run concurrently on the shared
+ * flexible-search executor, whose size is the upstream budget across all flexible searches.
+ * Each date goes through {@link FlightOfferSearchService#searchFlights(FlightSearchKey)},
+ * so cached dates cost nothing and concurrent identical dates are coalesced.
+ */
+@Service
+public class FlexibleDateSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlexibleDateSearchService.class);
+
+    @Autowired
+    private FlightOfferSearchService flightOfferSearchService;
+
+    @Autowired
+    private SearchResultStore searchResultStore;
+
+    @Autowired
+    @Qualifier("flexibleSearchExecutor")
+    private Executor flexibleSearchExecutor;
+
+    @Value("${flexible-search.max-days:7}")
+    private int maxDays;
+
+    @Value("${flexible-search.timeout:30s}")
+    private Duration timeout;
+
+    /**
+     * Searches every date of the window, giving up on the dates that have not finished within
+     * {@code flexible-search.timeout}; those that have not started yet are not searched at all.
+     *
+     * @throws TaskRejectedException when the flexible-search executor has no room for the window
+     */
+    public FlexibleDateSearchResponse search(FlightSearchKey key, int days) {
+        if (days < 0 || days > maxDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must be between 0 and " + maxDays);
+        }
+
+        Map<FlightSearchKey, CompletableFuture<FlexibleDateSearchResponse.DateOption>> searches = new LinkedHashMap<>();
+        try {
+            for (FlightSearchKey dateKey : dateWindow(key, days, LocalDate.now())) {
+                searches.computeIfAbsent(dateKey, k -> CompletableFuture.supplyAsync(() -> searchDate(k), flexibleSearchExecutor));
+            }
+        } catch (TaskRejectedException e) {
+            cancel(searches);
+            throw e;
+        }
+
+        awaitSearches(searches);
+        // Dates still queued once the timeout has passed would be searched for nobody.
+        cancel(searches);
+
+        List<FlexibleDateSearchResponse.DateOption> calendar = new ArrayList<>();
+        searches.forEach((dateKey, search) -> calendar.add(dateOption(dateKey, search)));
+
+        FlexibleDateSearchResponse response = new FlexibleDateSearchResponse();
+        response.setOrigin(key.getOrigin());
+        response.setDestination(key.getDestination());
+        response.setCurrency(key.getCurrency());
+        response.setCalendar(calendar);
+        response.setCheapest(calendar.stream()
+                .filter(option -> option.getLowestPrice() != null)
+                .min(Comparator.comparingDouble(FlexibleDateSearchResponse.DateOption::getLowestPrice))
+                .orElse(null));
+        return response;
+    }
+
+    /**
+     * Departure dates from {@code days} before to {@code days} after the requested one, skipping
+     * dates in the past. A return date moves with the departure so the trip length stays the same.
+     */
+    static List<FlightSearchKey> dateWindow(FlightSearchKey key, int days, LocalDate today) {
+        List<FlightSearchKey> window = new ArrayList<>();
+        for (int offset = -days; offset <= days; offset++) {
+            LocalDate departure = key.getDepartureDate().plusDays(offset);
+            if (departure.isBefore(today)) {
+                continue;
+            }
+            window.add(key.withDates(departure, key.getReturnDate() != null ? key.getReturnDate().plusDays(offset) : null));
+        }
+        return window;
+    }
+
+    private FlexibleDateSearchResponse.DateOption searchDate(FlightSearchKey key) {
+        SearchResult searchResult = searchResultStore.register(flightOfferSearchService.searchFlights(key));
+
+        FlexibleDateSearchResponse.DateOption option = dateOption(key);
+        option.setSearchId(searchResult.getSearchId());
+        option.setOfferCount(searchResult.size());
+
+        int best = -1;
+        for (int i = 0; i < searchResult.size(); i++) {
+            if (best < 0 || searchResult.getSortKeys(i).price() < searchResult.getSortKeys(best).price()) {
+                best = i;
+            }
+        }
+        if (best >= 0 && searchResult.getSortKeys(best).price() != Double.MAX_VALUE) {
+            option.setLowestPrice(searchResult.getSortKeys(best).price());
+            option.setBestOffer(searchResult.getOfferAt(best));
+        }
+        return option;
+    }
+
+    private FlexibleDateSearchResponse.DateOption dateOption(FlightSearchKey key,
+                                                            CompletableFuture<FlexibleDateSearchResponse.DateOption> search) {
+        if (search.isCancelled()) {
+            FlexibleDateSearchResponse.DateOption option = dateOption(key);
+            option.setError("Timed out");
+            return option;
+        }
+        try {
+            return search.join();
+        } catch (CompletionException e) {
+            return failedDate(key, e.getCause());
+        }
+    }
+
+    private FlexibleDateSearchResponse.DateOption failedDate(FlightSearchKey key, Throwable e) {
+        log.warn("Flexible search failed for {}: {}", key, e.getMessage());
+        FlexibleDateSearchResponse.DateOption option = dateOption(key);
+        option.setError(e.getMessage());
+        return option;
+    }
+
+    private static FlexibleDateSearchResponse.DateOption dateOption(FlightSearchKey key) {
+        FlexibleDateSearchResponse.DateOption option = new FlexibleDateSearchResponse.DateOption();
+        option.setDepartureDate(key.getDepartureDate().toString());
+        option.setReturnDate(key.getReturnDate() != null ? key.getReturnDate().toString() : null);
+        return option;
+    }
+
+    private static void cancel(Map<FlightSearchKey, CompletableFuture<FlexibleDateSearchResponse.DateOption>> searches) {
+        searches.values().forEach(search -> search.cancel(false));
+    }
+
+    private void awaitSearches(Map<FlightSearchKey, CompletableFuture<FlexibleDateSearchResponse.DateOption>> searches) {
+        try {
+            CompletableFuture.allOf(searches.values().toArray(new CompletableFuture[0]))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Flexible search timed out after {} ms", timeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // individual dates already fall back to an error entry
+        }
+    }
+}
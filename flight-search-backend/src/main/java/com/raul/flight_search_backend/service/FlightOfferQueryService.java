@@ -0,0 +1,99 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferQuery;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.OfferSortKeys;
+import com.raul.flight_search_backend.model.SearchResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts, filters and pages a stored search using its precomputed {@link OfferSortKeys},
+ * so paging through results never goes back to Amadeus.
+ */
+@Service
+public class FlightOfferQueryService {
+
+    public FlightOfferSearchResponse query(SearchResult searchResult, FlightOfferQuery query) {
+        if (isEmpty(query)) {
+            return searchResult.getResponse();
+        }
+
+        Predicate<OfferSortKeys> filter = filter(query);
+        Comparator<OfferSortKeys> comparator = comparator(query);
+
+        List<Integer> matches = IntStream.range(0, searchResult.size())
+                .filter(index -> filter.test(searchResult.getSortKeys(index)))
+                .boxed()
+                .sorted(Comparator.comparing(searchResult::getSortKeys, comparator))
+                .toList();
+
+        int size = query.getSize() != null ? Math.max(1, query.getSize()) : Math.max(1, matches.size());
+        int page = query.getPage() != null ? Math.max(1, query.getPage()) : 1;
+        int from = (int) Math.min((long) (page - 1) * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+
+        FlightOfferSearchResponse.Meta meta = new FlightOfferSearchResponse.Meta();
+        meta.setCount(to - from);
+        meta.setLinks(searchResult.getMeta() != null ? searchResult.getMeta().getLinks() : null);
+        meta.setTotalCount(matches.size());
+        meta.setPage(page);
+        meta.setPageSize(size);
+
+        return searchResult.toResponse(matches.subList(from, to), meta);
+    }
+
+    private static Predicate<OfferSortKeys> filter(FlightOfferQuery query) {
+        Predicate<OfferSortKeys> filter = keys -> true;
+
+        if (query.getMaxPrice() != null) {
+            double maxPrice = query.getMaxPrice();
+            filter = filter.and(keys -> keys.price() <= maxPrice);
+        }
+        if (query.getMaxStops() != null) {
+            int maxStops = query.getMaxStops();
+            filter = filter.and(keys -> keys.stops() <= maxStops);
+        }
+        if (query.getCarriers() != null && !query.getCarriers().isEmpty()) {
+            Set<String> carriers = query.getCarriers().stream()
+                    .map(carrier -> carrier.trim().toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            filter = filter.and(keys -> keys.carriers().stream().anyMatch(carriers::contains));
+        }
+
+        return filter;
+    }
+
+    private static Comparator<OfferSortKeys> comparator(FlightOfferQuery query) {
+        String sort = query.getSort() != null ? query.getSort().toLowerCase(Locale.ROOT) : "price";
+
+        Comparator<OfferSortKeys> comparator = switch (sort) {
+            case "price" -> Comparator.comparingDouble(OfferSortKeys::price);
+            case "duration" -> Comparator.comparingLong(OfferSortKeys::durationMinutes);
+            case "departure" -> Comparator.comparingLong(OfferSortKeys::departureEpochSecond);
+            case "stops" -> Comparator.comparingInt(OfferSortKeys::stops);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + query.getSort());
+        };
+
+        if ("desc".equalsIgnoreCase(query.getOrder())) {
+            comparator = comparator.reversed();
+        }
+        return comparator.thenComparingDouble(OfferSortKeys::price);
+    }
+
+    private static boolean isEmpty(FlightOfferQuery query) {
+        return query == null
+                || (query.getSort() == null && query.getMaxPrice() == null && query.getMaxStops() == null
+                && (query.getCarriers() == null || query.getCarriers().isEmpty())
+                && query.getPage() == null && query.getSize() == null);
+    }
+}
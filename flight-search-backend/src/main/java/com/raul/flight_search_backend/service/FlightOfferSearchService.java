@@ -1,138 +1,270 @@
 package com.raul.flight_search_backend.service;
 
-import com.raul.flight_search_backend.dto.CityLocationResponse;
-import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import com.raul.flight_search_backend.config.AmadeusConfig;
 import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.util.InFlightRequestCoalescer;
+import com.raul.flight_search_backend.util.UpstreamCircuitBreaker;
+import com.raul.flight_search_backend.util.UpstreamUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.Map;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 public class FlightOfferSearchService {
 
+    private static final Logger log = LoggerFactory.getLogger(FlightOfferSearchService.class);
+
     @Autowired
     private RestTemplate restTemplate;
 
-    private FlightOfferSearchResponse lastCachedResponse;
-
-    @Cacheable(value = "flightOffersCache", key = "#request")
-    public FlightOfferSearchResponse searchFlights(FlightOfferSearchRequest request) {
-        String referenceUrl = "shopping/flight-offers";
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl("https://test.api.amadeus.com/v2/" + referenceUrl)
-                .queryParam("originLocationCode", request.getOriginLocationCode())
-                .queryParam("destinationLocationCode", request.getDestinationLocationCode())
-                .queryParam("departureDate", request.getDepartureDate())
-                .queryParam("currencyCode", request.getCurrency())
-                .queryParam("adults", request.getAdults())
-                .queryParam("nonStop", request.isNonStop());
-
-        if (request.getReturnDate() != null) {
-            builder.queryParam("returnDate", request.getReturnDate());
-        }
+    @Autowired
+    private LocationEnrichmentService locationEnrichmentService;
 
-        String url = builder.encode().toUriString();
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", "application/vnd.amadeus+json");
+    @Autowired
+    private FlightOfferStreamReader flightOfferStreamReader;
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+    @Autowired
+    private CacheManager cacheManager;
 
-        try {
-            ResponseEntity<FlightOfferSearchResponse> response = restTemplate.exchange(url, HttpMethod.GET, entity, FlightOfferSearchResponse.class);
-            lastCachedResponse = response.getBody();
+    @Autowired
+    private HotSearchTracker hotSearchTracker;
 
-            FlightOfferSearchResponse.Dictionaries detailedDictionaries = appendLocationDetails(lastCachedResponse);
-            cacheDictionaries(detailedDictionaries);
+    @Autowired
+    private FareObservationService fareObservationService;
 
-            return lastCachedResponse;
-        } catch (HttpClientErrorException e) {
-            System.err.println("Error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString());
-            throw new RuntimeException("Failed to fetch data from API: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            throw new RuntimeException("An unexpected error occurred: " + e.getMessage());
-        }
+    @Autowired
+    private UpstreamCircuitBreaker upstreamCircuitBreaker;
+
+    @Autowired
+    private DictionaryRegistry dictionaryRegistry;
+
+    @Autowired
+    @Qualifier("refreshExecutor")
+    private Executor refreshExecutor;
+
+    @Value("${amadeus.api.base_url:https://test.api.amadeus.com/v1/}")
+    private String baseUrl;
+
+    @Value("${cache.flight-offers.refresh-after:10m}")
+    private Duration refreshAfter;
+
+    @Value("${flight-offers.max-offers:250}")
+    private int maxOffers;
+
+    @Value("${flight-offers.drop-amenities:false}")
+    private boolean dropAmenities;
+
+    private final InFlightRequestCoalescer<FlightSearchKey, SearchResult> searchCoalescer = new InFlightRequestCoalescer<>();
+
+    private final Set<FlightSearchKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private volatile long staleBefore;
+
+    public SearchResult searchFlights(FlightSearchKey key) {
+        return searchFlights(key, offer -> { });
     }
 
-    @Cacheable(value = "flightDictionaries", key = "'dictionaries'")
-    public FlightOfferSearchResponse.Dictionaries cacheDictionaries(FlightOfferSearchResponse.Dictionaries dictionaries) {
-        return dictionaries;
+    /**
+     * Stale-while-revalidate: a cached search older than {@code cache.flight-offers.refresh-after}
+     * is still returned at once and refreshed in the background; entries are only dropped after
+     * the additional {@code cache.flight-offers.max-stale}. While Amadeus is unavailable stale
+     * entries keep being served; only searches with nothing cached fail, with a 503.
+     * <p>
+     * When this call has to fetch from Amadeus, each kept offer is handed to {@code onOffer} as
+     * soon as it is parsed. Cached and coalesced searches return without calling {@code onOffer}.
+     */
+    public SearchResult searchFlights(FlightSearchKey key, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer) {
+        hotSearchTracker.record(key);
+
+        SearchResult cached = offersCache().get(key, SearchResult.class);
+        if (cached != null) {
+            if (isStale(cached)) {
+                staleServed.increment();
+                refreshInBackground(key);
+            }
+            return cached;
+        }
+
+        return load(key, onOffer);
     }
 
-    public FlightOfferSearchResponse getCachedResponse() {
-        if (lastCachedResponse == null) {
-            throw new RuntimeException("No cached search results");
+    /**
+     * Re-fetches a search on the refresh executor unless a refresh for it is already running,
+     * or the flight-offers circuit is open and it would fail anyway. Readers keep getting the
+     * current entry until the new one replaces it.
+     */
+    public void refreshInBackground(FlightSearchKey key) {
+        if (upstreamCircuitBreaker.isOpen("flight-offers") || !refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, offer -> { });
+                    refreshes.increment();
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    log.warn("Background refresh failed for {}: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
         }
-        return lastCachedResponse;
     }
 
-    @CacheEvict(value = "flightDictionaries", key = "'dictionaries'")
-    public void evictDictionaryCache() { }
+    /**
+     * Whether the cached entry for {@code key} is missing or will be stale within {@code lead}.
+     * Does not count as a cache access.
+     */
+    public boolean expiresWithin(FlightSearchKey key, Duration lead) {
+        SearchResult cached = peek(key);
+        if (cached == null || cached.getFetchedAt() <= staleBefore) {
+            return true;
+        }
+        return System.currentTimeMillis() - cached.getFetchedAt() >= refreshAfter.minus(lead).toMillis();
+    }
 
-    @CacheEvict(value = "flightOffersCache", allEntries = true)
-    public void evictFlightOffersCache() { }
+    /**
+     * Whether {@code key} would be answered from the offers cache, stale or not, without calling
+     * Amadeus. Does not count as a cache access.
+     */
+    public boolean isCached(FlightSearchKey key) {
+        return peek(key) != null;
+    }
 
-    private FlightOfferSearchResponse.Dictionaries appendLocationDetails(FlightOfferSearchResponse response) {
+    public long getStaleServedCount() {
+        return staleServed.sum();
+    }
 
-        if (response.getDictionaries() == null || response.getDictionaries().getLocations() == null) {
-            return new FlightOfferSearchResponse.Dictionaries();
-        }
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
 
-        Map<String, FlightOfferSearchResponse.Location> locations = response.getDictionaries().getLocations();
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
 
-        locations.forEach((iataCode, location) -> {
-            if (location.getCityName() == null || location.getCountryName() == null) {
-                CityLocationResponse.LocationData detailedLocation = getLocationDetails(iataCode);
+    public int getRefreshingCount() {
+        return refreshing.size();
+    }
 
-                if (detailedLocation != null) {
-                    location.setCityName(detailedLocation.getAddress().getCityName());
-                    location.setCountryName(detailedLocation.getAddress().getCountryName());
-                } else {
-                    System.out.println("Location not found for IATA code: " + iataCode + ".");
-                }
-            }
+    private SearchResult load(FlightSearchKey key, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer) {
+        // Only the caller that runs the fetch stores it; coalesced callers just receive the result.
+        return searchCoalescer.execute(key, () -> {
+            SearchResult searchResult = fetchFlightOffers(key, onOffer);
+            offersCache().put(key, searchResult);
+            return searchResult;
         });
+    }
+
+    private boolean isStale(SearchResult searchResult) {
+        long fetchedAt = searchResult.getFetchedAt();
+        return fetchedAt <= staleBefore || System.currentTimeMillis() - fetchedAt >= refreshAfter.toMillis();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SearchResult peek(FlightSearchKey key) {
+        Object nativeCache = offersCache().getNativeCache();
+        Object value = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().get(key);
+        return value instanceof SearchResult searchResult ? searchResult : null;
+    }
+
+    private Cache offersCache() {
+        return cacheManager.getCache("flightOffersCache");
+    }
 
-        return response.getDictionaries();
+    public InFlightRequestCoalescer<FlightSearchKey, SearchResult> getSearchCoalescer() {
+        return searchCoalescer;
     }
 
-    @Cacheable(value = "locationDetails", key = "#iataCode")
-    private CityLocationResponse.LocationData getLocationDetails(String iataCode) {
-        String locationId = "A" + iataCode;
-        String url = UriComponentsBuilder.fromHttpUrl("https://test.api.amadeus.com/v1/reference-data/locations/" + locationId)
-                .encode().toUriString();
+    private SearchResult fetchFlightOffers(FlightSearchKey key, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUri(AmadeusConfig.apiUrl(baseUrl, AmadeusConfig.FLIGHT_OFFERS_PATH))
+                .queryParam("originLocationCode", key.getOrigin())
+                .queryParam("destinationLocationCode", key.getDestination())
+                .queryParam("departureDate", key.getDepartureDate())
+                .queryParam("currencyCode", key.getCurrency())
+                .queryParam("adults", key.getAdults())
+                .queryParam("nonStop", key.isNonStop())
+                .queryParam("max", maxOffers);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", "application/vnd.amadeus+json");
+        if (key.getReturnDate() != null) {
+            builder.queryParam("returnDate", key.getReturnDate());
+        }
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        String url = builder.encode().toUriString();
+        SearchResult.Builder searchResult = SearchResult.builder(UUID.randomUUID().toString(), dictionaryRegistry).listener(onOffer);
 
         try {
-            ResponseEntity<CityLocationResponse> response = restTemplate.exchange(url, HttpMethod.GET, entity, CityLocationResponse.class);
+            restTemplate.execute(url, HttpMethod.GET,
+                    upstreamRequest -> upstreamRequest.getHeaders().set("Accept", "application/vnd.amadeus+json"),
+                    upstreamResponse -> {
+                        flightOfferStreamReader.read(upstreamResponse.getBody(), searchResult, offerFilter(key), maxOffers, dropAmenities);
+                        return null;
+                    });
 
-            if (response.hasBody() && response.getBody() != null) {
-                return response.getBody().getData();
-            } else {
-                System.out.println("No data found for IATA code: " + iataCode);
-                return null;
-            }
+            locationEnrichmentService.appendLocationDetails(searchResult.getDictionaries());
 
+            SearchResult result = searchResult.build();
+            fareObservationService.record(key, result);
+            return result;
         } catch (HttpClientErrorException e) {
-            System.out.println("404 Error for IATA code: " + iataCode + " - No location found.");
-            return null;
+            log.error("Flight offer search failed: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new RuntimeException("Failed to fetch data from API: " + e.getMessage());
+        } catch (Exception e) {
+            if (UpstreamUnavailableException.isCause(e)) {
+                log.warn("Flight offer search not sent, upstream unavailable: {}", e.getMessage());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Flight search is temporarily unavailable, please retry shortly", e);
+            }
+            log.error("Flight offer search failed: {}", e.getMessage());
+            throw new RuntimeException("An unexpected error occurred: " + e.getMessage());
         }
     }
 
-    public FlightOfferSearchResponse.Dictionaries getCachedDictionaries() {
-        if(lastCachedResponse == null || lastCachedResponse.getDictionaries() == null) {
-            return new FlightOfferSearchResponse.Dictionaries();
-        }
-        return lastCachedResponse.getDictionaries();
+    /**
+     * Applied while parsing: offers that cannot seat the whole party are never kept. This is the
+     * only filter that depends on the search key alone; price, carrier and stop filters belong to
+     * the query and are applied by {@link FlightOfferQueryService} when a stored search is read,
+     * since one cached search serves every query over it.
+     */
+    private static Predicate<FlightOfferSearchResponse.FlightOffer> offerFilter(FlightSearchKey key) {
+        return offer -> offer.getNumberOfBookableSeats() == 0 || offer.getNumberOfBookableSeats() >= key.getAdults();
+    }
+
+    /**
+     * Marks every cached search stale instead of dropping it: each keeps being served, within the
+     * max staleness, while its next request or the hot-search refresher fetches a fresh copy, so
+     * clearing the cache never puts a user back on the full upstream latency.
+     */
+    public void evictFlightOffersCache() {
+        staleBefore = System.currentTimeMillis();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.raul.flight_search_backend.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.SearchResult;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Predicate;
+
+/**
+ * Reads an Amadeus flight-offers payload straight off the response stream. Offers are bound and
+ * compacted one at a time, so memory held per search depends on the offers kept, not on the
+ * payload size. Offers beyond the limit are skipped without binding; every other offer is bound
+ * and then either kept or discarded by the filter, so a rejected offer costs its binding but is
+ * never retained.
+ */
+@Component
+public class FlightOfferStreamReader {
+
+    private final ObjectReader metaReader;
+    private final ObjectReader dictionariesReader;
+    private final ObjectReader offerReader;
+    private final ObjectReader offerWithoutAmenitiesReader;
+
+    public FlightOfferStreamReader(ObjectMapper objectMapper) {
+        this.metaReader = objectMapper.readerFor(FlightOfferSearchResponse.Meta.class);
+        this.dictionariesReader = objectMapper.readerFor(FlightOfferSearchResponse.Dictionaries.class);
+        this.offerReader = objectMapper.readerFor(FlightOfferSearchResponse.FlightOffer.class);
+        this.offerWithoutAmenitiesReader = objectMapper.copy()
+                .addMixIn(FlightOfferSearchResponse.FareDetailsBySegment.class, IgnoreAmenities.class)
+                .readerFor(FlightOfferSearchResponse.FlightOffer.class);
+    }
+
+    public void read(InputStream body,
+                     SearchResult.Builder builder,
+                     Predicate<FlightOfferSearchResponse.FlightOffer> filter,
+                     int maxOffers,
+                     boolean dropAmenities) throws IOException {
+        try (JsonParser parser = offerReader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in the flight offers response");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "meta" -> builder.meta(metaReader.readValue(parser));
+                    case "dictionaries" -> builder.dictionaries(dictionariesReader.readValue(parser));
+                    case "data" -> readOffers(parser, builder, filter, maxOffers, dropAmenities ? offerWithoutAmenitiesReader : offerReader);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (builder.getMeta() != null) {
+            builder.getMeta().setCount(builder.getOfferCount());
+        }
+    }
+
+    private void readOffers(JsonParser parser,
+                            SearchResult.Builder builder,
+                            Predicate<FlightOfferSearchResponse.FlightOffer> filter,
+                            int maxOffers,
+                            ObjectReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (builder.getOfferCount() >= maxOffers) {
+                parser.skipChildren();
+                continue;
+            }
+
+            FlightOfferSearchResponse.FlightOffer offer = reader.readValue(parser);
+            if (filter.test(offer)) {
+                builder.addOffer(offer);
+            }
+        }
+    }
+
+    @JsonIgnoreProperties("amenities")
+    private abstract static class IgnoreAmenities {
+    }
+}
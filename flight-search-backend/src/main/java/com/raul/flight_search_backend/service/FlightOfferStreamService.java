@@ -0,0 +1,153 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.dto.FlightOfferStreamEvent;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a streamed search. The search runs on the streaming executor and hands each offer to a
+ * bounded buffer of its own; the caller drains that buffer to the client on its own thread. A
+ * slow client therefore never holds up the parse, the Amadeus connection or the callers coalesced
+ * onto the fetch: when the buffer fills, the rest of the offers are replayed from the finished
+ * search instead. A client that goes away only stops the sending; the search itself still
+ * completes and is cached.
+ */
+@Service
+public class FlightOfferStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightOfferStreamService.class);
+
+    // Put in a search's buffer once the search has finished, whether it succeeded or not.
+    private static final FlightOfferSearchResponse.FlightOffer END = new FlightOfferSearchResponse.FlightOffer();
+
+    @Autowired
+    private FlightOfferSearchService flightOfferSearchService;
+
+    @Autowired
+    private SearchResultStore searchResultStore;
+
+    @Autowired
+    @Qualifier("streamingExecutor")
+    private AsyncTaskExecutor streamingExecutor;
+
+    @Value("${streaming.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${streaming.timeout:60s}")
+    private Duration timeout;
+
+    /**
+     * Starts the search for {@code key} on the streaming executor; its events are written by
+     * {@link StreamedSearch#drainTo}.
+     *
+     * @throws TaskRejectedException when the streaming executor has no room for the search
+     */
+    public StreamedSearch start(FlightSearchKey key) {
+        StreamedSearch search = new StreamedSearch(key);
+        streamingExecutor.execute(search::run);
+        return search;
+    }
+
+    public final class StreamedSearch {
+
+        private final FlightSearchKey key;
+        private final long deadline = System.nanoTime() + timeout.toNanos();
+        private final BlockingQueue<FlightOfferSearchResponse.FlightOffer> buffer = new ArrayBlockingQueue<>(bufferSize + 1);
+        private final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+
+        // Written by the search only, and read by the drain once it has taken END.
+        private int buffered;
+        private boolean overflowed;
+
+        private StreamedSearch(FlightSearchKey key) {
+            this.key = key;
+        }
+
+        private void run() {
+            try {
+                result.complete(searchResultStore.register(flightOfferSearchService.searchFlights(key, this::onOffer)));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                result.completeExceptionally(new IllegalStateException("The search ended without a result"));
+                buffer.add(END);
+            }
+        }
+
+        // Offers arrive in search order, so once one is dropped every later one is too and the
+        // first `buffered` offers of the finished search are exactly the ones already buffered.
+        private void onOffer(FlightOfferSearchResponse.FlightOffer offer) {
+            if (!overflowed && buffer.size() < bufferSize) {
+                buffer.add(offer);
+                buffered++;
+            } else {
+                overflowed = true;
+            }
+        }
+
+        /**
+         * Sends the search's offers, then a {@code complete} event, or an {@code error} event if
+         * the search fails or does not finish within {@code streaming.timeout}. Returns early,
+         * without failing, once a send throws.
+         */
+        public void drainTo(EventSink sink) {
+            try {
+                FlightOfferSearchResponse.FlightOffer offer;
+                while ((offer = next()) != END) {
+                    if (offer == null) {
+                        log.warn("Streamed search for {} did not finish within {}", key, timeout);
+                        sink.send(FlightOfferStreamEvent.error("The search did not finish in time"));
+                        return;
+                    }
+                    sink.send(FlightOfferStreamEvent.offer(offer));
+                }
+
+                SearchResult searchResult;
+                try {
+                    searchResult = result.join();
+                } catch (CompletionException e) {
+                    log.warn("Streamed search failed for {}: {}", key, e.getCause().getMessage());
+                    sink.send(FlightOfferStreamEvent.error(e.getCause().getMessage()));
+                    return;
+                }
+
+                // Served from the cache, by another caller's fetch, or larger than the buffer:
+                // replay whatever was not buffered.
+                for (int i = buffered; i < searchResult.size(); i++) {
+                    sink.send(FlightOfferStreamEvent.offer(searchResult.getOfferAt(i)));
+                }
+                sink.send(FlightOfferStreamEvent.complete(searchResult.getSearchId(), searchResult.getMeta(), searchResult.getDictionaries()));
+            } catch (IOException e) {
+                log.debug("Streamed search client for {} went away: {}", key, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private FlightOfferSearchResponse.FlightOffer next() throws InterruptedException {
+            return buffer.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EventSink {
+        void send(FlightOfferStreamEvent event) throws IOException;
+    }
+}
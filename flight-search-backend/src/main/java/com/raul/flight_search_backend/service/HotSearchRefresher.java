@@ -0,0 +1,49 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Periodically refreshes the top-N most searched keys before they go stale, so popular routes
+ * keep being served from the cache instead of waiting on Amadeus.
+ */
+@Component
+public class HotSearchRefresher {
+
+    @Autowired
+    private FlightOfferSearchService flightOfferSearchService;
+
+    @Autowired
+    private HotSearchTracker hotSearchTracker;
+
+    @Value("${cache.flight-offers.hot-refresh.top-n:50}")
+    private int topN;
+
+    @Value("${cache.flight-offers.hot-refresh.interval:PT60S}")
+    private Duration interval;
+
+    // @Scheduled only parses milliseconds or ISO-8601, so the interval is written as PT60S, not 60s.
+    @Scheduled(fixedDelayString = "${cache.flight-offers.hot-refresh.interval:PT60S}",
+            initialDelayString = "${cache.flight-offers.hot-refresh.interval:PT60S}")
+    public void refreshHotSearches() {
+        LocalDate today = LocalDate.now();
+
+        for (FlightSearchKey key : hotSearchTracker.top(topN).keySet()) {
+            if (key.getDepartureDate().isBefore(today)) {
+                continue;
+            }
+            // One interval of lead time: the entry is refreshed before the next run would find it stale.
+            if (flightOfferSearchService.expiresWithin(key, interval)) {
+                flightOfferSearchService.refreshInBackground(key);
+            }
+        }
+
+        hotSearchTracker.decay();
+    }
+}
@@ -0,0 +1,61 @@
+package com.raul.flight_search_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts searches per key so the most popular route/date combinations can be refreshed ahead of
+ * expiry. Counts are halved on every {@link #decay()}, so popularity follows recent traffic.
+ */
+@Component
+public class HotSearchTracker {
+
+    @Value("${cache.flight-offers.hot-tracking.max-keys:10000}")
+    private long maxKeys;
+
+    private Cache<FlightSearchKey, LongAdder> counts;
+
+    @PostConstruct
+    public void init() {
+        counts = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    public void record(FlightSearchKey key) {
+        counts.get(key, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * The {@code n} most searched keys with their counts, most searched first.
+     */
+    public Map<FlightSearchKey, Long> top(int n) {
+        Map<FlightSearchKey, Long> top = new LinkedHashMap<>();
+        counts.asMap().entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<FlightSearchKey, Long>comparingByValue().reversed())
+                .limit(n)
+                .forEachOrdered(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    public void decay() {
+        counts.asMap().forEach((key, count) -> {
+            long halved = count.sumThenReset() / 2;
+            if (halved == 0) {
+                counts.invalidate(key);
+            } else {
+                count.add(halved);
+            }
+        });
+    }
+}
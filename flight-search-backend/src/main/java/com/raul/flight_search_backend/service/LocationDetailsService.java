@@ -0,0 +1,63 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.config.AmadeusConfig;
+import com.raul.flight_search_backend.dto.CityLocationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+@Service
+public class LocationDetailsService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationDetailsService.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${amadeus.api.base_url:https://test.api.amadeus.com/v1/}")
+    private String baseUrl;
+
+    /**
+     * Looks up an airport by IATA code. A 404 is returned as {@code null} and cached like any
+     * other result, so unknown codes are not requested again until the entry expires.
+     */
+    @Cacheable(value = "locationDetails", key = "#iataCode")
+    public CityLocationResponse.LocationData getLocationDetails(String iataCode) {
+        String locationId = "A" + iataCode;
+        String url = UriComponentsBuilder.fromUri(AmadeusConfig.apiUrl(baseUrl, AmadeusConfig.LOCATIONS_PATH))
+                .pathSegment(locationId)
+                .encode().toUriString();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", "application/vnd.amadeus+json");
+
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        try {
+            ResponseEntity<CityLocationResponse> response = restTemplate.exchange(url, HttpMethod.GET, entity, CityLocationResponse.class);
+
+            if (response.hasBody() && response.getBody() != null) {
+                return response.getBody().getData();
+            } else {
+                log.debug("No data found for IATA code {}", iataCode);
+                return null;
+            }
+
+        } catch (HttpClientErrorException.NotFound e) {
+            log.debug("No location found for IATA code {}", iataCode);
+            return null;
+        } catch (HttpClientErrorException e) {
+            throw new RuntimeException("Failed to fetch location " + iataCode + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.CityLocationResponse;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.util.InFlightRequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class LocationEnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationEnrichmentService.class);
+
+    @Autowired
+    private LocationDetailsService locationDetailsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DictionaryRegistry dictionaryRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("enrichmentExecutor")
+    private Executor enrichmentExecutor;
+
+    @Value("${enrichment.timeout:5s}")
+    private Duration enrichmentTimeout;
+
+    private final InFlightRequestCoalescer<String, CityLocationResponse.LocationData> lookupCoalescer = new InFlightRequestCoalescer<>();
+
+    /**
+     * Fills in missing city and country names. Codes already enriched in the dictionary registry
+     * or the location cache are resolved inline; the rest are looked up concurrently, so the
+     * search waits for the slowest lookup rather than their sum.
+     */
+    public FlightOfferSearchResponse.Dictionaries appendLocationDetails(FlightOfferSearchResponse.Dictionaries dictionaries) {
+
+        if (dictionaries == null || dictionaries.getLocations() == null) {
+            return new FlightOfferSearchResponse.Dictionaries();
+        }
+
+        Map<String, FlightOfferSearchResponse.Location> locations = dictionaries.getLocations();
+        Cache locationCache = cacheManager.getCache("locationDetails");
+        Map<String, CompletableFuture<CityLocationResponse.LocationData>> lookups = new HashMap<>();
+        int[] cachedLookups = new int[1];
+
+        locations.forEach((iataCode, location) -> {
+            if (location.getCityName() != null && location.getCountryName() != null) {
+                return;
+            }
+
+            FlightOfferSearchResponse.Location known = dictionaryRegistry.getLocation(iataCode);
+            if (known != null && known.getCityName() != null && known.getCountryName() != null) {
+                cachedLookups[0]++;
+                location.setCityName(known.getCityName());
+                location.setCountryName(known.getCountryName());
+                return;
+            }
+
+            Cache.ValueWrapper cached = locationCache != null ? locationCache.get(iataCode) : null;
+            if (cached != null) {
+                cachedLookups[0]++;
+                applyLocationDetails(iataCode, location, (CityLocationResponse.LocationData) cached.get());
+                return;
+            }
+
+            lookups.put(iataCode, CompletableFuture
+                    .supplyAsync(() -> lookupCoalescer.execute(iataCode, () -> locationDetailsService.getLocationDetails(iataCode)), enrichmentExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Location lookup failed for IATA code {}: {}", iataCode, e.getMessage());
+                        return null;
+                    }));
+        });
+
+        meterRegistry.summary("enrichment.lookups", "source", "cache").record(cachedLookups[0]);
+        meterRegistry.summary("enrichment.lookups", "source", "upstream").record(lookups.size());
+
+        awaitLookups(lookups);
+
+        lookups.forEach((iataCode, lookup) -> applyLocationDetails(iataCode, locations.get(iataCode), lookup.getNow(null)));
+
+        return dictionaries;
+    }
+
+    private void awaitLookups(Map<String, CompletableFuture<CityLocationResponse.LocationData>> lookups) {
+        if (lookups.isEmpty()) {
+            return;
+        }
+
+        try {
+            CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0]))
+                    .get(enrichmentTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Location enrichment timed out after {} ms", enrichmentTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // individual lookups already fall back to null
+        }
+    }
+
+    private void applyLocationDetails(String iataCode,
+                                      FlightOfferSearchResponse.Location location,
+                                      CityLocationResponse.LocationData detailedLocation) {
+        if (detailedLocation != null && detailedLocation.getAddress() != null) {
+            location.setCityName(detailedLocation.getAddress().getCityName());
+            location.setCountryName(detailedLocation.getAddress().getCountryName());
+        } else {
+            log.debug("Location not found for IATA code {}", iataCode);
+        }
+    }
+
+    public InFlightRequestCoalescer<String, CityLocationResponse.LocationData> getLookupCoalescer() {
+        return lookupCoalescer;
+    }
+}
@@ -0,0 +1,70 @@
+package com.raul.flight_search_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raul.flight_search_backend.model.SerializedResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Serialized (and gzipped) response bodies for views of a stored search: a sorted page, an
+ * offer's details, the dictionaries. A search id names one immutable result, since a refresh
+ * gets a new id, so a view's bytes never change and repeat requests skip Jackson entirely.
+ */
+@Component
+public class ResponseBytesCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${response-cache.max-weight-bytes:33554432}")
+    private long maxWeightBytes;
+
+    @Value("${response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    @Value("${search-results.ttl:30m}")
+    private Duration ttl;
+
+    private Cache<Key, SerializedResponse> responses;
+
+    @PostConstruct
+    public void init() {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Key key, SerializedResponse response) -> (int) Math.min(Integer.MAX_VALUE, response.estimatedBytes()))
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached bytes for {@code view} of {@code searchId} with the given parameters,
+     * serializing {@code body} on a miss. Exceptions from {@code body} propagate and nothing is cached.
+     */
+    public SerializedResponse get(String searchId, String view, Object params, Supplier<?> body) {
+        return responses.get(new Key(searchId, view, params), key -> serialize(body.get()));
+    }
+
+    public Cache<?, SerializedResponse> getResponses() {
+        return responses;
+    }
+
+    private SerializedResponse serialize(Object body) {
+        try {
+            return SerializedResponse.of(objectMapper.writeValueAsBytes(body), gzipMinBytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response: " + e.getMessage(), e);
+        }
+    }
+
+    private record Key(String searchId, String view, Object params) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.raul.flight_search_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raul.flight_search_backend.model.SearchResult;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Bounded, expiring store of search results keyed by search id. Replaces the single shared
+ * "last response" so every user reads details from their own search.
+ */
+@Component
+public class SearchResultStore {
+
+    @Value("${search-results.max-size:1000}")
+    private long maxSize;
+
+    @Value("${search-results.ttl:30m}")
+    private Duration ttl;
+
+    private Cache<String, SearchResult> results;
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Stores the result under its search id. Results served from the offers cache are the same
+     * instance, so the store and the cache share one copy.
+     */
+    public SearchResult register(SearchResult searchResult) {
+        return results.get(searchResult.getSearchId(), searchId -> searchResult);
+    }
+
+    public SearchResult get(String searchId) {
+        SearchResult result = results.getIfPresent(searchId);
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Search results expired or not found: " + searchId);
+        }
+        return result;
+    }
+
+    /**
+     * Whether {@code searchId} is still stored. Does not count as an access.
+     */
+    public boolean contains(String searchId) {
+        return searchId != null && results.asMap().containsKey(searchId);
+    }
+
+    public Cache<String, SearchResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,347 @@
+package com.raul.flight_search_backend.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only key/value log on local disk. Each record is
+ * {@code [int keyLength][long writtenAt][int valueLength][key][value]}; the last record for a key
+ * wins, a value length of {@value #TOMBSTONE} deletes it and {@value #NULL_VALUE} stores a null.
+ * <p>
+ * Opening is lazy: the offset index is rebuilt on a background thread and reads simply miss
+ * until it is ready, so startup never waits on the file. A torn record at the end (from a crash
+ * mid-write) is truncated. Whenever most of the file is dead records (overwritten or deleted),
+ * whether found while loading or left by an append, the file is compacted; reads wait for the
+ * swap rather than see a half-replaced file.
+ * <p>
+ * If the load fails the store stays unavailable until it is reopened: reads miss, and writes,
+ * deletes and clears leave the file alone and throw, so nothing is appended at a guessed offset.
+ */
+public class AppendOnlyFileStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AppendOnlyFileStore.class);
+
+    public static final int TOMBSTONE = -1;
+    public static final int NULL_VALUE = -2;
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final long COMPACTION_MIN_BYTES = 1 << 20;
+
+    private final Path file;
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    private final Map<String, Long> recordBytes = new HashMap<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile FileChannel channel;
+    private volatile boolean ready;
+    private volatile boolean closed;
+    private long end;
+    private long liveBytes;
+    private volatile long compactions;
+
+    public AppendOnlyFileStore(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = open(file);
+
+        Thread loader = new Thread(this::load, "disk-cache-load-" + file.getFileName());
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * The latest record for {@code key}, or null if there is none or the index is still loading.
+     */
+    public Record read(String key) throws IOException {
+        if (!ready) {
+            return null;
+        }
+        swapLock.readLock().lock();
+        try {
+            Long offset = offsets.get(key);
+            if (offset == null) {
+                return null;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, offset);
+            int keyLength = header.getInt(0);
+            long writtenAt = header.getLong(Integer.BYTES);
+            int valueLength = header.getInt(Integer.BYTES + Long.BYTES);
+
+            if (valueLength == NULL_VALUE) {
+                return new Record(writtenAt, null);
+            }
+            ByteBuffer value = ByteBuffer.allocate(valueLength);
+            readFully(channel, value, offset + HEADER_BYTES + keyLength);
+            return new Record(writtenAt, value.array());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void write(String key, byte[] value) throws IOException {
+        append(key, value, value == null ? NULL_VALUE : value.length);
+    }
+
+    public void delete(String key) throws IOException {
+        append(key, null, TOMBSTONE);
+    }
+
+    public void clear() throws IOException {
+        awaitLoaded();
+        synchronized (this) {
+            swapLock.writeLock().lock();
+            try {
+                channel.truncate(0);
+                offsets.clear();
+                recordBytes.clear();
+                end = 0;
+                liveBytes = 0;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * Closes the file; a load still running finishes first, one not yet started is skipped.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        ready = false;
+        swapLock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    // Waits for the load outside the monitor, which the load itself needs.
+    private void append(String key, byte[] value, int valueLength) throws IOException {
+        awaitLoaded();
+        synchronized (this) {
+            long offset = end;
+            long length = writeRecord(channel, end, key, value, valueLength);
+            end += length;
+            track(key, valueLength == TOMBSTONE ? null : offset, length);
+
+            if (shouldCompact()) {
+                compact();
+            }
+        }
+    }
+
+    // Keeps the offset index and the count of live bytes in step with a record just appended or read.
+    private void track(String key, Long offset, long length) {
+        Long previous = recordBytes.remove(key);
+        liveBytes -= previous != null ? previous : 0;
+        if (offset == null) {
+            offsets.remove(key);
+        } else {
+            offsets.put(key, offset);
+            recordBytes.put(key, length);
+            liveBytes += length;
+        }
+    }
+
+    private boolean shouldCompact() {
+        return end > COMPACTION_MIN_BYTES && liveBytes < end / 2;
+    }
+
+    private void load() {
+        try {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                long size = channel.size();
+                long position = 0;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (position + HEADER_BYTES <= size) {
+                    header.clear();
+                    readFully(channel, header, position);
+                    int keyLength = header.getInt(0);
+                    int valueLength = header.getInt(Integer.BYTES + Long.BYTES);
+                    long recordLength = HEADER_BYTES + (long) keyLength + Math.max(valueLength, 0);
+                    if (keyLength <= 0 || valueLength < NULL_VALUE || position + recordLength > size) {
+                        break;
+                    }
+
+                    ByteBuffer keyBytes = ByteBuffer.allocate(keyLength);
+                    readFully(channel, keyBytes, position + HEADER_BYTES);
+                    String key = new String(keyBytes.array(), StandardCharsets.UTF_8);
+
+                    track(key, valueLength == TOMBSTONE ? null : position, recordLength);
+                    position += recordLength;
+                }
+
+                if (position < size) {
+                    log.warn("Truncating torn record at offset {} in {}", position, file);
+                    channel.truncate(position);
+                }
+                end = position;
+
+                if (shouldCompact()) {
+                    compact();
+                }
+            }
+            ready = true;
+        } catch (IOException e) {
+            discardIndex();
+            if (!closed) {
+                log.error("Could not load disk cache {}; it stays unavailable until restarted: {}", file, e.getMessage());
+            }
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    // Drops whatever a failed load had indexed, so the store reports no entries.
+    private synchronized void discardIndex() {
+        offsets.clear();
+        recordBytes.clear();
+        end = 0;
+        liveBytes = 0;
+    }
+
+    /**
+     * Rewrites only the live records into a new file and swaps it in. Called with the store's
+     * monitor held, so no write interleaves; reads wait on the swap lock until it is done.
+     */
+    private void compact() throws IOException {
+        swapLock.writeLock().lock();
+        try {
+            rewriteLiveRecords();
+            compactions++;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void rewriteLiveRecords() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Map<String, Long> compactedOffsets = new ConcurrentHashMap<>();
+        long position = 0;
+
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                readFully(channel, header, entry.getValue());
+                int keyLength = header.getInt(0);
+                long writtenAt = header.getLong(Integer.BYTES);
+                int valueLength = header.getInt(Integer.BYTES + Long.BYTES);
+
+                byte[] value = null;
+                if (valueLength >= 0) {
+                    ByteBuffer valueBytes = ByteBuffer.allocate(valueLength);
+                    readFully(channel, valueBytes, entry.getValue() + HEADER_BYTES + keyLength);
+                    value = valueBytes.array();
+                }
+
+                compactedOffsets.put(entry.getKey(), position);
+                position += writeRecord(target, position, entry.getKey(), value, valueLength, writtenAt);
+            }
+            target.force(true);
+        }
+
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Still the old file, and the old offsets, if the move failed.
+            channel = open(file);
+        }
+        offsets.clear();
+        offsets.putAll(compactedOffsets);
+        end = position;
+        liveBytes = position;
+    }
+
+    private void awaitLoaded() throws IOException {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file, e);
+        }
+        if (!ready) {
+            throw new IOException("Disk cache " + file + " did not load; nothing is written to it");
+        }
+    }
+
+    private static long writeRecord(FileChannel target, long position, String key, byte[] value, int valueLength)
+            throws IOException {
+        return writeRecord(target, position, key, value, valueLength, System.currentTimeMillis());
+    }
+
+    private static long writeRecord(FileChannel target, long position, String key, byte[] value, int valueLength,
+                                    long writtenAt) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueBytes = value != null ? value.length : 0;
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + valueBytes);
+        record.putInt(keyBytes.length).putLong(writtenAt).putInt(valueLength).put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+        record.flip();
+
+        long written = 0;
+        while (record.hasRemaining()) {
+            written += target.write(record, position + written);
+        }
+        return written;
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of disk cache file");
+            }
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @param writtenAt epoch milliseconds the record was written
+     * @param value     the stored bytes, or null for a stored null
+     */
+    public record Record(long writtenAt, byte[] value) {
+    }
+}
@@ -0,0 +1,218 @@
+package com.raul.flight_search_backend.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier cache: the in-memory delegate in front of an {@link AppendOnlyFileStore}. Every put and
+ * explicit eviction is also appended to disk, so a restart starts warm. Entries the delegate drops
+ * on its own (size or expiry) stay on disk: a memory miss is answered from disk while the record
+ * is younger than {@code ttl}, and promoted back into memory for the rest of that ttl only when
+ * the delegate is a Caffeine cache with variable expiry; otherwise it gets the delegate's own.
+ * <p>
+ * Values are stored as Smile (binary JSON) of {@code valueType}, keys as their string form.
+ * The disk tier is best effort: an I/O failure is logged and treated as a miss.
+ */
+public class DiskBackedCache implements Cache, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskBackedCache.class);
+
+    private final Cache delegate;
+    private final AppendOnlyFileStore store;
+    private final ObjectMapper smileMapper;
+    private final Class<?> valueType;
+    private final Duration ttl;
+
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskMisses = new LongAdder();
+    private final LongAdder diskWrites = new LongAdder();
+    private final LongAdder diskErrors = new LongAdder();
+
+    public DiskBackedCache(Cache delegate, AppendOnlyFileStore store, ObjectMapper smileMapper,
+                           Class<?> valueType, Duration ttl) {
+        this.delegate = delegate;
+        this.store = store;
+        this.smileMapper = smileMapper;
+        this.valueType = valueType;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return loadFromDisk(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        if (cached == null || cached.get() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(cached.get())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + cached.get());
+        }
+        return (T) cached.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        return delegate.get(key, () -> {
+            T value = valueLoader.call();
+            writeToDisk(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        writeToDisk(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        deleteFromDisk(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        deleteFromDisk(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        try {
+            store.clear();
+        } catch (IOException e) {
+            diskErrors.increment();
+            log.warn("Could not clear disk cache {}: {}", getName(), e.getMessage());
+        }
+    }
+
+    public boolean isDiskReady() {
+        return store.isReady();
+    }
+
+    public int getDiskEntries() {
+        return store.size();
+    }
+
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    public long getDiskMisses() {
+        return diskMisses.sum();
+    }
+
+    public long getDiskWrites() {
+        return diskWrites.sum();
+    }
+
+    public long getDiskErrors() {
+        return diskErrors.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private ValueWrapper loadFromDisk(Object key) {
+        try {
+            AppendOnlyFileStore.Record record = store.read(key.toString());
+            long remainingMillis = record != null ? ttl.toMillis() - (System.currentTimeMillis() - record.writtenAt()) : 0;
+            if (remainingMillis <= 0) {
+                diskMisses.increment();
+                return null;
+            }
+
+            Object value = record.value() != null ? smileMapper.readValue(record.value(), valueType) : null;
+            promote(key, value, Duration.ofMillis(remainingMillis));
+            diskHits.increment();
+            return delegate.get(key);
+        } catch (IOException e) {
+            diskErrors.increment();
+            log.warn("Could not read {} from disk cache {}: {}", key, getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    // A disk hit must not outlive the record's ttl, so it goes back into memory for what is left of it.
+    @SuppressWarnings("unchecked")
+    private void promote(Object key, Object value, Duration remaining) {
+        if (delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            Optional<Policy.VarExpiration<Object, Object>> expiration =
+                    ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).policy().expireVariably();
+            if (expiration.isPresent()) {
+                expiration.get().put(key, value != null ? value : NullValue.INSTANCE, remaining);
+                return;
+            }
+        }
+        delegate.put(key, value);
+    }
+
+    private void writeToDisk(Object key, Object value) {
+        try {
+            store.write(key.toString(), value != null ? smileMapper.writeValueAsBytes(value) : null);
+            diskWrites.increment();
+        } catch (IOException e) {
+            diskErrors.increment();
+            log.warn("Could not write {} to disk cache {}: {}", key, getName(), e.getMessage());
+        }
+    }
+
+    private void deleteFromDisk(Object key) {
+        try {
+            store.delete(key.toString());
+        } catch (IOException e) {
+            diskErrors.increment();
+            log.warn("Could not delete {} from disk cache {}: {}", key, getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.raul.flight_search_backend.util;
+
+import com.raul.flight_search_backend.model.FareObservation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Ring buffer of {@link FareObservation}s in a file of fixed {@value #RECORD_BYTES}-byte records,
+ * memory-mapped in segments of {@value #RECORDS_PER_SEGMENT} records. It keeps the most recent
+ * {@code capacity} observations: once full, each append overwrites the oldest one. Records are
+ * addressed by sequence number, the position in the order they were appended since the file was
+ * created.
+ * <p>
+ * The header holds the number of records ever appended and is only advanced after a record is
+ * fully written, and the file has one slot more than the capacity, so the slot being written is
+ * never part of the retained window. If the process dies mid-append that record is lost rather
+ * than left torn; an OS crash or power loss can still lose or tear anything not yet flushed.
+ * <p>
+ * Record layout: {@code [int route][int departureDay][int observedMinute][int priceCents]
+ * [short currency][short carrier][byte stops][3 bytes padding]}. The capacity is fixed when the
+ * file is created.
+ */
+public class FareObservationStore implements Closeable {
+
+    public static final int RECORD_BYTES = 24;
+    public static final int RECORDS_PER_SEGMENT = 1 << 18;
+
+    private static final int MAGIC = 0x46415245;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int COUNT_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final long capacity;
+    private final long slots;
+    private volatile long count;
+
+    public FareObservationStore(Path file, long capacity) throws IOException {
+        if (capacity < 1 || capacity >= Integer.MAX_VALUE * (long) RECORDS_PER_SEGMENT) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() < HEADER_BYTES;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+        if (created) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(COUNT_OFFSET, 0);
+            header.putLong(CAPACITY_OFFSET, capacity);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getLong(CAPACITY_OFFSET) < 1) {
+            channel.close();
+            throw new IOException("Not a fare observation file (or an unsupported version): " + file);
+        }
+
+        this.capacity = header.getLong(CAPACITY_OFFSET);
+        this.slots = this.capacity + 1;
+        long stored = Math.max(0, header.getLong(COUNT_OFFSET));
+        long available = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        if (stored > slots && available < slots) {
+            channel.close();
+            throw new IOException("Fare observation file is truncated: " + file);
+        }
+        this.count = stored > slots ? stored : Math.min(stored, available);
+        for (long mapped = 0; mapped < Math.min(count, slots); mapped += RECORDS_PER_SEGMENT) {
+            mapNextSegment();
+        }
+    }
+
+    /**
+     * Appends {@code observation}, overwriting the oldest record if the store is full.
+     */
+    public synchronized void append(FareObservation observation) throws IOException {
+        long slot = count % slots;
+        int segment = (int) (slot / RECORDS_PER_SEGMENT);
+        if (segment == segments.size()) {
+            mapNextSegment();
+        }
+
+        MappedByteBuffer buffer = segments.get(segment);
+        int offset = (int) (slot % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        buffer.putInt(offset, observation.route());
+        buffer.putInt(offset + 4, observation.departureDay());
+        buffer.putInt(offset + 8, observation.observedMinute());
+        buffer.putInt(offset + 12, observation.priceCents());
+        buffer.putShort(offset + 16, (short) observation.currency());
+        buffer.putShort(offset + 18, (short) observation.carrier());
+        buffer.put(offset + 20, (byte) Math.min(observation.stops(), Byte.MAX_VALUE));
+
+        count++;
+        header.putLong(COUNT_OFFSET, count);
+    }
+
+    /**
+     * Visits the retained records with sequence numbers in {@code [from, to)}, oldest first.
+     * Safe to call while appending; records overwritten before they are reached are skipped.
+     */
+    public void forEach(long from, long to, Consumer<FareObservation> consumer) {
+        for (long sequence = Math.max(from, start()); sequence < Math.min(to, count); sequence++) {
+            FareObservation observation;
+            synchronized (this) {
+                if (sequence < start()) {
+                    continue;
+                }
+                observation = read(sequence);
+            }
+            consumer.accept(observation);
+        }
+    }
+
+    /**
+     * Sequence number of the oldest retained record.
+     */
+    public long start() {
+        return Math.max(0, count - capacity);
+    }
+
+    /**
+     * Sequence number the next record will get, i.e. the number of records ever appended.
+     */
+    public long end() {
+        return count;
+    }
+
+    /**
+     * Number of retained records.
+     */
+    public long size() {
+        return Math.min(count, capacity);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Flushes mapped pages to disk; the OS does so on its own, this just bounds the loss on a crash.
+     */
+    public synchronized void flush() {
+        segments.forEach(MappedByteBuffer::force);
+        header.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private FareObservation read(long sequence) {
+        long slot = sequence % slots;
+        MappedByteBuffer buffer = segments.get((int) (slot / RECORDS_PER_SEGMENT));
+        int offset = (int) (slot % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+        return new FareObservation(
+                buffer.getInt(offset),
+                buffer.getInt(offset + 4),
+                buffer.getInt(offset + 8),
+                buffer.getInt(offset + 12),
+                buffer.getShort(offset + 16) & 0xFFFF,
+                buffer.getShort(offset + 18) & 0xFFFF,
+                buffer.get(offset + 20));
+    }
+
+    private void mapNextSegment() throws IOException {
+        long position = HEADER_BYTES + (long) segments.size() * RECORDS_PER_SEGMENT * RECORD_BYTES;
+        long records = Math.min(RECORDS_PER_SEGMENT, slots - (long) segments.size() * RECORDS_PER_SEGMENT);
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, records * RECORD_BYTES));
+    }
+}
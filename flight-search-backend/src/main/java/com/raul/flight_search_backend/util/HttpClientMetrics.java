@@ -0,0 +1,34 @@
+package com.raul.flight_search_backend.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters recorded by the pooled HTTP client: time spent acquiring a connection (pool wait
+ * plus connect for new connections) and requests aborted by the total timeout.
+ */
+public class HttpClientMetrics {
+
+    private final Timer acquire;
+    private final Counter totalTimeouts;
+
+    public HttpClientMetrics(MeterRegistry meterRegistry) {
+        this.acquire = Timer.builder("http.client.connection.acquire")
+                .description("Pool wait plus connect for requests to Amadeus")
+                .register(meterRegistry);
+        this.totalTimeouts = Counter.builder("http.client.total.timeouts")
+                .description("Requests to Amadeus aborted by http.client.total-timeout")
+                .register(meterRegistry);
+    }
+
+    public void recordAcquire(long nanos) {
+        acquire.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTotalTimeout() {
+        totalTimeouts.increment();
+    }
+}
@@ -0,0 +1,66 @@
+package com.raul.flight_search_backend.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution: the first caller for a key runs the loader, concurrent callers
+ * for the same key wait on its result instead of starting their own call.
+ */
+public class InFlightRequestCoalescer<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            return await(existing);
+        }
+
+        executedCount.incrementAndGet();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
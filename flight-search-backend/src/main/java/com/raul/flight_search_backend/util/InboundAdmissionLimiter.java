@@ -0,0 +1,289 @@
+package com.raul.flight_search_backend.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for incoming requests, per class of endpoint (a lane). Each lane runs at
+ * most {@code limit} requests at once and queues up to {@code queueCapacity} more; a request
+ * still queued when its queue timeout passes is shed, and so is one arriving at a full queue,
+ * so callers get a fast refusal instead of a slow answer. Lanes are independent: slow searches
+ * cannot hold the permits autocomplete needs.
+ * <p>
+ * Preferred requests (those that can be answered from a cache) are admitted before ordinary
+ * ones, and when the queue is full a preferred request takes the place of the most recently
+ * queued ordinary one.
+ * <p>
+ * The limit follows latency (gradient): short and long moving averages of completed ordinary
+ * requests' latency are kept (preferred ones are answered from a cache, and their speed says
+ * nothing about the load behind the lane), and each completion moves the limit towards
+ * {@code limit * min(1, tolerance * long / short) + sqrt(limit)}, between one and the configured
+ * maximum. While latency stays within {@value #TOLERANCE}x its long-run level the limit grows
+ * back to the maximum; beyond that it shrinks in proportion to the slowdown. Latencies under a
+ * millisecond count as one millisecond.
+ */
+public class InboundAdmissionLimiter {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.01;
+    // Differences below a millisecond are scheduling noise, not load.
+    private static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final Permit UNLIMITED = () -> { };
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public InboundAdmissionLimiter lane(String name, int maxConcurrent, int queueCapacity, Duration queueTimeout) {
+        lanes.put(name, new Lane(maxConcurrent, queueCapacity, queueTimeout));
+        return this;
+    }
+
+    /**
+     * Admits a request to {@code lane}, queueing it for up to the lane's queue timeout. Returns
+     * null if the request was shed; requests to unknown lanes are always admitted.
+     */
+    public Permit acquire(String lane, boolean preferred) throws InterruptedException {
+        Lane target = lanes.get(lane);
+        return target != null ? target.acquire(preferred) : UNLIMITED;
+    }
+
+    public Map<String, Lane> getLanes() {
+        return lanes;
+    }
+
+    public interface Permit extends AutoCloseable {
+
+        /**
+         * Frees the slot and records the request's latency; later calls do nothing.
+         */
+        @Override
+        void close();
+    }
+
+    public static final class Lane {
+
+        private final int maxConcurrent;
+        private final int queueCapacity;
+        private final Duration queueTimeout;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<Waiter> preferredQueue = new ArrayDeque<>();
+        private final Deque<Waiter> ordinaryQueue = new ArrayDeque<>();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private double limit;
+        private int inFlight;
+        private double shortLatencyNanos;
+        private double longLatencyNanos;
+
+        private Lane(int maxConcurrent, int queueCapacity, Duration queueTimeout) {
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+            this.queueTimeout = queueTimeout;
+            this.limit = maxConcurrent;
+        }
+
+        private Permit acquire(boolean preferred) throws InterruptedException {
+            lock.lock();
+            try {
+                if (inFlight < (int) limit && preferredQueue.isEmpty() && (preferred || ordinaryQueue.isEmpty())) {
+                    return admit(preferred);
+                }
+                if (preferredQueue.size() + ordinaryQueue.size() >= queueCapacity) {
+                    if (!preferred || ordinaryQueue.isEmpty()) {
+                        rejected.increment();
+                        return null;
+                    }
+                    Waiter displaced = ordinaryQueue.pollLast();
+                    displaced.shed = true;
+                    displaced.wakeup.signal();
+                }
+
+                Waiter waiter = new Waiter(lock.newCondition());
+                Deque<Waiter> queue = preferred ? preferredQueue : ordinaryQueue;
+                queue.addLast(waiter);
+                long remaining = queueTimeout.toNanos();
+                try {
+                    while (!waiter.admitted && !waiter.shed && remaining > 0) {
+                        remaining = waiter.wakeup.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    if (waiter.admitted) {
+                        inFlight--;
+                        admitQueued();
+                    } else {
+                        queue.remove(waiter);
+                    }
+                    throw e;
+                }
+
+                if (waiter.admitted) {
+                    admitted.increment();
+                    return new LanePermit(preferred);
+                }
+                if (waiter.shed) {
+                    rejected.increment();
+                } else {
+                    queue.remove(waiter);
+                    timedOut.increment();
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Permit admit(boolean preferred) {
+            inFlight++;
+            admitted.increment();
+            return new LanePermit(preferred);
+        }
+
+        private void release(long latencyNanos, boolean preferred) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (!preferred) {
+                    adapt(latencyNanos);
+                }
+                admitQueued();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void adapt(long latencyNanos) {
+            latencyNanos = Math.max(latencyNanos, MIN_LATENCY_NANOS);
+            if (longLatencyNanos == 0) {
+                shortLatencyNanos = latencyNanos;
+                longLatencyNanos = latencyNanos;
+                return;
+            }
+            shortLatencyNanos += (latencyNanos - shortLatencyNanos) * SHORT_WEIGHT;
+            longLatencyNanos += (latencyNanos - longLatencyNanos) * LONG_WEIGHT;
+            // After a slow spell the long average lags behind; let it catch up so the limit recovers.
+            if (longLatencyNanos > 2 * shortLatencyNanos) {
+                longLatencyNanos *= 0.95;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatencyNanos / shortLatencyNanos));
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(1, Math.min(maxConcurrent, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        }
+
+        // Hands free slots to queued requests, preferred ones first, each queue in arrival order.
+        private void admitQueued() {
+            while (inFlight < (int) limit) {
+                Waiter next = preferredQueue.isEmpty() ? ordinaryQueue.pollFirst() : preferredQueue.pollFirst();
+                if (next == null) {
+                    return;
+                }
+                inFlight++;
+                next.admitted = true;
+                next.wakeup.signal();
+            }
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public int getLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getInFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getQueued() {
+            lock.lock();
+            try {
+                return preferredQueue.size() + ordinaryQueue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Short-run average latency of ordinary requests.
+         */
+        public double getLatencyMillis() {
+            lock.lock();
+            try {
+                return shortLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long getAdmitted() {
+            return admitted.sum();
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        public long getTimedOut() {
+            return timedOut.sum();
+        }
+
+        private static final class Waiter {
+
+            private final Condition wakeup;
+            private boolean admitted;
+            private boolean shed;
+
+            private Waiter(Condition wakeup) {
+                this.wakeup = wakeup;
+            }
+        }
+
+        private final class LanePermit implements Permit {
+
+            private final long start = System.nanoTime();
+            private final boolean preferred;
+            private final AtomicBoolean closed = new AtomicBoolean();
+
+            private LanePermit(boolean preferred) {
+                this.preferred = preferred;
+            }
+
+            @Override
+            public void close() {
+                if (closed.compareAndSet(false, true)) {
+                    release(System.nanoTime() - start, preferred);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.raul.flight_search_backend.util;
+
+import org.springframework.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache decorator that counts hits and misses per route, as derived from the key by
+ * {@code routeOf}. At most {@code maxRoutes} routes are tracked; the rest are counted
+ * under {@value #OTHER_ROUTES}.
+ */
+public class RouteStatsCache implements Cache {
+
+    public static final String OTHER_ROUTES = "other";
+
+    private final Cache delegate;
+    private final Function<Object, String> routeOf;
+    private final int maxRoutes;
+    private final Map<String, RouteStats> statsByRoute = new ConcurrentHashMap<>();
+
+    public RouteStatsCache(Cache delegate, Function<Object, String> routeOf, int maxRoutes) {
+        this.delegate = delegate;
+        this.routeOf = routeOf;
+        this.maxRoutes = maxRoutes;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return record(key, delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return record(key, delegate.get(key, type));
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        statsFor(key).record(!loaded[0]);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    public Map<String, RouteStats> getStatsByRoute() {
+        return statsByRoute;
+    }
+
+    private <T> T record(Object key, T value) {
+        statsFor(key).record(value != null);
+        return value;
+    }
+
+    private RouteStats statsFor(Object key) {
+        String route = routeOf.apply(key);
+        RouteStats stats = statsByRoute.get(route);
+        if (stats != null) {
+            return stats;
+        }
+        if (statsByRoute.size() >= maxRoutes) {
+            return statsByRoute.computeIfAbsent(OTHER_ROUTES, k -> new RouteStats());
+        }
+        return statsByRoute.computeIfAbsent(route, k -> new RouteStats());
+    }
+
+    public static final class RouteStats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private void record(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public double getHitRate() {
+            long hitCount = hits.sum();
+            long total = hitCount + misses.sum();
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
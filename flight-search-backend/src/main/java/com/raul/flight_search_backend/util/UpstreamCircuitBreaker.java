@@ -0,0 +1,173 @@
+package com.raul.flight_search_backend.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker per upstream endpoint, matched by URL path prefix. After
+ * {@code failureThreshold} consecutive failures (5xx, 429, I/O errors) the circuit opens and
+ * calls fail at once, without reaching Amadeus, for {@code openDuration}. Then a single probe
+ * call is let through: it closes the circuit if it succeeds and reopens it if it fails.
+ */
+public class UpstreamCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Call UNGUARDED = new Call(null);
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final LongSupplier clock;
+
+    public UpstreamCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    UpstreamCircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    public UpstreamCircuitBreaker circuit(String name, String pathPrefix) {
+        circuits.put(name, new Circuit(pathPrefix));
+        return this;
+    }
+
+    /**
+     * Admits a call to {@code path}, or throws if its circuit is open. The returned call must
+     * be completed with exactly one of {@link Call#succeeded()}, {@link Call#failed()} or
+     * {@link Call#abandoned()}.
+     */
+    public Call attempt(String path) throws UpstreamUnavailableException {
+        for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+            Circuit circuit = entry.getValue();
+            if (path == null || !path.startsWith(circuit.pathPrefix)) {
+                continue;
+            }
+            if (!circuit.admit()) {
+                throw new UpstreamUnavailableException("Circuit open for " + entry.getKey());
+            }
+            return new Call(circuit);
+        }
+        return UNGUARDED;
+    }
+
+    public boolean isOpen(String name) {
+        Circuit circuit = circuits.get(name);
+        return circuit != null && circuit.getState() == State.OPEN;
+    }
+
+    public Map<String, Circuit> getCircuits() {
+        return circuits;
+    }
+
+    public static final class Call {
+
+        private final Circuit circuit;
+
+        private Call(Circuit circuit) {
+            this.circuit = circuit;
+        }
+
+        public void succeeded() {
+            if (circuit != null) {
+                circuit.onSuccess();
+            }
+        }
+
+        public void failed() {
+            if (circuit != null) {
+                circuit.onFailure();
+            }
+        }
+
+        /**
+         * The call never reached upstream (e.g. a local limiter refused it); counts as neither.
+         */
+        public void abandoned() {
+            if (circuit != null) {
+                circuit.onAbandoned();
+            }
+        }
+    }
+
+    public final class Circuit {
+
+        private final String pathPrefix;
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder opened = new LongAdder();
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        private Circuit(String pathPrefix) {
+            this.pathPrefix = pathPrefix;
+        }
+
+        private synchronized boolean admit() {
+            if (state == State.OPEN && clock.getAsLong() - openedAt >= openDuration.toNanos()) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            rejected.increment();
+            return false;
+        }
+
+        // Calls admitted before the circuit opened may still complete; they do not change an open circuit.
+        private synchronized void onSuccess() {
+            probeInFlight = false;
+            if (state != State.OPEN) {
+                consecutiveFailures = 0;
+                state = State.CLOSED;
+            }
+        }
+
+        private synchronized void onFailure() {
+            probeInFlight = false;
+            if (state == State.OPEN) {
+                return;
+            }
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = clock.getAsLong();
+                opened.increment();
+            }
+        }
+
+        private synchronized void onAbandoned() {
+            probeInFlight = false;
+        }
+
+        public synchronized State getState() {
+            if (state == State.OPEN && clock.getAsLong() - openedAt >= openDuration.toNanos()) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+
+        public synchronized int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        public long getOpenedCount() {
+            return opened.sum();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.raul.flight_search_backend.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps how many calls run at once against each upstream endpoint, matched by URL path prefix.
+ * With virtual threads the number of waiting callers is unbounded, so this is what keeps a
+ * burst of searches from turning into a burst of Amadeus requests. Callers that cannot get a
+ * permit within the acquire timeout fail instead of queueing indefinitely.
+ * <p>
+ * The limit adapts (AIMD): a call that reports overload (429, 503, timeout) cuts it by
+ * {@value #BACKOFF_RATIO}, down to one, and every successful call raises it by {@code 1/limit},
+ * so it grows back by about one per limit's worth of calls, up to the configured maximum.
+ */
+public class UpstreamConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.7;
+
+    private static final Permit UNLIMITED = new Permit() {
+        @Override
+        public void overloaded() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Duration acquireTimeout;
+
+    public UpstreamConcurrencyLimiter(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public UpstreamConcurrencyLimiter limit(String name, String pathPrefix, int maxConcurrent) {
+        endpoints.put(name, new Endpoint(pathPrefix, maxConcurrent));
+        return this;
+    }
+
+    public Permit acquire(String path) throws IOException {
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            if (path == null || !path.startsWith(endpoint.pathPrefix)) {
+                continue;
+            }
+
+            try {
+                if (!endpoint.tryAcquire(acquireTimeout.toNanos())) {
+                    endpoint.rejected.increment();
+                    throw new UpstreamUnavailableException("Upstream concurrency limit reached for " + entry.getKey());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for upstream permit for " + entry.getKey(), e);
+            }
+            return endpoint.new EndpointPermit();
+        }
+        return UNLIMITED;
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public interface Permit extends AutoCloseable {
+
+        /**
+         * Marks the call as having hit an overloaded upstream; the limit is cut on close.
+         */
+        void overloaded();
+
+        @Override
+        void close();
+    }
+
+    public static final class Endpoint {
+
+        private final String pathPrefix;
+        private final int maxConcurrent;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Condition released = lock.newCondition();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder backoffs = new LongAdder();
+        private double limit;
+        private int inFlight;
+        private int waiting;
+
+        private Endpoint(String pathPrefix, int maxConcurrent) {
+            this.pathPrefix = pathPrefix;
+            this.maxConcurrent = maxConcurrent;
+            this.limit = maxConcurrent;
+        }
+
+        private boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                long remaining = timeoutNanos;
+                waiting++;
+                try {
+                    while (inFlight >= (int) limit) {
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        remaining = released.awaitNanos(remaining);
+                    }
+                } finally {
+                    waiting--;
+                }
+                inFlight++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(boolean overloaded) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (overloaded) {
+                    limit = Math.max(1, limit * BACKOFF_RATIO);
+                    backoffs.increment();
+                } else {
+                    limit = Math.min(maxConcurrent, limit + 1 / limit);
+                }
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public int getLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getInFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getWaiting() {
+            lock.lock();
+            try {
+                return waiting;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        public long getBackoffs() {
+            return backoffs.sum();
+        }
+
+        private final class EndpointPermit implements Permit {
+
+            private volatile boolean overloaded;
+            private final AtomicBoolean closed = new AtomicBoolean();
+
+            @Override
+            public void overloaded() {
+                overloaded = true;
+            }
+
+            @Override
+            public void close() {
+                if (closed.compareAndSet(false, true)) {
+                    release(overloaded);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.raul.flight_search_backend.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket per upstream endpoint, matched by URL path prefix, so we never send Amadeus more
+ * than its per-second quota. A bucket holds up to one second of tokens. Callers reserve a token
+ * and sleep until it is due; if that would take longer than {@code maxWait} they fail at once.
+ * A 429 pauses the bucket for the Retry-After period, which delays every later caller too.
+ */
+public class UpstreamRateLimiter {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Duration maxWait;
+
+    public UpstreamRateLimiter(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public UpstreamRateLimiter limit(String name, String pathPrefix, double permitsPerSecond) {
+        buckets.put(name, new Bucket(pathPrefix, permitsPerSecond));
+        return this;
+    }
+
+    public void acquire(String path) throws IOException {
+        Map.Entry<String, Bucket> entry = bucketFor(path);
+        if (entry == null) {
+            return;
+        }
+
+        long waitNanos = entry.getValue().reserve(System.nanoTime(), maxWait.toNanos());
+        if (waitNanos < 0) {
+            throw new UpstreamUnavailableException("Upstream rate limit reached for " + entry.getKey());
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for upstream rate permit for " + entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Stops handing out tokens for {@code path}'s endpoint for {@code duration}.
+     */
+    public void pause(String path, Duration duration) {
+        Map.Entry<String, Bucket> entry = bucketFor(path);
+        if (entry != null) {
+            entry.getValue().pause(System.nanoTime(), duration.toNanos());
+        }
+    }
+
+    public Map<String, Bucket> getBuckets() {
+        return buckets;
+    }
+
+    private Map.Entry<String, Bucket> bucketFor(String path) {
+        if (path == null) {
+            return null;
+        }
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            if (path.startsWith(entry.getValue().pathPrefix)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public static final class Bucket {
+
+        private final String pathPrefix;
+        private final double permitsPerSecond;
+        private final double capacity;
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder pauses = new LongAdder();
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private Bucket(String pathPrefix, double permitsPerSecond) {
+            this.pathPrefix = pathPrefix;
+            this.permitsPerSecond = permitsPerSecond;
+            this.capacity = Math.max(1, permitsPerSecond);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Takes a token, letting the balance go negative for callers that will wait for it.
+         * Returns how long to wait, or -1 if that exceeds {@code maxWaitNanos}; nothing is taken then.
+         */
+        synchronized long reserve(long now, long maxWaitNanos) {
+            refill(now);
+            long waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / permitsPerSecond * 1_000_000_000L);
+            waitNanos += Math.max(0, refilledAt - now);
+            if (waitNanos > maxWaitNanos) {
+                rejected.increment();
+                return -1;
+            }
+            tokens -= 1;
+            return waitNanos;
+        }
+
+        synchronized void pause(long now, long durationNanos) {
+            refill(now);
+            tokens = Math.min(tokens, 0);
+            refilledAt = Math.max(refilledAt, now + durationNanos);
+            pauses.increment();
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) / 1_000_000_000.0 * permitsPerSecond);
+                refilledAt = now;
+            }
+        }
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public synchronized double getAvailableTokens() {
+            refill(System.nanoTime());
+            return tokens;
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        public long getPauses() {
+            return pauses.sum();
+        }
+    }
+}
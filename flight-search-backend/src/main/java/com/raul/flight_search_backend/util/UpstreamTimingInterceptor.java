@@ -0,0 +1,62 @@
+package com.raul.flight_search_backend.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Times Amadeus calls as {@value #METRIC_NAME}, tagged by operation, method and status.
+ * The time ends when the response headers arrive; streamed bodies are read after that.
+ */
+public class UpstreamTimingInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC_NAME = "amadeus.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamTimingInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("operation", operationOf(request.getURI().getPath()))
+                    .tag("method", request.getMethod().name())
+                    .tag("status", status)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Maps a request path to a low-cardinality operation name; ids in the path are dropped.
+     */
+    public static String operationOf(String path) {
+        if (path == null) {
+            return "other";
+        }
+        if (path.contains("/shopping/flight-offers")) {
+            return "flight-offers";
+        }
+        if (path.contains("/reference-data/locations")) {
+            return "locations";
+        }
+        if (path.contains("/security/oauth2")) {
+            return "oauth";
+        }
+        return "other";
+    }
+}
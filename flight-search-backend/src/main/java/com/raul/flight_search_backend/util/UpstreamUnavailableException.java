@@ -0,0 +1,31 @@
+package com.raul.flight_search_backend.util;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of calling Amadeus when the client-side guards refuse the call: the circuit
+ * is open, or no rate or concurrency permit was available in time. Nothing was sent upstream.
+ */
+public class UpstreamUnavailableException extends IOException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+
+    public UpstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Whether {@code e} or any of its causes is an {@link UpstreamUnavailableException}; the
+     * RestTemplate wraps it in a {@code ResourceAccessException}.
+     */
+    public static boolean isCause(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UpstreamUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
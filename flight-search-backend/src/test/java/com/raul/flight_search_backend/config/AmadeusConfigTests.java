@@ -0,0 +1,110 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.service.AmadeusTokenManager;
+import com.raul.flight_search_backend.util.UpstreamCircuitBreaker;
+import com.raul.flight_search_backend.util.UpstreamConcurrencyLimiter;
+import com.raul.flight_search_backend.util.UpstreamRateLimiter;
+import com.raul.flight_search_backend.util.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class AmadeusConfigTests {
+
+	private static final String PATH = "/v2/shopping/flight-offers";
+	private static final String URL = "https://test.api.amadeus.com" + PATH;
+
+	private final AtomicInteger tokenRequests = new AtomicInteger();
+	private final UpstreamCircuitBreaker circuitBreaker = new UpstreamCircuitBreaker(1, Duration.ofSeconds(30))
+			.circuit("flight-offers", PATH);
+	private final UpstreamConcurrencyLimiter concurrencyLimiter = new UpstreamConcurrencyLimiter(Duration.ofSeconds(1))
+			.limit("flight-offers", PATH, 4);
+	private final RestTemplate restTemplate = restTemplate();
+	private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+	@Test
+	void aCallRefusedByTheCircuitNeverAsksForAToken() throws Exception {
+		circuitBreaker.attempt(PATH).failed();
+
+		ResourceAccessException e = assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(URL, String.class));
+
+		assertTrue(UpstreamUnavailableException.isCause(e));
+		assertEquals(0, tokenRequests.get());
+	}
+
+	@Test
+	void aSuccessfulCallCarriesTheTokenAndReleasesItsPermit() {
+		server.expect(requestTo(URL))
+				.andExpect(header("Authorization", "Bearer token"))
+				.andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+		assertEquals("{}", restTemplate.getForObject(URL, String.class));
+
+		server.verify();
+		assertEquals(1, tokenRequests.get());
+		assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitBreaker.getCircuits().get("flight-offers").getState());
+		assertEquals(0, concurrencyLimiter.getEndpoints().get("flight-offers").getInFlight());
+	}
+
+	@Test
+	void aBodyThatFailsMidReadCountsAsAFailure() {
+		server.expect(requestTo(URL)).andRespond(withSuccess(new FailingResource(), MediaType.APPLICATION_JSON));
+
+		assertThrows(ResourceAccessException.class, () -> restTemplate.execute(URL, HttpMethod.GET, null,
+				response -> response.getBody().readAllBytes()));
+
+		assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitBreaker.getCircuits().get("flight-offers").getState());
+		assertEquals(0, concurrencyLimiter.getEndpoints().get("flight-offers").getInFlight());
+	}
+
+	private RestTemplate restTemplate() {
+		AmadeusConfig config = new AmadeusConfig();
+		ReflectionTestUtils.setField(config, "amadeusTokenManager", new AmadeusTokenManager() {
+			@Override
+			public String getToken() {
+				tokenRequests.incrementAndGet();
+				return "token";
+			}
+		});
+		ReflectionTestUtils.setField(config, "amadeusRequestFactory", new SimpleClientHttpRequestFactory());
+		ReflectionTestUtils.setField(config, "meterRegistry", new SimpleMeterRegistry());
+		return config.restTemplate(concurrencyLimiter, new UpstreamRateLimiter(Duration.ofSeconds(1)), circuitBreaker);
+	}
+
+	private static final class FailingResource extends AbstractResource {
+
+		@Override
+		public String getDescription() {
+			return "connection reset mid-body";
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new InputStream() {
+				@Override
+				public int read() throws IOException {
+					throw new IOException("Connection reset");
+				}
+			};
+		}
+	}
+}
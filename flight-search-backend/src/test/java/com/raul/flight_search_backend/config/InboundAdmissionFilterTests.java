@@ -0,0 +1,120 @@
+package com.raul.flight_search_backend.config;
+
+import com.raul.flight_search_backend.dto.AirportAndCitySearchRequest;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.service.AirportAndCitySearchService;
+import com.raul.flight_search_backend.service.FlightOfferSearchService;
+import com.raul.flight_search_backend.service.SearchResultStore;
+import com.raul.flight_search_backend.util.InboundAdmissionLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InboundAdmissionFilterTests {
+
+	private static final String SEARCH_QUERY = "origin=JFK&destination=LAX&departureDate=2030-11-10&currency=USD&adults=1";
+
+	private final List<String> admissions = new ArrayList<>();
+	private boolean shed;
+
+	private final InboundAdmissionFilter filter = new InboundAdmissionFilter(new InboundAdmissionLimiter() {
+		@Override
+		public Permit acquire(String lane, boolean preferred) {
+			admissions.add(lane + (preferred ? " preferred" : " ordinary"));
+			return shed ? null : () -> { };
+		}
+	}, new FlightOfferSearchService() {
+		@Override
+		public boolean isCached(FlightSearchKey key) {
+			return key.getOrigin().equals("JFK");
+		}
+	}, new AirportAndCitySearchService() {
+		@Override
+		public boolean canAnswerLocally(AirportAndCitySearchRequest request) {
+			return request.getKeyword().length() >= 3;
+		}
+	}, new SearchResultStore() {
+		@Override
+		public boolean contains(String searchId) {
+			return "stored".equals(searchId);
+		}
+	}, Duration.ofSeconds(2));
+
+	@Test
+	void routesEachEndpointToItsLane() throws Exception {
+		assertPassesThrough(get("/api/flight-offers/search", SEARCH_QUERY));
+		assertPassesThrough(get("/api/flight-offers/search/flexible", SEARCH_QUERY + "&days=3"));
+		assertPassesThrough(get("/api/flight-offers/results/stored", null));
+		assertPassesThrough(get("/api/flight-offers/details/1", "searchId=stored"));
+		assertPassesThrough(get("/api/flight-offers/dictionaries", "searchId=other"));
+		assertPassesThrough(get("/api/airport-and-city/search", "subType=CITY&keyword=LO"));
+
+		assertEquals(List.of("search preferred", "search ordinary", "details preferred", "details preferred",
+				"dictionaries ordinary", "autocomplete ordinary"), admissions);
+	}
+
+	@Test
+	void streamsAndNonGetRequestsAreNotAdmittedHere() throws Exception {
+		assertPassesThrough(get("/api/flight-offers/search/stream", SEARCH_QUERY));
+		assertPassesThrough(get("/api/flight-offers/search/events", SEARCH_QUERY));
+		MockHttpServletRequest post = get("/api/flight-offers/search", SEARCH_QUERY);
+		post.setMethod("POST");
+		assertPassesThrough(post);
+
+		assertTrue(admissions.isEmpty(), admissions.toString());
+	}
+
+	@Test
+	void malformedParametersAreAdmittedAsOrdinary() throws Exception {
+		assertPassesThrough(get("/api/flight-offers/search", "origin=JFK&destination=LAX&departureDate=2030-11-10&currency=USD&adults=two"));
+		assertPassesThrough(get("/api/airport-and-city/search", "subType=CITY&keyword=LON&limit=ten"));
+
+		assertEquals(List.of("search ordinary", "autocomplete ordinary"), admissions);
+	}
+
+	@Test
+	void aShedRequestGets503WithRetryAfter() throws Exception {
+		shed = true;
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(get("/api/flight-offers/search", SEARCH_QUERY), response, chain);
+
+		assertEquals(503, response.getStatus());
+		assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+		assertNull(chain.getRequest());
+	}
+
+	private void assertPassesThrough(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, response, chain);
+
+		assertNotNull(chain.getRequest(), request.getRequestURI());
+		assertEquals(200, response.getStatus());
+	}
+
+	private static MockHttpServletRequest get(String path, String query) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		if (query != null) {
+			request.setQueryString(query);
+			for (String parameter : query.split("&")) {
+				String[] nameAndValue = parameter.split("=", 2);
+				request.addParameter(nameAndValue[0], nameAndValue[1]);
+			}
+		}
+		return request;
+	}
+}
@@ -0,0 +1,160 @@
+package com.raul.flight_search_backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import com.raul.flight_search_backend.service.FlightOfferSearchService;
+import com.raul.flight_search_backend.service.FlightOfferStreamService;
+import com.raul.flight_search_backend.service.ResponseBytesCache;
+import com.raul.flight_search_backend.service.SearchResultStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.stringContainsInOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FlightOfferSearchControllerTests {
+
+	private static final String QUERY = "?origin=JFK&destination=LAX&departureDate=2030-11-10&currency=USD&adults=1";
+
+	private final DictionaryRegistry registry = new DictionaryRegistry(new StringPool());
+	private final SearchResultStore store = store();
+
+	@Test
+	void streamsOffersAsNdjsonLines() throws Exception {
+		MockMvc mockMvc = mockMvc(new SimpleAsyncTaskExecutor("streaming-"));
+
+		MvcResult result = mockMvc.perform(get("/api/flight-offers/search/stream" + QUERY))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(stringContainsInOrder(
+						"{\"type\":\"offer\",\"data\":{", "\"id\":\"1\"", "}}\n",
+						"{\"type\":\"offer\",\"data\":{", "\"id\":\"2\"", "}}\n",
+						"{\"type\":\"complete\",\"data\":{\"searchId\":\"search-1\"", "}}\n")));
+	}
+
+	@Test
+	void streamsOffersAsServerSentEvents() throws Exception {
+		MockMvc mockMvc = mockMvc(new SimpleAsyncTaskExecutor("streaming-"));
+
+		MvcResult result = mockMvc.perform(get("/api/flight-offers/search/events" + QUERY))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(content().string(stringContainsInOrder(
+						"event:offer\ndata:{", "\"id\":\"1\"", "}\n\n",
+						"event:offer\ndata:{", "\"id\":\"2\"", "}\n\n",
+						"event:complete\ndata:{\"searchId\":\"search-1\"", "}\n\n")));
+	}
+
+	@Test
+	void answers503WhenTheStreamingExecutorIsFull() throws Exception {
+		AsyncTaskExecutor full = task -> {
+			throw new TaskRejectedException("Streaming executor is full");
+		};
+
+		mockMvc(full).perform(get("/api/flight-offers/search/stream" + QUERY))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+	}
+
+	@Test
+	void answers304WhenTheClientAlreadyHasTheDetails() throws Exception {
+		MockMvc mockMvc = mockMvc(new SimpleAsyncTaskExecutor("streaming-"));
+		store.register(SearchResult.builder("search-1", registry).addOffer(offer("1")).build());
+
+		String etag = mockMvc.perform(get("/api/flight-offers/details/1?searchId=search-1"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(stringContainsInOrder("\"flightOffer\":{", "\"id\":\"1\"")))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/flight-offers/details/1?searchId=search-1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+
+		mockMvc.perform(get("/api/flight-offers/details/1?searchId=search-1").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void answers404ForAnExpiredSearch() throws Exception {
+		mockMvc(new SimpleAsyncTaskExecutor("streaming-")).perform(get("/api/flight-offers/details/1?searchId=gone"))
+				.andExpect(status().isNotFound());
+	}
+
+	private MockMvc mockMvc(AsyncTaskExecutor streamingExecutor) {
+		ResponseBytesCache responseBytesCache = new ResponseBytesCache();
+		ReflectionTestUtils.setField(responseBytesCache, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(responseBytesCache, "maxWeightBytes", 1L << 20);
+		ReflectionTestUtils.setField(responseBytesCache, "gzipMinBytes", 1024);
+		ReflectionTestUtils.setField(responseBytesCache, "ttl", Duration.ofMinutes(1));
+		responseBytesCache.init();
+
+		FlightOfferStreamService streamService = new FlightOfferStreamService();
+		ReflectionTestUtils.setField(streamService, "flightOfferSearchService", new FlightOfferSearchService() {
+			@Override
+			public SearchResult searchFlights(FlightSearchKey key, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer) {
+				return SearchResult.builder("search-1", registry).listener(onOffer)
+						.addOffer(offer("1"))
+						.addOffer(offer("2"))
+						.build();
+			}
+		});
+		ReflectionTestUtils.setField(streamService, "searchResultStore", store);
+		ReflectionTestUtils.setField(streamService, "streamingExecutor", streamingExecutor);
+		ReflectionTestUtils.setField(streamService, "bufferSize", 64);
+		ReflectionTestUtils.setField(streamService, "timeout", Duration.ofSeconds(5));
+
+		FlightOfferSearchController controller = new FlightOfferSearchController();
+		ReflectionTestUtils.setField(controller, "flightOfferStreamService", streamService);
+		ReflectionTestUtils.setField(controller, "searchResultStore", store);
+		ReflectionTestUtils.setField(controller, "responseBytesCache", responseBytesCache);
+		ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(controller, "retryAfter", Duration.ofSeconds(1));
+		return MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	private static SearchResultStore store() {
+		SearchResultStore store = new SearchResultStore();
+		ReflectionTestUtils.setField(store, "maxSize", 100L);
+		ReflectionTestUtils.setField(store, "ttl", Duration.ofMinutes(1));
+		store.init();
+		return store;
+	}
+
+	private static FlightOfferSearchResponse.FlightOffer offer(String id) {
+		FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+		offer.setId(id);
+		offer.setItineraries(List.of());
+		return offer;
+	}
+}
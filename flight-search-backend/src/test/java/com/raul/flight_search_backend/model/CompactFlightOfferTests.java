@@ -0,0 +1,185 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class CompactFlightOfferTests {
+
+	private final StringPool pool = new StringPool();
+
+	@Test
+	void roundTripsToAnEqualDto() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+
+		assertEquals(offer, CompactFlightOffer.of(offer, pool).toDto());
+	}
+
+	@Test
+	void keepsSegmentsWithoutTimesOrArrival() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+		FlightOfferSearchResponse.Segment segment = offer.getItineraries().get(0).getSegments().get(0);
+		segment.getDeparture().setAt(null);
+		segment.setArrival(null);
+		segment.setDuration(null);
+
+		FlightOfferSearchResponse.Segment restored = CompactFlightOffer.of(offer, pool).toDto().getItineraries().get(0).getSegments().get(0);
+
+		assertNull(restored.getDeparture().getAt());
+		assertEquals("JFK", restored.getDeparture().getIataCode());
+		assertNull(restored.getArrival().getIataCode());
+		assertNull(restored.getArrival().getAt());
+		assertNull(restored.getDuration());
+	}
+
+	@Test
+	void anItineraryWithoutSegmentsComesBackEmpty() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+		offer.getItineraries().get(0).setSegments(null);
+
+		CompactFlightOffer compact = CompactFlightOffer.of(offer, pool);
+
+		assertEquals(List.of(), compact.toDto().getItineraries().get(0).getSegments());
+		compact.forEachSegmentCode((departure, arrival, carrier, operating, aircraft) -> fail("no segments expected"));
+	}
+
+	@Test
+	void malformedValuesAreDroppedInsteadOfFailingTheOffer() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+		offer.getPrice().setTotal("not-a-number");
+		offer.getPrice().setGrandTotal("1e40");
+		offer.setLastTicketingDate("20-10-2024");
+		offer.getItineraries().get(0).getSegments().get(0).getDeparture().setAt("yesterday");
+
+		FlightOfferSearchResponse.FlightOffer restored = assertDoesNotThrow(() -> CompactFlightOffer.of(offer, pool)).toDto();
+
+		assertNull(restored.getPrice().getTotal());
+		assertNull(restored.getPrice().getGrandTotal());
+		assertEquals("201.00", restored.getPrice().getBase());
+		assertNull(restored.getLastTicketingDate());
+		assertNull(restored.getItineraries().get(0).getSegments().get(0).getDeparture().getAt());
+	}
+
+	@Test
+	void highCardinalityValuesAreNotPooled() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+		offer.setId("offer-only-seen-once");
+		offer.getTravelerPricings().get(0).getFareDetailsBySegment().get(0).setFareBasis("FAREBASIS-ONLY-SEEN-ONCE");
+
+		FlightOfferSearchResponse.FlightOffer restored = CompactFlightOffer.of(offer, pool).toDto();
+
+		assertEquals("offer-only-seen-once", restored.getId());
+		assertEquals("FAREBASIS-ONLY-SEEN-ONCE", restored.getTravelerPricings().get(0).getFareDetailsBySegment().get(0).getFareBasis());
+		assertEquals(StringPool.NONE, pool.idOf("offer-only-seen-once"));
+		assertEquals(StringPool.NONE, pool.idOf("FAREBASIS-ONLY-SEEN-ONCE"));
+	}
+
+	@Test
+	void everyDtoGetsItsOwnAmenities() {
+		CompactFlightOffer compact = CompactFlightOffer.of(offer(), pool);
+
+		FlightOfferSearchResponse.Amenities first = compact.toDto().getTravelerPricings().get(0).getFareDetailsBySegment().get(0).getAmenities().get(0);
+		first.setDescription("CHANGED");
+		first.getAmenityProvider().setName("CHANGED");
+
+		FlightOfferSearchResponse.Amenities second = compact.toDto().getTravelerPricings().get(0).getFareDetailsBySegment().get(0).getAmenities().get(0);
+		assertEquals("CHECKED BAG", second.getDescription());
+		assertNotSame(first.getAmenityProvider(), second.getAmenityProvider());
+		assertNotEquals("CHANGED", second.getAmenityProvider().getName());
+	}
+
+	private static FlightOfferSearchResponse.FlightOffer offer() {
+		FlightOfferSearchResponse.Departure departure = new FlightOfferSearchResponse.Departure();
+		departure.setIataCode("JFK");
+		departure.setTerminal("8");
+		departure.setAt("2024-11-01T08:15:00");
+
+		FlightOfferSearchResponse.Arrival arrival = new FlightOfferSearchResponse.Arrival();
+		arrival.setIataCode("LAX");
+		arrival.setAt("2024-11-01T11:40:00");
+
+		FlightOfferSearchResponse.Aircraft aircraft = new FlightOfferSearchResponse.Aircraft();
+		aircraft.setCode("32Q");
+
+		FlightOfferSearchResponse.Operating operating = new FlightOfferSearchResponse.Operating();
+		operating.setCarrierCode("AA");
+
+		FlightOfferSearchResponse.Segment segment = new FlightOfferSearchResponse.Segment();
+		segment.setDeparture(departure);
+		segment.setArrival(arrival);
+		segment.setCarrierCode("AA");
+		segment.setNumber("1");
+		segment.setAircraft(aircraft);
+		segment.setOperating(operating);
+		segment.setDuration("PT6H25M");
+		segment.setId("1");
+
+		FlightOfferSearchResponse.Itinerary itinerary = new FlightOfferSearchResponse.Itinerary();
+		itinerary.setDuration("PT6H25M");
+		itinerary.setSegments(List.of(segment));
+
+		FlightOfferSearchResponse.Fee fee = new FlightOfferSearchResponse.Fee();
+		fee.setAmount("0.00");
+		fee.setType("SUPPLIER");
+
+		FlightOfferSearchResponse.Price price = new FlightOfferSearchResponse.Price();
+		price.setCurrency("USD");
+		price.setTotal("246.70");
+		price.setBase("201.00");
+		price.setGrandTotal("246.70");
+		price.setFees(List.of(fee));
+
+		FlightOfferSearchResponse.PricingOptions pricingOptions = new FlightOfferSearchResponse.PricingOptions();
+		pricingOptions.setFareType(List.of("PUBLISHED"));
+		pricingOptions.setIncludedCheckedBagsOnly(true);
+
+		FlightOfferSearchResponse.IncludedCheckedBags bags = new FlightOfferSearchResponse.IncludedCheckedBags();
+		bags.setQuantity(1);
+
+		FlightOfferSearchResponse.AmenityProvider provider = new FlightOfferSearchResponse.AmenityProvider();
+		provider.setName("BrandedFare");
+
+		FlightOfferSearchResponse.Amenities amenity = new FlightOfferSearchResponse.Amenities();
+		amenity.setDescription("CHECKED BAG");
+		amenity.setAmenityType("BAGGAGE");
+		amenity.setAmenityProvider(provider);
+
+		FlightOfferSearchResponse.FareDetailsBySegment fareDetails = new FlightOfferSearchResponse.FareDetailsBySegment();
+		fareDetails.setSegmentId("1");
+		fareDetails.setCabin("ECONOMY");
+		fareDetails.setFareBasis("OUA0AFEN");
+		fareDetails.setBrandedFare("MAIN");
+		fareDetails.setClassType("O");
+		fareDetails.setIncludedCheckedBags(bags);
+		fareDetails.setAmenities(List.of(amenity));
+
+		FlightOfferSearchResponse.TravelerPricing travelerPricing = new FlightOfferSearchResponse.TravelerPricing();
+		travelerPricing.setTravelerId("1");
+		travelerPricing.setFareOption("STANDARD");
+		travelerPricing.setTravelerType("ADULT");
+		travelerPricing.setPrice(price);
+		travelerPricing.setFareDetailsBySegment(List.of(fareDetails));
+
+		FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+		offer.setType("flight-offer");
+		offer.setId("1");
+		offer.setSource("GDS");
+		offer.setOneWay(true);
+		offer.setLastTicketingDate("2024-10-20");
+		offer.setNumberOfBookableSeats(9);
+		offer.setItineraries(List.of(itinerary));
+		offer.setPrice(price);
+		offer.setPricingOptions(pricingOptions);
+		offer.setValidatingAirlineCodes(List.of("AA"));
+		offer.setTravelerPricings(List.of(travelerPricing));
+		return offer;
+	}
+}
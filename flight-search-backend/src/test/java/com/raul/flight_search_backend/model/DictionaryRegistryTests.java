@@ -0,0 +1,67 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DictionaryRegistryTests {
+
+	private final DictionaryRegistry registry = new DictionaryRegistry(new StringPool());
+
+	@Test
+	void searchesShareEntriesButSeeOnlyTheirOwnCodes() {
+		DictionaryRegistry.Codes first = registry.register(dictionaries(Map.of("JFK", location("NYC", null), "LAX", location("LAX", null)),
+				Map.of("AA", "AMERICAN AIRLINES")));
+		DictionaryRegistry.Codes second = registry.register(dictionaries(Map.of("JFK", location("NYC", null)),
+				Map.of("AA", "AMERICAN AIRLINES", "DL", "DELTA AIR LINES")));
+
+		FlightOfferSearchResponse.Dictionaries firstView = registry.resolve(first);
+		FlightOfferSearchResponse.Dictionaries secondView = registry.resolve(second);
+
+		assertEquals(List.of("JFK", "LAX"), firstView.getLocations().keySet().stream().sorted().toList());
+		assertEquals(Map.of("AA", "AMERICAN AIRLINES"), firstView.getCarriers());
+		assertNull(firstView.getCarriers().get("DL"));
+		assertEquals(2, secondView.getCarriers().size());
+		assertSame(firstView.getLocations().get("JFK"), secondView.getLocations().get("JFK"));
+		assertEquals(2, registry.locationCount());
+	}
+
+	@Test
+	void keepsTheMostDetailedLocation() {
+		DictionaryRegistry.Codes codes = registry.register(dictionaries(Map.of("JFK", location("NYC", "NEW YORK")), Map.of()));
+		registry.register(dictionaries(Map.of("JFK", location("NYC", null)), Map.of()));
+
+		assertEquals("NEW YORK", registry.resolve(codes).getLocations().get("JFK").getCityName());
+		assertEquals("NEW YORK", registry.getLocation("JFK").getCityName());
+	}
+
+	@Test
+	void viewsAreReadOnly() {
+		DictionaryRegistry.Codes codes = registry.register(dictionaries(Map.of(), Map.of("AA", "AMERICAN AIRLINES")));
+
+		assertThrows(UnsupportedOperationException.class, () -> registry.resolve(codes).getCarriers().put("UA", "UNITED AIRLINES"));
+	}
+
+	private static FlightOfferSearchResponse.Dictionaries dictionaries(Map<String, FlightOfferSearchResponse.Location> locations,
+			Map<String, String> carriers) {
+		FlightOfferSearchResponse.Dictionaries dictionaries = new FlightOfferSearchResponse.Dictionaries();
+		dictionaries.setLocations(locations);
+		dictionaries.setCarriers(carriers);
+		return dictionaries;
+	}
+
+	private static FlightOfferSearchResponse.Location location(String cityCode, String cityName) {
+		FlightOfferSearchResponse.Location location = new FlightOfferSearchResponse.Location();
+		location.setCityCode(cityCode);
+		location.setCountryCode("US");
+		location.setCityName(cityName);
+		return location;
+	}
+}
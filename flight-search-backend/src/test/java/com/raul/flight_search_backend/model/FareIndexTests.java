@@ -0,0 +1,92 @@
+package com.raul.flight_search_backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FareIndexTests {
+
+	private static final int MINUTES_PER_DAY = 24 * 60;
+
+	private final FareIndex index = new FareIndex();
+	private final int route = FareObservation.route("JFK", "LAX");
+	private final int usd = FareObservation.pack("USD");
+
+	@Test
+	void keepsTheCheapestFarePerDepartureDateWithinTheMonth() {
+		LocalDate first = LocalDate.of(2026, 3, 1);
+		index.add(observation(first, day(first) - 10, 25000, usd));
+		index.add(observation(first, day(first) - 9, 19900, usd));
+		index.add(observation(first, day(first) - 8, 21000, usd));
+		index.add(observation(first.plusDays(4), day(first) - 8, 18000, usd));
+		index.add(observation(first, day(first) - 9, 9900, FareObservation.pack("EUR")));
+		index.add(observation(first.minusDays(1), day(first) - 8, 5000, usd));
+
+		List<FareObservation> days = index.cheapestByDay(route, usd, YearMonth.of(2026, 3));
+
+		assertEquals(List.of(19900, 18000), days.stream().map(FareObservation::priceCents).toList());
+		assertEquals(List.of((int) first.toEpochDay(), (int) first.plusDays(4).toEpochDay()),
+				days.stream().map(FareObservation::departureDay).toList());
+		assertTrue(index.cheapestByDay(route, usd, YearMonth.of(2026, 4)).isEmpty());
+		assertTrue(index.cheapestByDay(FareObservation.route("LAX", "JFK"), usd, YearMonth.of(2026, 3)).isEmpty());
+	}
+
+	@Test
+	void equalPricesKeepTheLatestSighting() {
+		LocalDate departure = LocalDate.of(2026, 3, 1);
+		index.add(observation(departure, 20300, 15000, usd));
+		index.add(observation(departure, 20301, 15000, usd));
+		index.add(observation(departure, 20299, 15000, usd));
+
+		FareObservation cheapest = index.cheapestByDay(route, usd, YearMonth.of(2026, 3)).get(0);
+		assertEquals(20301 * MINUTES_PER_DAY, cheapest.observedMinute());
+	}
+
+	@Test
+	void trendCoversTheRequestedDaysUpToToday() {
+		LocalDate today = LocalDate.of(2026, 3, 10);
+		LocalDate departure = LocalDate.of(2026, 5, 1);
+		index.add(observation(departure, day(today), 30000, usd));
+		index.add(observation(departure, day(today), 20000, usd));
+		index.add(observation(departure, day(today) - 2, 25000, usd));
+		index.add(observation(departure, day(today) - 3, 10000, usd));
+
+		List<FareIndex.TrendPoint> points = index.trend(route, usd, 3, today);
+
+		assertEquals(List.of(today.minusDays(2), today), points.stream().map(FareIndex.TrendPoint::date).toList());
+		assertEquals(new FareIndex.TrendPoint(today, 20000, 25000, 2), points.get(1));
+		assertEquals(4, index.size());
+		assertEquals(1, index.routeCount());
+	}
+
+	@Test
+	void codesRoundTripThroughTheirPackedForm() {
+		assertEquals("JFK", FareObservation.unpack(FareObservation.pack("jfk")));
+		assertEquals("B6", FareObservation.unpack(FareObservation.pack("B6")));
+		assertEquals("999", FareObservation.unpack(FareObservation.pack("999")));
+
+		FareObservation observation = observation(LocalDate.of(2026, 3, 1), 20300, 100, usd);
+		assertEquals("JFK", observation.origin());
+		assertEquals("LAX", observation.destination());
+
+		assertFalse(FareObservation.isPackable("LONG"));
+		assertFalse(FareObservation.isPackable("J-K"));
+		assertThrows(IllegalArgumentException.class, () -> FareObservation.pack(""));
+	}
+
+	private FareObservation observation(LocalDate departure, int observedDay, int priceCents, int currency) {
+		return new FareObservation(route, (int) departure.toEpochDay(), observedDay * MINUTES_PER_DAY, priceCents,
+				currency, FareObservation.pack("AA"), 0);
+	}
+
+	private static int day(LocalDate date) {
+		return (int) date.toEpochDay();
+	}
+}
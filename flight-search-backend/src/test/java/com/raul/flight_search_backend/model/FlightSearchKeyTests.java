@@ -0,0 +1,41 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FlightSearchKeyTests {
+
+	@Test
+	void equivalentRequestsShareOneKey() {
+		FlightSearchKey lowerCase = FlightSearchKey.of(request(" jfk", "lax ", "usd", ""));
+		FlightSearchKey upperCase = FlightSearchKey.of(request("JFK", "LAX", "USD", null));
+
+		assertEquals(upperCase, lowerCase);
+		assertEquals(upperCase.hashCode(), lowerCase.hashCode());
+		assertEquals("JFK-LAX", lowerCase.route());
+		assertNull(lowerCase.getReturnDate());
+	}
+
+	@Test
+	void rejectsInvalidCodesAndDates() {
+		assertThrows(ResponseStatusException.class, () -> FlightSearchKey.of(request("JFKX", "LAX", "USD", null)));
+		assertThrows(ResponseStatusException.class, () -> FlightSearchKey.of(request("JFK", "LAX", "ZZZ", null)));
+		assertThrows(ResponseStatusException.class, () -> FlightSearchKey.of(request("JFK", "LAX", "USD", "2024-11-01")));
+	}
+
+	private static FlightOfferSearchRequest request(String origin, String destination, String currency, String returnDate) {
+		FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+		request.setOriginLocationCode(origin);
+		request.setDestinationLocationCode(destination);
+		request.setDepartureDate("2024-11-10");
+		request.setReturnDate(returnDate);
+		request.setCurrency(currency);
+		request.setAdults(1);
+		return request;
+	}
+}
@@ -0,0 +1,89 @@
+package com.raul.flight_search_backend.model;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OfferSortKeysTests {
+
+	private final StringPool pool = new StringPool();
+
+	@Test
+	void parsesPriceDurationDepartureStopsAndCarriers() {
+		OfferSortKeys keys = OfferSortKeys.of(offer(), pool);
+
+		assertEquals(246.70, keys.price());
+		assertEquals(385, keys.durationMinutes());
+		assertEquals(1, keys.stops());
+		assertEquals(Set.of("AA", "B6"), keys.carriers());
+		for (String carrier : keys.carriers()) {
+			assertSame(pool.get(pool.intern(carrier)), carrier);
+		}
+	}
+
+	@Test
+	void toleratesMissingSegmentsDeparturesAndCarrierCodes() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+		for (FlightOfferSearchResponse.Segment segment : offer.getItineraries().get(0).getSegments()) {
+			segment.setDeparture(null);
+			segment.setCarrierCode(null);
+			segment.setOperating(null);
+		}
+
+		OfferSortKeys keys = OfferSortKeys.of(offer, pool);
+
+		assertEquals(Long.MAX_VALUE, keys.departureEpochSecond());
+		assertEquals(Set.of(), keys.carriers());
+
+		offer.getItineraries().get(0).setSegments(null);
+		assertEquals(Long.MAX_VALUE, OfferSortKeys.of(offer, pool).departureEpochSecond());
+		assertEquals(0, OfferSortKeys.of(offer, pool).stops());
+	}
+
+	@Test
+	void missingOrUnparseableDurationsSortLast() {
+		FlightOfferSearchResponse.FlightOffer offer = offer();
+		offer.getItineraries().get(0).setDuration(null);
+		assertEquals(Long.MAX_VALUE, OfferSortKeys.of(offer, pool).durationMinutes());
+
+		offer.getItineraries().get(0).setDuration("six hours");
+		assertEquals(Long.MAX_VALUE, OfferSortKeys.of(offer, pool).durationMinutes());
+
+		offer.setItineraries(List.of());
+		assertEquals(Long.MAX_VALUE, OfferSortKeys.of(offer, pool).durationMinutes());
+	}
+
+	private static FlightOfferSearchResponse.FlightOffer offer() {
+		List<FlightOfferSearchResponse.Segment> segments = new ArrayList<>();
+		for (String carrier : List.of("AA", "B6")) {
+			FlightOfferSearchResponse.Departure departure = new FlightOfferSearchResponse.Departure();
+			departure.setIataCode("JFK");
+			departure.setAt("2024-11-01T08:00:00");
+
+			FlightOfferSearchResponse.Segment segment = new FlightOfferSearchResponse.Segment();
+			segment.setDeparture(departure);
+			segment.setCarrierCode(carrier);
+			segments.add(segment);
+		}
+
+		FlightOfferSearchResponse.Itinerary itinerary = new FlightOfferSearchResponse.Itinerary();
+		itinerary.setDuration("PT6H25M");
+		itinerary.setSegments(segments);
+
+		FlightOfferSearchResponse.Price price = new FlightOfferSearchResponse.Price();
+		price.setCurrency("USD");
+		price.setGrandTotal("246.70");
+
+		FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+		offer.setId("1");
+		offer.setItineraries(List.of(itinerary));
+		offer.setPrice(price);
+		return offer;
+	}
+}
@@ -0,0 +1,70 @@
+package com.raul.flight_search_backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerializedResponseTests {
+
+	@Test
+	void servesGzipToClientsThatAcceptItWithItsOwnETag() throws IOException {
+		byte[] json = "{\"data\":[%s]}".formatted("{\"id\":\"1\",\"price\":\"250.00\"},".repeat(100))
+				.getBytes(StandardCharsets.UTF_8);
+		SerializedResponse response = SerializedResponse.of(json, 1024);
+
+		SerializedResponse.Variant plain = response.select(null);
+		SerializedResponse.Variant gzip = response.select("br;q=1.0, gzip;q=0.8");
+
+		assertNull(plain.contentEncoding());
+		assertArrayEquals(json, plain.body());
+		assertEquals("gzip", gzip.contentEncoding());
+		assertTrue(gzip.body().length < json.length);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+			assertArrayEquals(json, in.readAllBytes());
+		}
+		assertNotEquals(plain.etag(), gzip.etag());
+		assertEquals(plain.etag(), SerializedResponse.of(json, 1024).select("identity").etag());
+	}
+
+	@Test
+	void compressesOnlyOnceAClientAcceptsGzip() {
+		byte[] json = "{\"data\":[%s]}".formatted("{\"id\":\"1\"},".repeat(200)).getBytes(StandardCharsets.UTF_8);
+		SerializedResponse response = SerializedResponse.of(json, 1024);
+		long reserved = json.length + json.length / 4 + 64;
+
+		response.select("identity");
+		assertEquals(reserved, response.estimatedBytes());
+
+		SerializedResponse.Variant gzip = response.select("gzip");
+		assertEquals(json.length + gzip.body().length + 64, response.estimatedBytes());
+		assertSame(gzip.body(), response.select("gzip").body());
+	}
+
+	@Test
+	void smallBodiesAreNotCompressed() {
+		SerializedResponse response = SerializedResponse.of("{}".getBytes(StandardCharsets.UTF_8), 1024);
+
+		assertFalse(response.hasGzip());
+		assertNull(response.select("gzip").contentEncoding());
+	}
+
+	@Test
+	void acceptEncodingHonoursZeroQuality() {
+		assertTrue(SerializedResponse.acceptsGzip("gzip, deflate, br"));
+		assertTrue(SerializedResponse.acceptsGzip("*"));
+		assertFalse(SerializedResponse.acceptsGzip("gzip;q=0"));
+		assertFalse(SerializedResponse.acceptsGzip("deflate, br"));
+		assertFalse(SerializedResponse.acceptsGzip(null));
+	}
+}
@@ -0,0 +1,75 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.AirportAndCitySearchRequest;
+import com.raul.flight_search_backend.dto.AirportAndCitySearchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static com.raul.flight_search_backend.service.AirportCityIndexTests.ids;
+import static com.raul.flight_search_backend.service.AirportCityIndexTests.location;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class AirportAndCitySearchServiceTests {
+
+	private static final String SAN_RESPONSE = """
+			{"meta": {"count": 2}, "data": [
+				{"id": "ASAN", "subType": "AIRPORT", "iataCode": "SAN", "name": "SAN DIEGO INTL", "address": {"cityName": "SAN DIEGO"}},
+				{"id": "ASJO", "subType": "AIRPORT", "iataCode": "SJO", "name": "SANTAMARIA INTL", "address": {"cityName": "SAN JOSE"}}
+			]}
+			""";
+
+	private final AirportCityIndex index = new AirportCityIndex();
+	private final AirportAndCitySearchService service = new AirportAndCitySearchService();
+	private MockRestServiceServer server;
+
+	@BeforeEach
+	void setUp() {
+		RestTemplate restTemplate = new RestTemplate();
+		server = MockRestServiceServer.bindTo(restTemplate).build();
+		ReflectionTestUtils.setField(service, "restTemplate", restTemplate);
+		ReflectionTestUtils.setField(service, "airportCityIndex", index);
+		ReflectionTestUtils.setField(service, "baseUrl", "https://upstream.test/v1/");
+	}
+
+	@Test
+	void asksUpstreamUntilTheIndexCanFillThePageThenRemembersCompleteAnswers() {
+		index.add(location("ASAN", "AIRPORT", "SAN", "SAN DIEGO INTL", "SAN DIEGO", "US", 40));
+		server.expect(ExpectedCount.once(), requestTo(startsWith("https://upstream.test/v1/reference-data/locations?subType=AIRPORT&keyword=SAN&")))
+				.andRespond(withSuccess(SAN_RESPONSE, MediaType.APPLICATION_JSON));
+
+		assertEquals(List.of("ASAN", "ASJO"), ids(service.searchAirportAndCity(request(10, 0)).getData()));
+		assertEquals(List.of("ASAN", "ASJO"), ids(service.searchAirportAndCity(request(10, 0)).getData()));
+		assertEquals(List.of("ASJO"), ids(service.searchAirportAndCity(request(10, 1)).getData()));
+
+		server.verify();
+	}
+
+	@Test
+	void answersLocallyWhenTheIndexFillsOffsetPlusLimit() {
+		index.add(location("ASAN", "AIRPORT", "SAN", "SAN DIEGO INTL", "SAN DIEGO", "US", 40));
+		index.add(location("ASJC", "AIRPORT", "SJC", "SAN JOSE INTL", "SAN JOSE", "US", 60));
+
+		AirportAndCitySearchResponse response = service.searchAirportAndCity(request(1, 1));
+
+		assertEquals(List.of("ASJC"), ids(response.getData()));
+		assertEquals(2, response.getMeta().getCount());
+		server.verify();
+	}
+
+	private static AirportAndCitySearchRequest request(int limit, int offset) {
+		AirportAndCitySearchRequest request = AirportCityIndexTests.request("SAN", "AIRPORT");
+		request.setLimit(limit);
+		request.setOffset(offset);
+		return request;
+	}
+}
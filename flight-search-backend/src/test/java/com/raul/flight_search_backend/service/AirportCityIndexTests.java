@@ -0,0 +1,101 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.AirportAndCitySearchRequest;
+import com.raul.flight_search_backend.dto.AirportAndCitySearchResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AirportCityIndexTests {
+
+	private final AirportCityIndex index = new AirportCityIndex();
+
+	@Test
+	void matchesByPrefixAndSubstringWithExactCodeFirst() {
+		index.add(location("ASAN", "AIRPORT", "SAN", "SAN DIEGO INTL", "SAN DIEGO", "US", 40));
+		index.add(location("ASJC", "AIRPORT", "SJC", "SAN JOSE INTL", "SAN JOSE", "US", 60));
+		index.add(location("AJFK", "AIRPORT", "JFK", "JOHN F KENNEDY INTL", "NEW YORK", "US", 90));
+
+		assertEquals(List.of("ASAN", "ASJC"), ids(index.search(request("san", "AIRPORT"))));
+		assertEquals(List.of("ASJC"), ids(index.search(request("san jo", "AIRPORT"))));
+		assertEquals(List.of("AJFK"), ids(index.search(request("ennedy", "AIRPORT,CITY"))));
+		assertEquals(List.of(), ids(index.search(request("san", "CITY"))));
+	}
+
+	@Test
+	void reindexingALocationDropsItsOldPostings() {
+		index.add(location("AXYZ", "AIRPORT", "XYZ", "OLDFIELD", "SPRINGTOWN", "US", 10));
+		index.add(location("AXYZ", "AIRPORT", "XYZ", "NEWPORT FIELD", "SPRINGTOWN", "US", 10));
+
+		assertEquals(1, index.size());
+		assertEquals(List.of(), ids(index.search(request("oldf", "AIRPORT"))));
+		assertEquals(List.of(), ids(index.search(request("dfiel", "AIRPORT"))));
+		assertEquals(List.of("AXYZ"), ids(index.search(request("newp", "AIRPORT"))));
+		assertEquals(List.of("AXYZ"), ids(index.search(request("field", "AIRPORT"))));
+	}
+
+	@Test
+	void remembersCompleteQueriesPerKeywordSubTypesAndCountry() {
+		index.markComplete(request(" San ", "CITY,AIRPORT"));
+
+		assertTrue(index.isComplete(request("SAN", "AIRPORT,CITY")));
+		assertFalse(index.isComplete(request("SAN", "AIRPORT")));
+		assertFalse(index.isComplete(request("SANT", "AIRPORT,CITY")));
+	}
+
+	@Test
+	void malformedDatasetRowsAreSkippedWithoutDroppingTheRest() {
+		String csv = """
+				iataCode,name,cityCode,cityName,countryCode,countryName,regionCode,score
+				ATL,HARTSFIELD-JACKSON ATLANTA INTL,ATL,ATLANTA,US,UNITED STATES OF AMERICA,NAMER,73
+				BAD,BROKEN FIELD,BAD,BADTOWN,US,UNITED STATES OF AMERICA,NAMER,n/a
+				ORD,O HARE INTERNATIONAL,CHI,CHICAGO,US,UNITED STATES OF AMERICA,NAMER,70
+				""";
+		ReflectionTestUtils.setField(index, "dataset", new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+
+		index.loadDataset();
+
+		assertEquals(List.of("AATL"), ids(index.search(request("atl", "AIRPORT"))));
+		assertEquals(List.of("AORD"), ids(index.search(request("ord", "AIRPORT"))));
+		assertEquals(List.of(), ids(index.search(request("bad", "AIRPORT,CITY"))));
+	}
+
+	static AirportAndCitySearchRequest request(String keyword, String subType) {
+		AirportAndCitySearchRequest request = new AirportAndCitySearchRequest();
+		request.setKeyword(keyword);
+		request.setSubType(subType);
+		return request;
+	}
+
+	static AirportAndCitySearchResponse.LocationData location(String id, String subType, String iataCode,
+																String name, String cityName, String countryCode, int score) {
+		AirportAndCitySearchResponse.LocationData.Address address = new AirportAndCitySearchResponse.LocationData.Address();
+		address.setCityName(cityName);
+		address.setCountryCode(countryCode);
+
+		AirportAndCitySearchResponse.LocationData.Travelers travelers = new AirportAndCitySearchResponse.LocationData.Travelers();
+		travelers.setScore(score);
+		AirportAndCitySearchResponse.LocationData.Analytics analytics = new AirportAndCitySearchResponse.LocationData.Analytics();
+		analytics.setTravelers(travelers);
+
+		AirportAndCitySearchResponse.LocationData location = new AirportAndCitySearchResponse.LocationData();
+		location.setId(id);
+		location.setSubType(subType);
+		location.setIataCode(iataCode);
+		location.setName(name);
+		location.setAddress(address);
+		location.setAnalytics(analytics);
+		return location;
+	}
+
+	static List<String> ids(List<AirportAndCitySearchResponse.LocationData> locations) {
+		return locations.stream().map(AirportAndCitySearchResponse.LocationData::getId).toList();
+	}
+}
@@ -0,0 +1,169 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.util.InFlightRequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AmadeusTokenManagerTests {
+
+	private static final Duration ONE_HOUR = Duration.ofHours(1);
+
+	private final AtomicInteger calls = new AtomicInteger();
+	private final ExecutorService callers = Executors.newFixedThreadPool(8);
+	private AmadeusTokenManager tokenManager;
+
+	@AfterEach
+	void shutdown() {
+		callers.shutdownNow();
+		if (tokenManager != null) {
+			tokenManager.shutdown();
+		}
+	}
+
+	@Test
+	void concurrentRequestsShareOneRefresh() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		tokenManager = tokenManager(call -> {
+			await(release);
+			return token("token-" + call, ONE_HOUR);
+		}, Duration.ofSeconds(60), Duration.ofSeconds(5));
+
+		List<Future<String>> tokens = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			tokens.add(callers.submit(tokenManager::getToken));
+		}
+		InFlightRequestCoalescer<?, ?> refreshCoalescer =
+				(InFlightRequestCoalescer<?, ?>) ReflectionTestUtils.getField(tokenManager, "refreshCoalescer");
+		waitUntil(() -> refreshCoalescer.getCoalescedCount() == 7);
+		release.countDown();
+
+		for (Future<String> token : tokens) {
+			assertEquals("token-1", token.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, calls.get());
+		assertEquals(8, tokenManager.getStalledRequests());
+		assertEquals("token-1", tokenManager.getToken());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void refreshesInTheBackgroundRefreshMarginBeforeExpiry() {
+		tokenManager = tokenManager(call -> token("token-" + call, ONE_HOUR),
+				ONE_HOUR.minusMillis(300), Duration.ofSeconds(5));
+
+		assertEquals("token-1", tokenManager.getToken());
+		assertEquals(1, calls.get());
+
+		waitUntil(() -> calls.get() == 2);
+		waitUntil(() -> tokenManager.getRefreshCount() == 2);
+		assertEquals("token-2", tokenManager.getToken());
+		assertEquals(1, tokenManager.getStalledRequests());
+	}
+
+	@Test
+	void retriesAFailedBackgroundRefreshAfterTheRetryDelay() {
+		tokenManager = tokenManager(call -> {
+			if (call == 2) {
+				throw new IllegalStateException("token endpoint down");
+			}
+			return token("token-" + call, ONE_HOUR);
+		}, ONE_HOUR.minusMillis(200), Duration.ofMillis(300));
+
+		assertEquals("token-1", tokenManager.getToken());
+
+		waitUntil(() -> tokenManager.getRefreshFailures() == 1);
+		assertEquals("token-1", tokenManager.getToken());
+		assertEquals(2, calls.get());
+
+		waitUntil(() -> calls.get() == 3);
+		waitUntil(() -> tokenManager.getRefreshCount() == 2);
+		assertEquals("token-3", tokenManager.getToken());
+		assertEquals(1, tokenManager.getStalledRequests());
+	}
+
+	@Test
+	void failedRefreshIsRetriedByTheNextRequest() {
+		tokenManager = tokenManager(call -> {
+			if (call == 1) {
+				throw new IllegalStateException("token endpoint down");
+			}
+			return token("token-" + call, ONE_HOUR);
+		}, Duration.ofSeconds(60), Duration.ofSeconds(5));
+
+		assertThrows(IllegalStateException.class, tokenManager::getToken);
+		assertEquals("token-2", tokenManager.getToken());
+		assertEquals(1, tokenManager.getRefreshFailures());
+		assertEquals(1, tokenManager.getRefreshCount());
+	}
+
+	@Test
+	void tokensCloseToExpiryAreNotUsed() {
+		tokenManager = tokenManager(call -> token("token-" + call, Duration.ofSeconds(3)),
+				Duration.ofSeconds(60), Duration.ofSeconds(5));
+
+		assertEquals("token-1", tokenManager.getToken());
+		assertEquals("token-2", tokenManager.getToken());
+		assertEquals(2, calls.get());
+	}
+
+	private AmadeusTokenManager tokenManager(IntFunction<Map<String, Object>> tokenEndpoint,
+	                                         Duration refreshMargin, Duration retryDelay) {
+		AmadeusTokenManager manager = new AmadeusTokenManager();
+		ReflectionTestUtils.setField(manager, "amadeusAuthService", new AmadeusAuthService() {
+			@Override
+			public Map<String, Object> getBearerToken(String apiKey, String apiSecret) {
+				return tokenEndpoint.apply(calls.incrementAndGet());
+			}
+		});
+		ReflectionTestUtils.setField(manager, "apiKey", "key");
+		ReflectionTestUtils.setField(manager, "apiSecret", "secret");
+		ReflectionTestUtils.setField(manager, "refreshMargin", refreshMargin);
+		ReflectionTestUtils.setField(manager, "retryDelay", retryDelay);
+		ReflectionTestUtils.setField(manager, "meterRegistry", new SimpleMeterRegistry());
+		return manager;
+	}
+
+	private static Map<String, Object> token(String value, Duration expiresIn) {
+		return Map.of("access_token", value, "expires_in", expiresIn.toSeconds());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitUntil(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlexibleDateSearchResponse;
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlexibleDateSearchServiceTests {
+
+	private static final LocalDate DEPARTURE = LocalDate.now().plusDays(30);
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void returnDateMovesWithDepartureAndPastDatesAreSkipped() {
+		FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+		request.setOriginLocationCode("JFK");
+		request.setDestinationLocationCode("LAX");
+		request.setDepartureDate("2024-11-10");
+		request.setReturnDate("2024-11-17");
+		request.setCurrency("USD");
+		request.setAdults(2);
+
+		List<FlightSearchKey> window = FlexibleDateSearchService.dateWindow(FlightSearchKey.of(request), 2, LocalDate.parse("2024-11-09"));
+
+		assertEquals(List.of("2024-11-09", "2024-11-10", "2024-11-11", "2024-11-12"),
+				window.stream().map(key -> key.getDepartureDate().toString()).toList());
+		assertEquals(List.of("2024-11-16", "2024-11-17", "2024-11-18", "2024-11-19"),
+				window.stream().map(key -> key.getReturnDate().toString()).toList());
+		assertEquals(2, window.get(0).getAdults());
+	}
+
+	@Test
+	void picksTheCheapestOfferOfEachDateAndTheCheapestDate() {
+		Map<LocalDate, List<String>> prices = Map.of(
+				DEPARTURE.minusDays(1), List.of("410.00", "390.00"),
+				DEPARTURE, List.of("250.00", "199.99", "305.00"),
+				DEPARTURE.plusDays(1), List.of());
+		FlexibleDateSearchService service = service(key -> searchResult(key, prices.get(key.getDepartureDate())), Duration.ofSeconds(5));
+
+		FlexibleDateSearchResponse response = service.search(key(), 1);
+
+		List<FlexibleDateSearchResponse.DateOption> calendar = response.getCalendar();
+		assertEquals(List.of(DEPARTURE.minusDays(1).toString(), DEPARTURE.toString(), DEPARTURE.plusDays(1).toString()),
+				calendar.stream().map(FlexibleDateSearchResponse.DateOption::getDepartureDate).toList());
+		assertEquals(390.00, calendar.get(0).getLowestPrice());
+		assertEquals(199.99, calendar.get(1).getLowestPrice());
+		assertEquals("2", calendar.get(1).getBestOffer().getId());
+		assertEquals(3, calendar.get(1).getOfferCount());
+		assertNull(calendar.get(2).getLowestPrice());
+		assertEquals(0, calendar.get(2).getOfferCount());
+		assertEquals(DEPARTURE.toString(), response.getCheapest().getDepartureDate());
+		assertEquals(199.99, response.getCheapest().getLowestPrice());
+	}
+
+	@Test
+	void returnsPartialCalendarWhenDatesFailOrTimeOut() {
+		CountDownLatch release = new CountDownLatch(1);
+		FlexibleDateSearchService service = service(key -> {
+			if (key.getDepartureDate().equals(DEPARTURE.minusDays(1))) {
+				throw new IllegalStateException("upstream down");
+			}
+			if (key.getDepartureDate().equals(DEPARTURE.plusDays(1))) {
+				await(release);
+			}
+			return searchResult(key, List.of("120.00"));
+		}, Duration.ofMillis(200));
+
+		try {
+			FlexibleDateSearchResponse response = service.search(key(), 1);
+
+			List<FlexibleDateSearchResponse.DateOption> calendar = response.getCalendar();
+			assertEquals(3, calendar.size());
+			assertTrue(calendar.get(0).getError().contains("upstream down"));
+			assertNull(calendar.get(0).getLowestPrice());
+			assertNull(calendar.get(1).getError());
+			assertEquals(120.00, calendar.get(1).getLowestPrice());
+			assertEquals("Timed out", calendar.get(2).getError());
+			assertEquals(DEPARTURE.toString(), response.getCheapest().getDepartureDate());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void datesStillQueuedAtTheTimeoutAreNeverSearched() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<LocalDate> searched = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		FlexibleDateSearchService service = service(key -> {
+			searched.add(key.getDepartureDate());
+			await(release);
+			return searchResult(key, List.of("120.00"));
+		}, Duration.ofMillis(200));
+		ReflectionTestUtils.setField(service, "flexibleSearchExecutor", single);
+
+		try {
+			FlexibleDateSearchResponse response = service.search(key(), 1);
+
+			assertTrue(response.getCalendar().stream().allMatch(option -> "Timed out".equals(option.getError())));
+		} finally {
+			release.countDown();
+			single.shutdown();
+		}
+		assertTrue(single.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(List.of(DEPARTURE.minusDays(1)), searched);
+	}
+
+	@Test
+	void rejectsTheWindowWhenTheExecutorIsFull() {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger searches = new AtomicInteger();
+		ThreadPoolTaskExecutor full = new ThreadPoolTaskExecutor();
+		full.setCorePoolSize(1);
+		full.setMaxPoolSize(1);
+		full.setQueueCapacity(1);
+		full.setWaitForTasksToCompleteOnShutdown(true);
+		full.setAwaitTerminationSeconds(5);
+		full.initialize();
+		FlexibleDateSearchService service = service(key -> {
+			searches.incrementAndGet();
+			await(release);
+			return searchResult(key, List.of("120.00"));
+		}, Duration.ofSeconds(5));
+		ReflectionTestUtils.setField(service, "flexibleSearchExecutor", full);
+
+		try {
+			assertThrows(TaskRejectedException.class, () -> service.search(key(), 1));
+		} finally {
+			release.countDown();
+			full.shutdown();
+		}
+		// The first date may or may not have started; the queued one was cancelled before it could.
+		assertTrue(searches.get() <= 1, searches.get() + " dates searched");
+	}
+
+	@Test
+	void rejectsWindowsWiderThanTheConfiguredMaximum() {
+		AtomicInteger searches = new AtomicInteger();
+		FlexibleDateSearchService service = service(key -> {
+			searches.incrementAndGet();
+			return searchResult(key, List.of("100.00"));
+		}, Duration.ofSeconds(5));
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.search(key(), 4));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+		assertThrows(ResponseStatusException.class, () -> service.search(key(), -1));
+		assertEquals(0, searches.get());
+
+		assertNotNull(service.search(key(), 3).getCheapest());
+		assertEquals(7, searches.get());
+	}
+
+	private FlexibleDateSearchService service(Function<FlightSearchKey, SearchResult> search, Duration timeout) {
+		SearchResultStore store = new SearchResultStore();
+		ReflectionTestUtils.setField(store, "maxSize", 100L);
+		ReflectionTestUtils.setField(store, "ttl", Duration.ofMinutes(1));
+		store.init();
+
+		FlexibleDateSearchService service = new FlexibleDateSearchService();
+		ReflectionTestUtils.setField(service, "flightOfferSearchService", new FlightOfferSearchService() {
+			@Override
+			public SearchResult searchFlights(FlightSearchKey key) {
+				return search.apply(key);
+			}
+		});
+		ReflectionTestUtils.setField(service, "searchResultStore", store);
+		ReflectionTestUtils.setField(service, "flexibleSearchExecutor", executor);
+		ReflectionTestUtils.setField(service, "maxDays", 3);
+		ReflectionTestUtils.setField(service, "timeout", timeout);
+		return service;
+	}
+
+	private static FlightSearchKey key() {
+		FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+		request.setOriginLocationCode("JFK");
+		request.setDestinationLocationCode("LAX");
+		request.setDepartureDate(DEPARTURE.toString());
+		request.setCurrency("USD");
+		request.setAdults(1);
+		return FlightSearchKey.of(request);
+	}
+
+	private static SearchResult searchResult(FlightSearchKey key, List<String> grandTotals) {
+		List<FlightOfferSearchResponse.FlightOffer> offers = new ArrayList<>();
+		for (int i = 0; i < grandTotals.size(); i++) {
+			FlightOfferSearchResponse.Price price = new FlightOfferSearchResponse.Price();
+			price.setCurrency("USD");
+			price.setGrandTotal(grandTotals.get(i));
+
+			FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+			offer.setId(String.valueOf(i + 1));
+			offer.setItineraries(List.of());
+			offer.setPrice(price);
+			offers.add(offer);
+		}
+
+		FlightOfferSearchResponse response = new FlightOfferSearchResponse();
+		response.setSearchId("search-" + key.getDepartureDate());
+		response.setData(offers);
+		return SearchResult.of(response, new DictionaryRegistry(new StringPool()));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferQuery;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlightOfferQueryServiceTests {
+
+	private final FlightOfferQueryService queryService = new FlightOfferQueryService();
+
+	@Test
+	void returnsAllOffersInOriginalOrderWhenNoQueryIsGiven() {
+		FlightOfferSearchResponse response = queryService.query(searchResult(), new FlightOfferQuery());
+
+		assertEquals("search-1", response.getSearchId());
+		assertEquals(List.of("1", "2", "3"), ids(response));
+	}
+
+	@Test
+	void sortsByDurationDescending() {
+		FlightOfferQuery query = new FlightOfferQuery();
+		query.setSort("duration");
+		query.setOrder("desc");
+
+		FlightOfferSearchResponse response = queryService.query(searchResult(), query);
+
+		assertEquals(List.of("2", "3", "1"), ids(response));
+	}
+
+	@Test
+	void filtersByPriceAndStopsThenPages() {
+		FlightOfferQuery query = new FlightOfferQuery();
+		query.setMaxPrice(400.0);
+		query.setMaxStops(1);
+		query.setPage(2);
+		query.setSize(1);
+
+		FlightOfferSearchResponse response = queryService.query(searchResult(), query);
+
+		assertEquals(List.of("3"), ids(response));
+		assertEquals(2, response.getMeta().getTotalCount());
+		assertEquals(1, response.getMeta().getCount());
+	}
+
+	private static SearchResult searchResult() {
+		FlightOfferSearchResponse response = new FlightOfferSearchResponse();
+		response.setSearchId("search-1");
+		response.setData(List.of(
+				offer("1", "250.00", "PT5H10M", 0),
+				offer("2", "180.50", "PT9H45M", 2),
+				offer("3", "320.00", "PT7H", 1)));
+		return SearchResult.of(response, new DictionaryRegistry(new StringPool()));
+	}
+
+	private static FlightOfferSearchResponse.FlightOffer offer(String id, String grandTotal, String duration, int stops) {
+		List<FlightOfferSearchResponse.Segment> segments = new ArrayList<>();
+		for (int i = 0; i <= stops; i++) {
+			FlightOfferSearchResponse.Departure departure = new FlightOfferSearchResponse.Departure();
+			departure.setIataCode("JFK");
+			departure.setAt("2024-11-0" + (i + 1) + "T08:00:00");
+
+			FlightOfferSearchResponse.Arrival arrival = new FlightOfferSearchResponse.Arrival();
+			arrival.setIataCode("LAX");
+
+			FlightOfferSearchResponse.Segment segment = new FlightOfferSearchResponse.Segment();
+			segment.setDeparture(departure);
+			segment.setArrival(arrival);
+			segment.setCarrierCode("AA");
+			segments.add(segment);
+		}
+
+		FlightOfferSearchResponse.Itinerary itinerary = new FlightOfferSearchResponse.Itinerary();
+		itinerary.setDuration(duration);
+		itinerary.setSegments(segments);
+
+		FlightOfferSearchResponse.Price price = new FlightOfferSearchResponse.Price();
+		price.setCurrency("USD");
+		price.setGrandTotal(grandTotal);
+
+		FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+		offer.setId(id);
+		offer.setItineraries(List.of(itinerary));
+		offer.setPrice(price);
+		return offer;
+	}
+
+	private static List<String> ids(FlightOfferSearchResponse response) {
+		return response.getData().stream().map(FlightOfferSearchResponse.FlightOffer::getId).toList();
+	}
+}
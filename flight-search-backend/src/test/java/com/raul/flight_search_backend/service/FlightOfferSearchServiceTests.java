@@ -0,0 +1,181 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import com.raul.flight_search_backend.util.UpstreamCircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightOfferSearchServiceTests {
+
+	private static final String PATH = "/v2/shopping/flight-offers";
+
+	private final DictionaryRegistry registry = new DictionaryRegistry(new StringPool());
+	private final CaffeineCacheManager cacheManager = new CaffeineCacheManager("flightOffersCache");
+	private final UpstreamCircuitBreaker circuitBreaker = new UpstreamCircuitBreaker(1, Duration.ofSeconds(30))
+			.circuit("flight-offers", PATH);
+	private final List<Runnable> refreshTasks = new ArrayList<>();
+	private boolean upstreamDown;
+	private int upstreamCalls;
+
+	private final FlightOfferSearchService service = service();
+	private final FlightSearchKey key = FlightOfferStreamServiceTests.key();
+
+	@Test
+	void aFreshEntryIsServedWithoutARefresh() {
+		SearchResult cached = cache(key);
+
+		assertSame(cached, service.searchFlights(key));
+
+		assertEquals(0, service.getStaleServedCount());
+		assertTrue(refreshTasks.isEmpty());
+		assertEquals(0, upstreamCalls);
+	}
+
+	@Test
+	void aStaleEntryIsServedAtOnceAndRefreshedInTheBackground() {
+		ReflectionTestUtils.setField(service, "refreshAfter", Duration.ZERO);
+		SearchResult cached = cache(key);
+
+		assertSame(cached, service.searchFlights(key));
+
+		assertEquals(1, service.getStaleServedCount());
+		assertEquals(1, refreshTasks.size());
+		assertEquals(0, upstreamCalls);
+
+		refreshTasks.getFirst().run();
+
+		assertEquals(1, upstreamCalls);
+		assertEquals(1, service.getRefreshCount());
+		assertEquals(0, service.getRefreshingCount());
+		assertNotSame(cached, cacheManager.getCache("flightOffersCache").get(key, SearchResult.class));
+	}
+
+	@Test
+	void onlyOneRefreshRunsPerSearchAtATime() {
+		ReflectionTestUtils.setField(service, "refreshAfter", Duration.ZERO);
+		cache(key);
+
+		service.searchFlights(key);
+		service.searchFlights(key);
+		service.refreshInBackground(key);
+
+		assertEquals(2, service.getStaleServedCount());
+		assertEquals(1, refreshTasks.size());
+		assertEquals(1, service.getRefreshingCount());
+
+		upstreamDown = true;
+		refreshTasks.getFirst().run();
+
+		assertEquals(1, service.getRefreshFailureCount());
+		assertEquals(0, service.getRefreshingCount());
+
+		service.refreshInBackground(key);
+
+		assertEquals(2, refreshTasks.size());
+	}
+
+	@Test
+	void noRefreshIsQueuedWhileTheCircuitIsOpen() throws Exception {
+		ReflectionTestUtils.setField(service, "refreshAfter", Duration.ZERO);
+		SearchResult cached = cache(key);
+		circuitBreaker.attempt(PATH).failed();
+
+		assertSame(cached, service.searchFlights(key));
+
+		assertEquals(1, service.getStaleServedCount());
+		assertTrue(refreshTasks.isEmpty());
+		assertEquals(0, service.getRefreshingCount());
+	}
+
+	@Test
+	void expiresWithinLooksAheadOfTheRefreshAge() {
+		assertTrue(service.expiresWithin(key, Duration.ofMinutes(1)), "nothing is cached yet");
+
+		cache(key);
+
+		assertFalse(service.expiresWithin(key, Duration.ofMinutes(1)));
+		assertTrue(service.expiresWithin(key, Duration.ofMinutes(11)));
+		assertTrue(service.isCached(key));
+	}
+
+	@Test
+	void evictingMarksEntriesStaleInsteadOfDroppingThem() {
+		SearchResult cached = cache(key);
+
+		service.evictFlightOffersCache();
+
+		assertTrue(service.isCached(key));
+		assertTrue(service.expiresWithin(key, Duration.ZERO));
+		assertSame(cached, service.searchFlights(key));
+		assertEquals(1, service.getStaleServedCount());
+		assertEquals(1, refreshTasks.size());
+		assertEquals(0, upstreamCalls);
+	}
+
+	private SearchResult cache(FlightSearchKey key) {
+		SearchResult searchResult = SearchResult.builder("cached", registry).build();
+		cacheManager.getCache("flightOffersCache").put(key, searchResult);
+		return searchResult;
+	}
+
+	private FlightOfferSearchService service() {
+		HotSearchTracker tracker = new HotSearchTracker();
+		ReflectionTestUtils.setField(tracker, "maxKeys", 100L);
+		tracker.init();
+
+		FlightOfferSearchService service = new FlightOfferSearchService();
+		ReflectionTestUtils.setField(service, "restTemplate", new RestTemplate() {
+			@Override
+			public <T> T execute(String url, HttpMethod method, @Nullable RequestCallback requestCallback,
+					@Nullable ResponseExtractor<T> responseExtractor, Object... uriVariables) {
+				upstreamCalls++;
+				if (upstreamDown) {
+					throw new ResourceAccessException("Connection refused");
+				}
+				return null;
+			}
+		});
+		ReflectionTestUtils.setField(service, "locationEnrichmentService", new LocationEnrichmentService() {
+			@Override
+			public FlightOfferSearchResponse.Dictionaries appendLocationDetails(FlightOfferSearchResponse.Dictionaries dictionaries) {
+				return dictionaries;
+			}
+		});
+		ReflectionTestUtils.setField(service, "fareObservationService", new FareObservationService() {
+			@Override
+			public void record(FlightSearchKey key, SearchResult searchResult) {
+			}
+		});
+		ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+		ReflectionTestUtils.setField(service, "hotSearchTracker", tracker);
+		ReflectionTestUtils.setField(service, "upstreamCircuitBreaker", circuitBreaker);
+		ReflectionTestUtils.setField(service, "dictionaryRegistry", registry);
+		ReflectionTestUtils.setField(service, "refreshExecutor", (Executor) refreshTasks::add);
+		ReflectionTestUtils.setField(service, "baseUrl", "https://test.api.amadeus.com/v1/");
+		ReflectionTestUtils.setField(service, "refreshAfter", Duration.ofMinutes(10));
+		ReflectionTestUtils.setField(service, "maxOffers", 250);
+		return service;
+	}
+}
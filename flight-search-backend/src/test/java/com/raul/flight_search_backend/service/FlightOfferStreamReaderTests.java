@@ -0,0 +1,66 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FlightOfferStreamReaderTests {
+
+	private static final String PAYLOAD = """
+			{
+			  "meta": { "count": 3 },
+			  "warnings": [{ "code": 1 }],
+			  "data": [
+			    { "id": "1", "numberOfBookableSeats": 1, "price": { "grandTotal": "100.00" } },
+			    { "id": "2", "numberOfBookableSeats": 4, "travelerPricings": [{ "fareDetailsBySegment": [
+			      { "segmentId": "1", "cabin": "ECONOMY", "amenities": [{ "description": "MEAL", "amenityType": "MEAL" }] }
+			    ] }] },
+			    { "id": "3", "numberOfBookableSeats": 9 }
+			  ],
+			  "dictionaries": { "carriers": { "AA": "AMERICAN AIRLINES" } }
+			}
+			""";
+
+	private final FlightOfferStreamReader reader = new FlightOfferStreamReader(Jackson2ObjectMapperBuilder.json().build());
+
+	@Test
+	void appliesFilterAndLimitWhileParsing() throws Exception {
+		SearchResult.Builder builder = SearchResult.builder("search-1", new DictionaryRegistry(new StringPool()));
+
+		reader.read(stream(), builder, offer -> offer.getNumberOfBookableSeats() >= 2, 1, false);
+		SearchResult searchResult = builder.build();
+
+		assertEquals(1, searchResult.size());
+		assertNotNull(searchResult.getOffer("2"));
+		assertNull(searchResult.getOffer("3"));
+		assertEquals(1, searchResult.getMeta().getCount());
+		assertEquals("AMERICAN AIRLINES", searchResult.getDictionaries().getCarriers().get("AA"));
+	}
+
+	@Test
+	void dropsAmenitiesWhenAsked() throws Exception {
+		SearchResult.Builder builder = SearchResult.builder("search-1", new DictionaryRegistry(new StringPool()));
+
+		reader.read(stream(), builder, offer -> true, 250, true);
+		FlightOfferSearchResponse.FlightOffer offer = builder.build().getOffer("2");
+
+		FlightOfferSearchResponse.FareDetailsBySegment fareDetails = offer.getTravelerPricings().get(0).getFareDetailsBySegment().get(0);
+		assertEquals("ECONOMY", fareDetails.getCabin());
+		assertNull(fareDetails.getAmenities());
+	}
+
+	private static InputStream stream() {
+		return new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,182 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import com.raul.flight_search_backend.dto.FlightOfferSearchResponse;
+import com.raul.flight_search_backend.dto.FlightOfferStreamEvent;
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightOfferStreamServiceTests {
+
+	private final DictionaryRegistry registry = new DictionaryRegistry(new StringPool());
+
+	@Test
+	void aSlowClientDoesNotHoldUpTheSearch() throws Exception {
+		CountDownLatch searched = new CountDownLatch(1);
+		FlightOfferStreamService service = service((key, onOffer) -> {
+			SearchResult searchResult = searchResult(10, onOffer);
+			searched.countDown();
+			return searchResult;
+		}, 3, Duration.ofSeconds(5));
+
+		CountDownLatch clientReady = new CountDownLatch(1);
+		List<String> events = new ArrayList<>();
+		FlightOfferStreamService.StreamedSearch search = service.start(key());
+		Thread client = new Thread(() -> search.drainTo(event -> {
+			await(clientReady);
+			events.add(describe(event));
+		}));
+		client.start();
+
+		assertTrue(searched.await(5, TimeUnit.SECONDS), "the search waited for the client");
+		clientReady.countDown();
+		client.join(5000);
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			expected.add("offer:" + i);
+		}
+		expected.add("complete:search-1");
+		assertEquals(expected, events);
+	}
+
+	@Test
+	void replaysCachedSearchesThatNeverCallBack() {
+		FlightOfferStreamService service = service((key, onOffer) -> searchResult(2, offer -> { }), 3, Duration.ofSeconds(5));
+
+		assertEquals(List.of("offer:1", "offer:2", "complete:search-1"), drain(service.start(key())));
+	}
+
+	@Test
+	void aFailedSearchEndsWithAnErrorAfterTheOffersItParsed() {
+		FlightOfferStreamService service = service((key, onOffer) -> {
+			onOffer.accept(offer(1));
+			throw new IllegalStateException("upstream down");
+		}, 3, Duration.ofSeconds(5));
+
+		assertEquals(List.of("offer:1", "error:upstream down"), drain(service.start(key())));
+	}
+
+	@Test
+	void aSearchThatOutlivesTheTimeoutEndsWithAnError() {
+		CountDownLatch release = new CountDownLatch(1);
+		FlightOfferStreamService service = service((key, onOffer) -> {
+			await(release);
+			return searchResult(1, onOffer);
+		}, 3, Duration.ofMillis(100));
+
+		try {
+			assertEquals(List.of("error:The search did not finish in time"), drain(service.start(key())));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void stopsSendingOnceTheClientIsGone() {
+		AtomicInteger sends = new AtomicInteger();
+		FlightOfferStreamService service = service((key, onOffer) -> searchResult(5, onOffer), 3, Duration.ofSeconds(5));
+
+		service.start(key()).drainTo(event -> {
+			sends.incrementAndGet();
+			throw new IOException("Broken pipe");
+		});
+
+		assertEquals(1, sends.get());
+	}
+
+	interface Search {
+		SearchResult search(FlightSearchKey key, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer);
+	}
+
+	static FlightOfferStreamService service(Search search, int bufferSize, Duration timeout) {
+		SearchResultStore store = new SearchResultStore();
+		ReflectionTestUtils.setField(store, "maxSize", 100L);
+		ReflectionTestUtils.setField(store, "ttl", Duration.ofMinutes(1));
+		store.init();
+
+		FlightOfferStreamService service = new FlightOfferStreamService();
+		ReflectionTestUtils.setField(service, "flightOfferSearchService", new FlightOfferSearchService() {
+			@Override
+			public SearchResult searchFlights(FlightSearchKey key, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer) {
+				return search.search(key, onOffer);
+			}
+		});
+		ReflectionTestUtils.setField(service, "searchResultStore", store);
+		ReflectionTestUtils.setField(service, "streamingExecutor", new SimpleAsyncTaskExecutor("streaming-"));
+		ReflectionTestUtils.setField(service, "bufferSize", bufferSize);
+		ReflectionTestUtils.setField(service, "timeout", timeout);
+		return service;
+	}
+
+	static FlightSearchKey key() {
+		FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+		request.setOriginLocationCode("JFK");
+		request.setDestinationLocationCode("LAX");
+		request.setDepartureDate("2030-11-10");
+		request.setCurrency("USD");
+		request.setAdults(1);
+		return FlightSearchKey.of(request);
+	}
+
+	// Builds the search the way a fetch does: every offer reaches the listener as it is added.
+	SearchResult searchResult(int offers, Consumer<FlightOfferSearchResponse.FlightOffer> onOffer) {
+		SearchResult.Builder builder = SearchResult.builder("search-1", registry).listener(onOffer);
+		for (int i = 1; i <= offers; i++) {
+			builder.addOffer(offer(i));
+		}
+		return builder.build();
+	}
+
+	static FlightOfferSearchResponse.FlightOffer offer(int id) {
+		FlightOfferSearchResponse.Price price = new FlightOfferSearchResponse.Price();
+		price.setCurrency("USD");
+		price.setGrandTotal(id + "00.00");
+
+		FlightOfferSearchResponse.FlightOffer offer = new FlightOfferSearchResponse.FlightOffer();
+		offer.setId(String.valueOf(id));
+		offer.setItineraries(List.of());
+		offer.setPrice(price);
+		return offer;
+	}
+
+	private static List<String> drain(FlightOfferStreamService.StreamedSearch search) {
+		List<String> events = new ArrayList<>();
+		search.drainTo(event -> events.add(describe(event)));
+		return events;
+	}
+
+	private static String describe(FlightOfferStreamEvent event) {
+		return event.getType() + ":" + switch (event.getData()) {
+			case FlightOfferSearchResponse.FlightOffer offer -> offer.getId();
+			case FlightOfferStreamEvent.Completion completion -> completion.getSearchId();
+			case FlightOfferStreamEvent.Failure failure -> failure.getMessage();
+			default -> event.getData();
+		};
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.dto.FlightOfferSearchRequest;
+import com.raul.flight_search_backend.model.FlightSearchKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HotSearchTrackerTests {
+
+	@Test
+	void ranksBySearchCountAndDecaysOldTraffic() {
+		HotSearchTracker tracker = new HotSearchTracker();
+		ReflectionTestUtils.setField(tracker, "maxKeys", 100L);
+		tracker.init();
+
+		FlightSearchKey popular = key("JFK", "LAX");
+		FlightSearchKey occasional = key("BOS", "SFO");
+		for (int i = 0; i < 4; i++) {
+			tracker.record(popular);
+		}
+		tracker.record(occasional);
+
+		assertEquals(List.of(popular, occasional), List.copyOf(tracker.top(10).keySet()));
+
+		tracker.decay();
+
+		assertEquals(List.of(popular), List.copyOf(tracker.top(10).keySet()));
+		assertEquals(2L, tracker.top(10).get(popular));
+	}
+
+	private static FlightSearchKey key(String origin, String destination) {
+		FlightOfferSearchRequest request = new FlightOfferSearchRequest();
+		request.setOriginLocationCode(origin);
+		request.setDestinationLocationCode(destination);
+		request.setDepartureDate("2024-11-10");
+		request.setCurrency("USD");
+		request.setAdults(1);
+		return FlightSearchKey.of(request);
+	}
+}
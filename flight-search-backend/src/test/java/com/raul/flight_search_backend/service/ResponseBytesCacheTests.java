@@ -0,0 +1,71 @@
+package com.raul.flight_search_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raul.flight_search_backend.model.SerializedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResponseBytesCacheTests {
+
+	private final ResponseBytesCache cache = cache();
+	private final AtomicInteger serializations = new AtomicInteger();
+
+	@Test
+	void serializesEachViewOnce() {
+		SerializedResponse first = cache.get("search-1", "details", "1", () -> body("1"));
+		SerializedResponse second = cache.get("search-1", "details", "1", () -> body("1"));
+
+		assertSame(first, second);
+		assertEquals(1, serializations.get());
+		assertEquals("{\"id\":\"1\"}", new String(first.select(null).body(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void viewsParametersAndSearchesAreCachedApart() {
+		SerializedResponse details = cache.get("search-1", "details", "1", () -> body("1"));
+		SerializedResponse otherOffer = cache.get("search-1", "details", "2", () -> body("2"));
+		SerializedResponse otherView = cache.get("search-1", "dictionaries", null, () -> body("1"));
+		SerializedResponse otherSearch = cache.get("search-2", "details", "1", () -> body("1"));
+
+		assertEquals(4, serializations.get());
+		assertNotEquals(details.select(null).etag(), otherOffer.select(null).etag());
+		assertEquals(details.select(null).etag(), otherView.select(null).etag(), "same bytes, same ETag");
+		assertEquals(details.select(null).etag(), otherSearch.select(null).etag());
+	}
+
+	@Test
+	void aFailedViewIsNotCached() {
+		assertThrows(IllegalArgumentException.class, () -> cache.get("search-1", "details", "1", () -> {
+			throw new IllegalArgumentException("Flight not found");
+		}));
+
+		cache.get("search-1", "details", "1", () -> body("1"));
+
+		assertEquals(1, serializations.get());
+	}
+
+	private Map<String, String> body(String id) {
+		serializations.incrementAndGet();
+		return Map.of("id", id);
+	}
+
+	private static ResponseBytesCache cache() {
+		ResponseBytesCache cache = new ResponseBytesCache();
+		ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(cache, "maxWeightBytes", 1L << 20);
+		ReflectionTestUtils.setField(cache, "gzipMinBytes", 1024);
+		ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+		cache.init();
+		return cache;
+	}
+}
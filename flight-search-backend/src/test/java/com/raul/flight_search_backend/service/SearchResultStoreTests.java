@@ -0,0 +1,87 @@
+package com.raul.flight_search_backend.service;
+
+import com.raul.flight_search_backend.model.DictionaryRegistry;
+import com.raul.flight_search_backend.model.SearchResult;
+import com.raul.flight_search_backend.model.StringPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResultStoreTests {
+
+	private final DictionaryRegistry registry = new DictionaryRegistry(new StringPool());
+
+	@Test
+	void eachSearchIsReadBackByItsOwnId() {
+		SearchResultStore store = store(100);
+		SearchResult first = store.register(searchResult("search-1"));
+		SearchResult second = store.register(searchResult("search-2"));
+
+		assertSame(first, store.get("search-1"));
+		assertSame(second, store.get("search-2"));
+	}
+
+	@Test
+	void registeringAnIdAgainKeepsTheStoredInstance() {
+		SearchResultStore store = store(100);
+		SearchResult stored = store.register(searchResult("search-1"));
+
+		assertSame(stored, store.register(searchResult("search-1")));
+		assertSame(stored, store.get("search-1"));
+	}
+
+	@Test
+	void anUnknownOrExpiredIdIsNotFound() {
+		SearchResultStore store = store(100);
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> store.get("gone"));
+
+		assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+	}
+
+	@Test
+	void containsDoesNotCountAsAnAccess() {
+		SearchResultStore store = store(100);
+		store.register(searchResult("search-1"));
+		long requests = store.getResults().stats().requestCount();
+
+		assertTrue(store.contains("search-1"));
+		assertFalse(store.contains("search-2"));
+		assertFalse(store.contains(null));
+
+		assertEquals(requests, store.getResults().stats().requestCount());
+	}
+
+	@Test
+	void keepsAtMostMaxSizeResults() {
+		SearchResultStore store = store(2);
+		for (int i = 1; i <= 10; i++) {
+			store.register(searchResult("search-" + i));
+		}
+
+		store.getResults().cleanUp();
+
+		assertTrue(store.getResults().estimatedSize() <= 2, String.valueOf(store.getResults().estimatedSize()));
+	}
+
+	private static SearchResultStore store(long maxSize) {
+		SearchResultStore store = new SearchResultStore();
+		ReflectionTestUtils.setField(store, "maxSize", maxSize);
+		ReflectionTestUtils.setField(store, "ttl", Duration.ofMinutes(1));
+		store.init();
+		return store;
+	}
+
+	private SearchResult searchResult(String searchId) {
+		return SearchResult.builder(searchId, registry).build();
+	}
+}
@@ -0,0 +1,142 @@
+package com.raul.flight_search_backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppendOnlyFileStoreTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recordsSurviveReopeningAndTheLatestWriteWins() throws Exception {
+		Path file = directory.resolve("locations.log");
+		try (AppendOnlyFileStore store = opened(file)) {
+			store.write("JFK", bytes("first"));
+			store.write("JFK", bytes("second"));
+			store.write("XYZ", null);
+			store.write("LAX", bytes("gone"));
+			store.delete("LAX");
+		}
+
+		try (AppendOnlyFileStore store = opened(file)) {
+			assertEquals(2, store.size());
+			assertArrayEquals(bytes("second"), store.read("JFK").value());
+
+			AppendOnlyFileStore.Record unknown = store.read("XYZ");
+			assertNotNull(unknown);
+			assertNull(unknown.value());
+
+			assertNull(store.read("LAX"));
+		}
+	}
+
+	@Test
+	void aTornRecordAtTheEndIsDiscarded() throws Exception {
+		Path file = directory.resolve("locations.log");
+		try (AppendOnlyFileStore store = opened(file)) {
+			store.write("JFK", bytes("complete"));
+		}
+		long completeLength = Files.size(file);
+		Files.write(file, new byte[] { 0, 0, 0, 3, 1, 2 }, StandardOpenOption.APPEND);
+
+		try (AppendOnlyFileStore store = opened(file)) {
+			assertArrayEquals(bytes("complete"), store.read("JFK").value());
+			assertEquals(completeLength, Files.size(file));
+
+			store.write("LAX", bytes("after"));
+			assertArrayEquals(bytes("after"), store.read("LAX").value());
+		}
+	}
+
+	@Test
+	void compactsWhileRunningOnceMostOfTheFileIsDead() throws Exception {
+		Path file = directory.resolve("locations.log");
+		byte[] value = new byte[1024];
+		try (AppendOnlyFileStore store = opened(file)) {
+			for (int i = 0; i < 2048; i++) {
+				value[0] = (byte) i;
+				store.write("JFK", value);
+			}
+			store.write("LAX", bytes("kept"));
+
+			assertTrue(store.getCompactions() > 0);
+			assertTrue(Files.size(file) < 1 << 20);
+			assertArrayEquals(value, store.read("JFK").value());
+			assertArrayEquals(bytes("kept"), store.read("LAX").value());
+		}
+
+		try (AppendOnlyFileStore store = opened(file)) {
+			assertEquals(2, store.size());
+			assertArrayEquals(value, store.read("JFK").value());
+		}
+	}
+
+	@Test
+	void aStoreThatFailedToLoadLeavesTheFileAlone() throws Exception {
+		Path file = directory.resolve("locations.log");
+		writeDeadHeavyLog(file);
+		byte[] before = Files.readAllBytes(file);
+		// Compaction during the load cannot create its temporary file, so the load fails.
+		Files.createDirectory(directory.resolve("locations.log.compact"));
+
+		try (AppendOnlyFileStore store = new AppendOnlyFileStore(file)) {
+			assertThrows(IOException.class, () -> store.write("LAX", bytes("lost")));
+			assertThrows(IOException.class, () -> store.delete("JFK"));
+			assertThrows(IOException.class, store::clear);
+
+			assertFalse(store.isReady());
+			assertEquals(0, store.size());
+			assertNull(store.read("JFK"));
+		}
+		assertArrayEquals(before, Files.readAllBytes(file));
+	}
+
+	/**
+	 * Over a megabyte of overwritten records for one key, written directly so no compaction runs.
+	 */
+	static void writeDeadHeavyLog(Path file) throws IOException {
+		byte[] key = bytes("JFK");
+		ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + Long.BYTES + Integer.BYTES + key.length + 1024);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			for (int i = 0; i < 1100; i++) {
+				record.clear();
+				record.putInt(key.length).putLong(System.currentTimeMillis()).putInt(1024).put(key).put(new byte[1024]);
+				record.flip();
+				while (record.hasRemaining()) {
+					channel.write(record);
+				}
+			}
+		}
+	}
+
+	private static AppendOnlyFileStore opened(Path file) throws Exception {
+		AppendOnlyFileStore store = new AppendOnlyFileStore(file);
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!store.isReady() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(store.isReady());
+		return store;
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
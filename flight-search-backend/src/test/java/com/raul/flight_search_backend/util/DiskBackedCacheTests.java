@@ -0,0 +1,83 @@
+package com.raul.flight_search_backend.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskBackedCacheTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void aDiskHitKeepsOnlyWhatIsLeftOfItsTtl() throws Exception {
+		Duration ttl = Duration.ofSeconds(2);
+		Cache<Object, Object> memory = Caffeine.newBuilder().expireAfter(expireAfterWrite(ttl)).build();
+		AppendOnlyFileStore store = new AppendOnlyFileStore(directory.resolve("locations.log"));
+		try (DiskBackedCache cache = new DiskBackedCache(new CaffeineCache("locations", memory), store,
+				new ObjectMapper(new SmileFactory()), String.class, ttl)) {
+			while (!cache.isDiskReady()) {
+				Thread.sleep(5);
+			}
+			cache.put("JFK", "New York");
+			memory.invalidate("JFK");
+			Thread.sleep(500);
+
+			assertEquals("New York", cache.get("JFK", String.class));
+			assertEquals(1, cache.getDiskHits());
+			Duration remaining = memory.policy().expireVariably().orElseThrow().getExpiresAfter("JFK").orElseThrow();
+			assertTrue(remaining.compareTo(Duration.ofMillis(1600)) < 0, "promoted for " + remaining);
+		}
+	}
+
+	@Test
+	void writesToAStoreThatFailedToLoadAreCountedAsDiskErrors() throws Exception {
+		Path file = directory.resolve("locations.log");
+		AppendOnlyFileStoreTests.writeDeadHeavyLog(file);
+		long before = Files.size(file);
+		Files.createDirectory(directory.resolve("locations.log.compact"));
+
+		Cache<Object, Object> memory = Caffeine.newBuilder().build();
+		try (DiskBackedCache cache = new DiskBackedCache(new CaffeineCache("locations", memory),
+				new AppendOnlyFileStore(file), new ObjectMapper(new SmileFactory()), String.class, Duration.ofMinutes(1))) {
+			cache.put("LAX", "Los Angeles");
+			cache.evict("JFK");
+
+			assertEquals("Los Angeles", cache.get("LAX", String.class));
+			assertEquals(2, cache.getDiskErrors());
+			assertEquals(0, cache.getDiskWrites());
+		}
+		assertEquals(before, Files.size(file));
+	}
+
+	private static Expiry<Object, Object> expireAfterWrite(Duration ttl) {
+		return new Expiry<>() {
+			@Override
+			public long expireAfterCreate(Object key, Object value, long currentTime) {
+				return ttl.toNanos();
+			}
+
+			@Override
+			public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+				return ttl.toNanos();
+			}
+
+			@Override
+			public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+		};
+	}
+}
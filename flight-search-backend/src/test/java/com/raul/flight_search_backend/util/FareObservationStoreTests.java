@@ -0,0 +1,100 @@
+package com.raul.flight_search_backend.util;
+
+import com.raul.flight_search_backend.model.FareObservation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FareObservationStoreTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void observationsSurviveReopeningInAppendOrder() throws Exception {
+		Path file = directory.resolve("observations.dat");
+		List<FareObservation> written = new ArrayList<>();
+		try (FareObservationStore store = new FareObservationStore(file, 100)) {
+			for (int i = 0; i < 3; i++) {
+				FareObservation observation = observation(20000 + i, 12345 + i * 100);
+				store.append(observation);
+				written.add(observation);
+			}
+		}
+
+		try (FareObservationStore store = new FareObservationStore(file, 100)) {
+			assertEquals(3, store.size());
+			assertEquals(written, read(store, 0, Long.MAX_VALUE));
+			assertEquals(written.subList(1, 2), read(store, 1, 2));
+
+			FareObservation later = observation(20010, 999);
+			store.append(later);
+			assertEquals(later, read(store, 0, Long.MAX_VALUE).get(3));
+		}
+	}
+
+	@Test
+	void recordsPastTheFirstSegmentAreMapped() throws Exception {
+		try (FareObservationStore store = new FareObservationStore(directory.resolve("observations.dat"), 2L * FareObservationStore.RECORDS_PER_SEGMENT)) {
+			for (int i = 0; i <= FareObservationStore.RECORDS_PER_SEGMENT; i++) {
+				store.append(observation(20000, i));
+			}
+			List<FareObservation> all = read(store, 0, Long.MAX_VALUE);
+			assertEquals(FareObservationStore.RECORDS_PER_SEGMENT + 1, all.size());
+			assertEquals(FareObservationStore.RECORDS_PER_SEGMENT, all.get(all.size() - 1).priceCents());
+		}
+	}
+
+	@Test
+	void overwritesTheOldestObservationsOnceFullAndKeepsTheWindowAcrossReopening() throws Exception {
+		Path file = directory.resolve("observations.dat");
+		try (FareObservationStore store = new FareObservationStore(file, 3)) {
+			for (int price = 100; price <= 700; price += 100) {
+				store.append(observation(20000, price));
+			}
+
+			assertEquals(3, store.size());
+			assertEquals(4, store.start());
+			assertEquals(7, store.end());
+			assertEquals(List.of(500, 600, 700), prices(read(store, 0, Long.MAX_VALUE)));
+			assertEquals(List.of(600), prices(read(store, 5, 6)));
+		}
+
+		try (FareObservationStore store = new FareObservationStore(file, 100)) {
+			assertEquals(3, store.getCapacity());
+			store.append(observation(20000, 800));
+			assertEquals(List.of(600, 700, 800), prices(read(store, 0, Long.MAX_VALUE)));
+		}
+	}
+
+	@Test
+	void rejectsAFileThatIsNotAnObservationStore() throws Exception {
+		Path file = directory.resolve("observations.dat");
+		Files.write(file, new byte[64]);
+
+		assertThrows(IOException.class, () -> new FareObservationStore(file, 100));
+	}
+
+	private static FareObservation observation(int departureDay, int priceCents) {
+		return new FareObservation(FareObservation.route("JFK", "LAX"), departureDay, 29_000_000, priceCents,
+				FareObservation.pack("USD"), FareObservation.pack("AA"), 1);
+	}
+
+	private static List<FareObservation> read(FareObservationStore store, long from, long to) {
+		List<FareObservation> observations = new ArrayList<>();
+		store.forEach(from, to, observations::add);
+		return observations;
+	}
+
+	private static List<Integer> prices(List<FareObservation> observations) {
+		return observations.stream().map(FareObservation::priceCents).toList();
+	}
+}
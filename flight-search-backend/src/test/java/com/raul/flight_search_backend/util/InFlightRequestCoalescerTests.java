@@ -0,0 +1,73 @@
+package com.raul.flight_search_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InFlightRequestCoalescerTests {
+
+	@Test
+	void concurrentCallersShareOneExecution() throws Exception {
+		InFlightRequestCoalescer<String, String> coalescer = new InFlightRequestCoalescer<>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		int callers = 8;
+
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				results.add(executor.submit(() -> coalescer.execute("JFK|LAX", () -> {
+					loads.incrementAndGet();
+					await(release);
+					return "offers";
+				})));
+			}
+
+			while (coalescer.getExecutedCount() + coalescer.getCoalescedCount() < callers) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("offers", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(1, coalescer.getExecutedCount());
+		assertEquals(callers - 1, coalescer.getCoalescedCount());
+		assertEquals(0, coalescer.getInFlightCount());
+	}
+
+	@Test
+	void failureIsNotRememberedAfterTheCallCompletes() {
+		InFlightRequestCoalescer<String, String> coalescer = new InFlightRequestCoalescer<>();
+
+		assertThrows(IllegalStateException.class, () -> coalescer.execute("key", () -> {
+			throw new IllegalStateException("upstream down");
+		}));
+
+		assertEquals("recovered", coalescer.execute("key", () -> "recovered"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.raul.flight_search_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InboundAdmissionLimiterTests {
+
+	@Test
+	void requestsBeyondTheLimitQueueThenAreShed() throws Exception {
+		InboundAdmissionLimiter limiter = new InboundAdmissionLimiter()
+				.lane("search", 1, 1, Duration.ofMillis(20))
+				.lane("details", 1, 0, Duration.ofMillis(20));
+		InboundAdmissionLimiter.Lane search = limiter.getLanes().get("search");
+
+		try (InboundAdmissionLimiter.Permit permit = limiter.acquire("search", false)) {
+			assertNotNull(permit);
+			assertNull(limiter.acquire("search", false));
+			assertEquals(1, search.getTimedOut());
+
+			try (InboundAdmissionLimiter.Permit details = limiter.acquire("details", false)) {
+				assertNull(limiter.acquire("details", true));
+				assertEquals(1, limiter.getLanes().get("details").getRejected());
+			}
+		}
+
+		assertEquals(0, search.getInFlight());
+		assertNotNull(limiter.acquire("unknown", false));
+	}
+
+	@Test
+	void queuedRequestsAreAdmittedWhenASlotFrees() throws Exception {
+		InboundAdmissionLimiter limiter = new InboundAdmissionLimiter().lane("search", 1, 1, Duration.ofSeconds(5));
+		InboundAdmissionLimiter.Lane search = limiter.getLanes().get("search");
+
+		InboundAdmissionLimiter.Permit permit = limiter.acquire("search", false);
+		CompletableFuture<InboundAdmissionLimiter.Permit> queued = acquireAsync(limiter, false);
+		awaitQueued(search, 1);
+
+		permit.close();
+		InboundAdmissionLimiter.Permit admitted = queued.get(1, TimeUnit.SECONDS);
+		assertNotNull(admitted);
+		assertEquals(1, search.getInFlight());
+
+		admitted.close();
+		admitted.close();
+		assertEquals(0, search.getInFlight());
+	}
+
+	@Test
+	void preferredRequestsTakeTheQueuedPlaceOfOrdinaryOnes() throws Exception {
+		InboundAdmissionLimiter limiter = new InboundAdmissionLimiter().lane("search", 1, 1, Duration.ofSeconds(5));
+		InboundAdmissionLimiter.Lane search = limiter.getLanes().get("search");
+
+		InboundAdmissionLimiter.Permit permit = limiter.acquire("search", false);
+		CompletableFuture<InboundAdmissionLimiter.Permit> ordinary = acquireAsync(limiter, false);
+		awaitQueued(search, 1);
+		CompletableFuture<InboundAdmissionLimiter.Permit> preferred = acquireAsync(limiter, true);
+
+		assertNull(ordinary.get(1, TimeUnit.SECONDS));
+		assertEquals(1, search.getRejected());
+
+		permit.close();
+		assertNotNull(preferred.get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void risingLatencyLowersTheLimit() throws Exception {
+		InboundAdmissionLimiter limiter = new InboundAdmissionLimiter().lane("search", 100, 0, Duration.ZERO);
+		InboundAdmissionLimiter.Lane search = limiter.getLanes().get("search");
+
+		for (int i = 0; i < 20; i++) {
+			limiter.acquire("search", false).close();
+		}
+		assertEquals(100, search.getLimit());
+
+		for (int i = 0; i < 10; i++) {
+			try (InboundAdmissionLimiter.Permit permit = limiter.acquire("search", false)) {
+				Thread.sleep(5);
+			}
+		}
+		assertTrue(search.getLimit() < 100, "limit " + search.getLimit());
+	}
+
+	@Test
+	void slowPreferredRequestsDoNotMoveTheLimit() throws Exception {
+		InboundAdmissionLimiter limiter = new InboundAdmissionLimiter().lane("search", 100, 0, Duration.ZERO);
+		InboundAdmissionLimiter.Lane search = limiter.getLanes().get("search");
+
+		for (int i = 0; i < 20; i++) {
+			limiter.acquire("search", false).close();
+		}
+		for (int i = 0; i < 10; i++) {
+			try (InboundAdmissionLimiter.Permit permit = limiter.acquire("search", true)) {
+				Thread.sleep(5);
+			}
+		}
+
+		assertEquals(100, search.getLimit());
+		assertTrue(search.getLatencyMillis() < 5, "latency " + search.getLatencyMillis());
+	}
+
+	private static CompletableFuture<InboundAdmissionLimiter.Permit> acquireAsync(InboundAdmissionLimiter limiter, boolean preferred) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return limiter.acquire("search", preferred);
+			} catch (InterruptedException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	private static void awaitQueued(InboundAdmissionLimiter.Lane lane, int queued) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		while (lane.getQueued() < queued && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(queued, lane.getQueued());
+	}
+}
@@ -0,0 +1,72 @@
+package com.raul.flight_search_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamCircuitBreakerTests {
+
+	private static final String PATH = "/v2/shopping/flight-offers";
+
+	private final AtomicLong now = new AtomicLong();
+	private final UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(3, Duration.ofSeconds(30), now::get)
+			.circuit("flight-offers", PATH);
+
+	@Test
+	void consecutiveFailuresOpenTheCircuit() throws Exception {
+		breaker.attempt(PATH).failed();
+		breaker.attempt(PATH).failed();
+		breaker.attempt(PATH).succeeded();
+		breaker.attempt(PATH).failed();
+		breaker.attempt(PATH).failed();
+		assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitState());
+
+		breaker.attempt(PATH).failed();
+		assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitState());
+		assertThrows(UpstreamUnavailableException.class, () -> breaker.attempt(PATH));
+	}
+
+	@Test
+	void aSingleProbeIsLetThroughAfterTheOpenDuration() throws Exception {
+		open();
+		now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+		UpstreamCircuitBreaker.Call probe = breaker.attempt(PATH);
+		assertThrows(UpstreamUnavailableException.class, () -> breaker.attempt(PATH));
+
+		probe.succeeded();
+		assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitState());
+		breaker.attempt(PATH).succeeded();
+	}
+
+	@Test
+	void aFailedProbeReopensTheCircuit() throws Exception {
+		open();
+		now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+		breaker.attempt(PATH).failed();
+		assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitState());
+		assertThrows(UpstreamUnavailableException.class, () -> breaker.attempt(PATH));
+	}
+
+	@Test
+	void unmatchedPathsAreNotGuarded() throws Exception {
+		open();
+
+		breaker.attempt("/v1/reference-data/locations").failed();
+	}
+
+	private void open() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			breaker.attempt(PATH).failed();
+		}
+	}
+
+	private UpstreamCircuitBreaker.State circuitState() {
+		return breaker.getCircuits().get("flight-offers").getState();
+	}
+}
@@ -0,0 +1,56 @@
+package com.raul.flight_search_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamConcurrencyLimiterTests {
+
+	@Test
+	void callsBeyondTheLimitAreRejectedAfterTheTimeout() throws Exception {
+		UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(Duration.ofMillis(20))
+				.limit("flight-offers", "/v2/shopping/flight-offers", 1);
+		UpstreamConcurrencyLimiter.Endpoint endpoint = limiter.getEndpoints().get("flight-offers");
+
+		try (UpstreamConcurrencyLimiter.Permit permit = limiter.acquire("/v2/shopping/flight-offers")) {
+			assertEquals(1, endpoint.getInFlight());
+			assertThrows(IOException.class, () -> limiter.acquire("/v2/shopping/flight-offers"));
+		}
+
+		assertEquals(0, endpoint.getInFlight());
+		assertEquals(1, endpoint.getRejected());
+	}
+
+	@Test
+	void unmatchedPathsAreNotLimited() throws Exception {
+		UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(Duration.ofMillis(20))
+				.limit("flight-offers", "/v2/shopping/flight-offers", 1);
+
+		try (UpstreamConcurrencyLimiter.Permit first = limiter.acquire("/v1/reference-data/locations");
+			 UpstreamConcurrencyLimiter.Permit second = limiter.acquire("/v1/reference-data/locations")) {
+			assertEquals(0, limiter.getEndpoints().get("flight-offers").getInFlight());
+		}
+	}
+
+	@Test
+	void overloadCutsTheLimitAndSuccessesRaiseItBack() throws Exception {
+		UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(Duration.ofMillis(20))
+				.limit("flight-offers", "/v2/shopping/flight-offers", 10);
+		UpstreamConcurrencyLimiter.Endpoint endpoint = limiter.getEndpoints().get("flight-offers");
+
+		try (UpstreamConcurrencyLimiter.Permit permit = limiter.acquire("/v2/shopping/flight-offers")) {
+			permit.overloaded();
+		}
+		assertEquals(7, endpoint.getLimit());
+
+		for (int i = 0; i < 100 && endpoint.getLimit() < 10; i++) {
+			limiter.acquire("/v2/shopping/flight-offers").close();
+		}
+		assertEquals(10, endpoint.getLimit());
+		assertEquals(1, endpoint.getBackoffs());
+	}
+}
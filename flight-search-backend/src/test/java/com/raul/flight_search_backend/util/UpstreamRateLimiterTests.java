@@ -0,0 +1,44 @@
+package com.raul.flight_search_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamRateLimiterTests {
+
+	private static final String PATH = "/v2/shopping/flight-offers";
+
+	@Test
+	void callsBeyondTheBurstAreRejectedWhenTheWaitIsTooLong() throws Exception {
+		UpstreamRateLimiter limiter = new UpstreamRateLimiter(Duration.ZERO)
+				.limit("flight-offers", PATH, 2);
+
+		limiter.acquire(PATH);
+		limiter.acquire(PATH);
+		assertThrows(UpstreamUnavailableException.class, () -> limiter.acquire(PATH));
+		assertEquals(1, limiter.getBuckets().get("flight-offers").getRejected());
+	}
+
+	@Test
+	void aPauseHoldsBackEveryCaller() {
+		UpstreamRateLimiter limiter = new UpstreamRateLimiter(Duration.ofMillis(100))
+				.limit("flight-offers", PATH, 10);
+
+		limiter.pause(PATH, Duration.ofSeconds(5));
+
+		assertThrows(UpstreamUnavailableException.class, () -> limiter.acquire(PATH));
+	}
+
+	@Test
+	void unmatchedPathsAreNotLimited() throws Exception {
+		UpstreamRateLimiter limiter = new UpstreamRateLimiter(Duration.ZERO)
+				.limit("flight-offers", PATH, 1);
+
+		for (int i = 0; i < 5; i++) {
+			limiter.acquire("/v1/reference-data/locations");
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.raul.flight_search_backend.util;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamTimingInterceptorTests {
+
+	@Test
+	void callsAreTimedByOperationAndStatus() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		UpstreamTimingInterceptor interceptor = new UpstreamTimingInterceptor(registry);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("https://test.api.amadeus.com/v1/reference-data/locations/AJFK"));
+
+		interceptor.intercept(request, new byte[0],
+				(req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+
+		Timer timer = registry.find(UpstreamTimingInterceptor.METRIC_NAME)
+				.tags("operation", "locations", "method", "GET", "status", "404")
+				.timer();
+		assertNotNull(timer);
+		assertEquals(1, timer.count());
+	}
+
+	@Test
+	void failedCallsAreTimedAsIoErrors() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		UpstreamTimingInterceptor interceptor = new UpstreamTimingInterceptor(registry);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("https://test.api.amadeus.com/v2/shopping/flight-offers?originLocationCode=JFK"));
+
+		assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], (req, body) -> {
+			throw new IOException("connection reset");
+		}));
+
+		assertNotNull(registry.find(UpstreamTimingInterceptor.METRIC_NAME)
+				.tags("operation", "flight-offers", "status", "IO_ERROR")
+				.timer());
+	}
+
+	@Test
+	void pathsMapToOperations() {
+		assertEquals("oauth", UpstreamTimingInterceptor.operationOf("/v1/security/oauth2/token"));
+		assertEquals("locations", UpstreamTimingInterceptor.operationOf("/v1/reference-data/locations"));
+		assertEquals("other", UpstreamTimingInterceptor.operationOf("/v1/unknown"));
+	}
+}
@@ -1,9 +1,11 @@
 import { useState, useEffect } from 'react';
-import { useParams } from 'react-router-dom';
+import { useParams, useSearchParams } from 'react-router-dom';
 import { useNavigate } from 'react-router-dom';
 
 const FlightDetailsPage = () => {
   const { flightId } = useParams();
+  const [searchParams] = useSearchParams();
+  const searchId = searchParams.get('searchId');
   const [flightDetails, setFlightDetails] = useState<any>(null);
   const [dictionaries, setDictionaries] = useState<any>(null);
   const navigate = useNavigate();
@@ -11,7 +13,7 @@ const FlightDetailsPage = () => {
   useEffect(() => {
     const fetchFlightDetails = async () => {
       try {
-        const response = await fetch(`http://localhost:8080/api/flight-offers/details/${flightId}`);
+        const response = await fetch(`http://localhost:8080/api/flight-offers/details/${flightId}?searchId=${searchId}`);
         if (!response.ok) throw new Error(`HTTP error! Status: ${response.status}`);
         const data = await response.json();
         setFlightDetails(data.flightOffer);
@@ -22,7 +24,7 @@ const FlightDetailsPage = () => {
     };
 
     fetchFlightDetails();
-  }, [flightId]);
+  }, [flightId, searchId]);
 
   const getCityName = (iataCode: string) => {
     if (dictionaries && dictionaries.locations && dictionaries.locations[iataCode] && dictionaries.locations[iataCode].cityName != null) {
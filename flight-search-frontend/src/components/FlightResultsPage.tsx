@@ -7,6 +7,7 @@ const FlightResultsPage: React.FC = () => {
   const [currentPage, setCurrentPage] = useState(1);
   const [flights, setFlights] = useState<any[]>([]);
   const [dictionaries, setDictionaries] = useState<any>(null);
+  const [searchId, setSearchId] = useState<string>('');
   const [sortOption, setSortOption] = useState<string>('price');
   const navigate = useNavigate();
   const location = useLocation();
@@ -59,7 +60,7 @@ const FlightResultsPage: React.FC = () => {
   useEffect(() => {
     const fetchFlights = async () => {
       const params = new URLSearchParams(window.location.search);
-      const url = new URL('http://localhost:8080/api/flight-offers/search');
+      const url = new URL('http://localhost:8080/api/flight-offers/search/stream');
 
       params.forEach((value, key) => {
         if (value !== null && value.trim() !== '') {
@@ -67,12 +68,40 @@ const FlightResultsPage: React.FC = () => {
         }
       });
 
+      const handleEvent = (line: string) => {
+        if (line.trim() === '') return;
+        const event = JSON.parse(line);
+        if (event.type === 'offer') {
+          setFlights(previous => [...previous, event.data]);
+        } else if (event.type === 'complete') {
+          setDictionaries(event.data.dictionaries);
+          setSearchId(event.data.searchId);
+        } else if (event.type === 'error') {
+          throw new Error(event.data.message);
+        }
+      };
+
+      setFlights([]);
+      setDictionaries(null);
+      setSearchId('');
+
       try {
-        const response = await fetch(url);
-        if (!response.ok) throw new Error(`HTTP error! Status: ${response.status}`);
-        const data = await response.json();
-        setFlights(data.data);
-        setDictionaries(data.dictionaries);
+        const response = await fetch(url, { headers: { Accept: 'application/x-ndjson' } });
+        if (!response.ok || !response.body) throw new Error(`HTTP error! Status: ${response.status}`);
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffered = '';
+
+        while (true) {
+          const { done, value } = await reader.read();
+          if (done) break;
+          buffered += decoder.decode(value, { stream: true });
+          const lines = buffered.split('\n');
+          buffered = lines.pop() ?? '';
+          lines.forEach(handleEvent);
+        }
+        handleEvent(buffered);
 
       } catch (error) {
         console.error('Failed to fetch flights:', error);
@@ -160,7 +189,8 @@ const FlightResultsPage: React.FC = () => {
   };
 
   const handleDetailsClick = (flightId: string) => {
-    navigate(`/details/${flightId}`);
+    if (!searchId) return;
+    navigate(`/details/${flightId}?searchId=${searchId}`);
   };
 
   return (